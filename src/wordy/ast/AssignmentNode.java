@@ -25,6 +25,14 @@ public class AssignmentNode extends StatementNode {
         this.expression = expression;
     }
 
+    public VariableNode getVariable() {
+        return variable;
+    }
+
+    public ExpressionNode getExpression() {
+        return expression;
+    }
+
     @Override
     public Map<String, ASTNode> getChildren() {
         return orderedMap(
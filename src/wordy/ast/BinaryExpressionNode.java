@@ -22,6 +22,18 @@ public class BinaryExpressionNode extends ExpressionNode {
         this.rhs = rhs;
     }
 
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public ExpressionNode getLhs() {
+        return lhs;
+    }
+
+    public ExpressionNode getRhs() {
+        return rhs;
+    }
+
     @Override
     public Map<String, ASTNode> getChildren() {
         return orderedMap(
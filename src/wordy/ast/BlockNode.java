@@ -1,6 +1,7 @@
 package wordy.ast;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,6 +26,13 @@ public class BlockNode extends StatementNode {
         this.statements = Arrays.asList(statements);
     }
 
+    /**
+     * The statements of this block, in execution order.
+     */
+    public List<StatementNode> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+
     @Override
     public Map<String, ASTNode> getChildren() {
         Map<String, ASTNode> result = new LinkedHashMap<>();
@@ -0,0 +1,76 @@
+package wordy.ast;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The fused form of “If <lhs> <operator> <constant> then exit loop”: compares an expression to a
+ * constant, and exits the innermost loop if the comparison holds.
+ */
+public final class ConditionalExitNode extends StatementNode implements FusedNode {
+    private final ConditionalNode.Operator operator;
+    private final ExpressionNode lhs;
+    private final double limit;
+
+    public ConditionalExitNode(ConditionalNode.Operator operator, ExpressionNode lhs, double limit) {
+        this.operator = operator;
+        this.lhs = lhs;
+        this.limit = limit;
+    }
+
+    public ConditionalNode.Operator getOperator() {
+        return operator;
+    }
+
+    public ExpressionNode getLhs() {
+        return lhs;
+    }
+
+    /**
+     * The constant the expression is compared against.
+     */
+    public double getLimit() {
+        return limit;
+    }
+
+    @Override
+    public ASTNode unfused() {
+        return new ConditionalNode(operator, lhs, new ConstantNode(limit), new LoopExitNode(), BlockNode.EMPTY);
+    }
+
+    @Override
+    public Map<String, ASTNode> getChildren() {
+        return Map.of("lhs", lhs);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o)
+            return true;
+        if(o == null || getClass() != o.getClass())
+            return false;
+        ConditionalExitNode that = (ConditionalExitNode) o;
+        return this.operator == that.operator
+            && this.lhs.equals(that.lhs)
+            && Double.compare(this.limit, that.limit) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(operator, lhs, limit);
+    }
+
+    @Override
+    public String toString() {
+        return "ConditionalExitNode{"
+            + "operator=" + operator
+            + ", lhs=" + lhs
+            + ", limit=" + limit
+            + '}';
+    }
+
+    @Override
+    protected String describeAttributes() {
+        return "(operator=" + operator + ", limit=" + limit + ')';
+    }
+}
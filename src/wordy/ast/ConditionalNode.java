@@ -31,6 +31,33 @@ public class ConditionalNode extends StatementNode {
         this.ifFalse = ifFalse;
     }
 
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public ExpressionNode getLhs() {
+        return lhs;
+    }
+
+    public ExpressionNode getRhs() {
+        return rhs;
+    }
+
+    /**
+     * The statement to run when the comparison holds.
+     */
+    public StatementNode getIfTrue() {
+        return ifTrue;
+    }
+
+    /**
+     * The statement to run when the comparison does not hold. This is an empty BlockNode if the
+     * conditional has no “else” clause.
+     */
+    public StatementNode getIfFalse() {
+        return ifFalse;
+    }
+
     @Override
     public Map<String, ASTNode> getChildren() {
         return orderedMap(
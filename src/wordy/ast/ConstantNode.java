@@ -16,6 +16,13 @@ public final class ConstantNode extends ExpressionNode {
         this.value = value;
     }
 
+    /**
+     * The value this expression always evaluates to.
+     */
+    public double getValue() {
+        return value;
+    }
+
     @Override
     public Map<String, ASTNode> getChildren() {
         return Collections.emptyMap();
@@ -15,12 +15,16 @@ public abstract class ExpressionNode extends ASTNode {
      * Used to implement the Wordy interpreter.
      * 
      * Reports to the evaluation context’s tracer (if present) that expression evaluation is
-     * starting, and reports the resulting value when evaluation is complete.
+     * starting, and reports the resulting value when evaluation is complete. For an untraced
+     * context, this does nothing but call doEvaluate().
      * 
      * @param context Provides the values of variables this expression can use.
      * @return The result of evaluating this expression.
      */
     public final double evaluate(EvaluationContext context) {
+        if(!context.isTraced())
+            return doEvaluate(context);  // no tracer calls, no boxing
+
         context.trace(this, EvaluationContext.Tracer.Phase.STARTED);
         Double result = null;
         try {
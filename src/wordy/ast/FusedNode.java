@@ -0,0 +1,17 @@
+package wordy.ast;
+
+/**
+ * An AST node that does the work of a common combination of basic nodes in a single step, such
+ * as “Set count to count plus 1.” Fused nodes never come from the parser; the
+ * {@link wordy.optimizer.SuperinstructionFusion} pass creates them.
+ *
+ * Execution engines that have no special handling for a fused node can run its unfused() form
+ * instead, which has exactly the same behavior. Like the basic nodes, fused nodes have no
+ * doRun() / doEvaluate() or compile() of their own.
+ */
+public interface FusedNode {
+    /**
+     * Returns the equivalent tree of basic nodes that this node replaced.
+     */
+    ASTNode unfused();
+}
@@ -0,0 +1,67 @@
+package wordy.ast;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Adds a constant to a variable in place: the fused form of “Set x to x plus c” (and of
+ * “x minus c”, with a negated amount).
+ */
+public final class IncrementNode extends StatementNode implements FusedNode {
+    private final VariableNode variable;
+    private final double amount;
+
+    public IncrementNode(VariableNode variable, double amount) {
+        this.variable = variable;
+        this.amount = amount;
+    }
+
+    public VariableNode getVariable() {
+        return variable;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    @Override
+    public ASTNode unfused() {
+        return new AssignmentNode(
+            variable,
+            new BinaryExpressionNode(BinaryExpressionNode.Operator.ADDITION, variable, new ConstantNode(amount)));
+    }
+
+    @Override
+    public Map<String, ASTNode> getChildren() {
+        return Map.of("variable", variable);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o)
+            return true;
+        if(o == null || getClass() != o.getClass())
+            return false;
+        IncrementNode that = (IncrementNode) o;
+        return this.variable.equals(that.variable)
+            && Double.compare(this.amount, that.amount) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(variable, amount);
+    }
+
+    @Override
+    public String toString() {
+        return "IncrementNode{"
+            + "variable=" + variable
+            + ", amount=" + amount
+            + '}';
+    }
+
+    @Override
+    protected String describeAttributes() {
+        return "(amount=" + amount + ')';
+    }
+}
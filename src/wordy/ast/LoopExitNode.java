@@ -7,7 +7,8 @@ import java.util.Map;
  * A statement that causes program flow to exit the nearest-nested loop. Often called “break” in
  * other languages.
  * 
- * The interpreter implements this by throwing a `LoopExited` exception.
+ * The interpreter implements this by throwing a `LoopExited` exception. (It can throw the shared
+ * `LoopExited.INSTANCE` rather than creating a new one each time.)
  */
 public final class LoopExitNode extends StatementNode {
     public LoopExitNode() {
@@ -8,6 +8,11 @@ import java.util.Objects;
  * statement until it encounters a LoopExitNode.
  * 
  * The interpreter implements this by catching a `LoopExited` exception to exit the loop.
+ *
+ * Each time the body completes and the loop is about to repeat, the loop must charge its
+ * {@link wordy.interpreter.ExecutionBudget} so that runaway programs can be stopped: interpreted
+ * loops call `context.loopIteration()` on the EvaluationContext, and compiled loops emit a call to
+ * the generated ExecutionContext’s `loopIteration()` method at the end of the loop body.
  */
 public class LoopNode extends StatementNode {
     private final StatementNode body;
@@ -16,6 +21,10 @@ public class LoopNode extends StatementNode {
         this.body = body;
     }
 
+    public StatementNode getBody() {
+        return body;
+    }
+
     @Override
     public Map<String, ASTNode> getChildren() {
         return Map.of("body", body);
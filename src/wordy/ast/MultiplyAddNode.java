@@ -0,0 +1,76 @@
+package wordy.ast;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static java.util.Map.entry;
+import static wordy.ast.Utils.orderedMap;
+
+/**
+ * The fused form of “a times b plus c.” This rounds after the multiplication and again after the
+ * addition, exactly like the unfused form; it is not a hardware fused multiply-add.
+ */
+public final class MultiplyAddNode extends ExpressionNode implements FusedNode {
+    private final ExpressionNode multiplier, multiplicand, addend;
+
+    public MultiplyAddNode(ExpressionNode multiplier, ExpressionNode multiplicand, ExpressionNode addend) {
+        this.multiplier = multiplier;
+        this.multiplicand = multiplicand;
+        this.addend = addend;
+    }
+
+    public ExpressionNode getMultiplier() {
+        return multiplier;
+    }
+
+    public ExpressionNode getMultiplicand() {
+        return multiplicand;
+    }
+
+    public ExpressionNode getAddend() {
+        return addend;
+    }
+
+    @Override
+    public ASTNode unfused() {
+        return new BinaryExpressionNode(
+            BinaryExpressionNode.Operator.ADDITION,
+            new BinaryExpressionNode(BinaryExpressionNode.Operator.MULTIPLICATION, multiplier, multiplicand),
+            addend);
+    }
+
+    @Override
+    public Map<String, ASTNode> getChildren() {
+        return orderedMap(List.of(
+            entry("multiplier", multiplier),
+            entry("multiplicand", multiplicand),
+            entry("addend", addend)));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o)
+            return true;
+        if(o == null || getClass() != o.getClass())
+            return false;
+        MultiplyAddNode that = (MultiplyAddNode) o;
+        return this.multiplier.equals(that.multiplier)
+            && this.multiplicand.equals(that.multiplicand)
+            && this.addend.equals(that.addend);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(multiplier, multiplicand, addend);
+    }
+
+    @Override
+    public String toString() {
+        return "MultiplyAddNode{"
+            + "multiplier=" + multiplier
+            + ", multiplicand=" + multiplicand
+            + ", addend=" + addend
+            + '}';
+    }
+}
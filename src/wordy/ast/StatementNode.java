@@ -15,11 +15,17 @@ public abstract class StatementNode extends ASTNode {
      * Used to implement the Wordy interpreter.
      *
      * Reports to the evaluation context’s tracer (if present) when expression evaluation is
-     * starting, and when it is complete.
+     * starting, and when it is complete. For an untraced context, this does nothing but call
+     * doRun().
      *
      * @param context Provides the values of variables.
      */
     public final void run(EvaluationContext context) {
+        if(!context.isTraced()) {
+            doRun(context);
+            return;
+        }
+
         context.trace(this, EvaluationContext.Tracer.Phase.STARTED);
         try {
             doRun(context);
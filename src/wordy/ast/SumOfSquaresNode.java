@@ -0,0 +1,66 @@
+package wordy.ast;
+
+import java.util.Map;
+import java.util.Objects;
+
+import static wordy.ast.Utils.orderedMap;
+
+/**
+ * The fused form of “a squared plus b squared” where a and b are variables. Squaring by
+ * multiplication gives exactly the same result as raising to the power of 2.
+ */
+public final class SumOfSquaresNode extends ExpressionNode implements FusedNode {
+    private final VariableNode lhs, rhs;
+
+    public SumOfSquaresNode(VariableNode lhs, VariableNode rhs) {
+        this.lhs = lhs;
+        this.rhs = rhs;
+    }
+
+    public VariableNode getLhs() {
+        return lhs;
+    }
+
+    public VariableNode getRhs() {
+        return rhs;
+    }
+
+    @Override
+    public ASTNode unfused() {
+        return new BinaryExpressionNode(
+            BinaryExpressionNode.Operator.ADDITION,
+            new BinaryExpressionNode(BinaryExpressionNode.Operator.EXPONENTIATION, lhs, new ConstantNode(2)),
+            new BinaryExpressionNode(BinaryExpressionNode.Operator.EXPONENTIATION, rhs, new ConstantNode(2)));
+    }
+
+    @Override
+    public Map<String, ASTNode> getChildren() {
+        return orderedMap(
+            "lhs", lhs,
+            "rhs", rhs);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o)
+            return true;
+        if(o == null || getClass() != o.getClass())
+            return false;
+        SumOfSquaresNode that = (SumOfSquaresNode) o;
+        return this.lhs.equals(that.lhs)
+            && this.rhs.equals(that.rhs);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(lhs, rhs);
+    }
+
+    @Override
+    public String toString() {
+        return "SumOfSquaresNode{"
+            + "lhs=" + lhs
+            + ", rhs=" + rhs
+            + '}';
+    }
+}
@@ -24,6 +24,17 @@ public class VariableNode extends ExpressionNode {
         return name;
     }
 
+    /**
+     * Indicates whether the given name belongs to a temporary that an optimization pass introduced,
+     * such as {@link wordy.optimizer.CommonSubexpressionElimination}’s. Such names start with “$”,
+     * which Wordy source cannot contain. Internal variables are not part of a program’s results:
+     * they are dead once it finishes, and contexts leave them out of the variables they show the
+     * host.
+     */
+    public static boolean isInternal(String name) {
+        return name.startsWith("$");
+    }
+
     @Override
     public Map<String, ASTNode> getChildren() {
         return Collections.emptyMap();
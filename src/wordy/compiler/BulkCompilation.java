@@ -0,0 +1,96 @@
+package wordy.compiler;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import wordy.ast.StatementNode;
+
+/**
+ * The results of compiling many Wordy programs at once with
+ * {@link WordyCompiler#compileAll(Map, Class, boolean)}. Each program either compiled or failed
+ * on its own; one bad program does not prevent the others from compiling.
+ */
+public final class BulkCompilation<Context extends WordyExecutable.ExecutionContext> {
+    private final Map<String, WordyExecutable<Context>> executables;
+    private final Map<String, CompilationException> errors;
+
+    static <Context extends WordyExecutable.ExecutionContext> BulkCompilation<Context> compile(
+        Map<String, StatementNode> programs,
+        Class<Context> executionContextInterface,
+        boolean parallel
+    ) {
+        var executables = new ConcurrentHashMap<String, WordyExecutable<Context>>();
+        var errors = new ConcurrentHashMap<String, CompilationException>();
+
+        Stream<Map.Entry<String, StatementNode>> entries = programs.entrySet().stream();
+        if(parallel)
+            entries = entries.parallel();
+        entries.forEach(entry -> {
+            String className = entry.getKey();
+            StatementNode program = entry.getValue();
+            try {
+                executables.put(className, BytecodeCompiler.compile(program, className, executionContextInterface));
+            } catch(CompilationException e) {
+                errors.put(className, e);
+            } catch(RuntimeException e) {
+                errors.put(className, new CompilationException(e, program));
+            }
+        });
+
+        // Report in the order the caller gave
+        var orderedExecutables = new LinkedHashMap<String, WordyExecutable<Context>>();
+        var orderedErrors = new LinkedHashMap<String, CompilationException>();
+        for(String className : programs.keySet()) {
+            if(executables.containsKey(className))
+                orderedExecutables.put(className, executables.get(className));
+            else
+                orderedErrors.put(className, errors.get(className));
+        }
+        return new BulkCompilation<>(orderedExecutables, orderedErrors);
+    }
+
+    private BulkCompilation(
+        Map<String, WordyExecutable<Context>> executables,
+        Map<String, CompilationException> errors
+    ) {
+        this.executables = Collections.unmodifiableMap(executables);
+        this.errors = Collections.unmodifiableMap(errors);
+    }
+
+    /**
+     * The programs that compiled successfully, by class name.
+     */
+    public Map<String, WordyExecutable<Context>> getExecutables() {
+        return executables;
+    }
+
+    /**
+     * The programs that failed to compile, by class name.
+     */
+    public Map<String, CompilationException> getErrors() {
+        return errors;
+    }
+
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    /**
+     * Returns the compiled program with the given class name.
+     *
+     * @throws CompilationException if that program failed to compile
+     * @throws IllegalArgumentException if there was no program with that name
+     */
+    public WordyExecutable<Context> get(String className) {
+        var error = errors.get(className);
+        if(error != null)
+            throw error;
+        var result = executables.get(className);
+        if(result == null)
+            throw new IllegalArgumentException("No program named " + className);
+        return result;
+    }
+}
@@ -0,0 +1,675 @@
+package wordy.compiler;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import wordy.ast.ASTNode;
+import wordy.ast.AssignmentNode;
+import wordy.ast.BinaryExpressionNode;
+import wordy.ast.BlockNode;
+import wordy.ast.ConditionalNode;
+import wordy.ast.ConstantNode;
+import wordy.ast.ExpressionNode;
+import wordy.ast.FusedNode;
+import wordy.ast.LoopExitNode;
+import wordy.ast.LoopNode;
+import wordy.ast.StatementNode;
+import wordy.ast.VariableNode;
+import wordy.interpreter.ConstantPower;
+import wordy.interpreter.ExecutionBudget;
+import wordy.interpreter.LoopExited;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Compiles Wordy code straight to JVM bytecode with ASM, skipping the Java source and javac steps
+ * that {@link WordyCompiler#compileFromSource(StatementNode, String, Class)} goes through. The
+ * result behaves exactly like the class that method produces: a `WordyExecutable` named className,
+ * whose nested `ExecutionContext` class holds one double field per variable, with get_ / set_
+ * accessors and support for an {@link ExecutionBudget}. Compiling takes milliseconds instead of
+ * the hundreds of milliseconds javac needs.
+ *
+ * There is one difference from Java source: javac rejects “exit loop” outside of any loop, but
+ * here it compiles to code that throws {@link LoopExited}, just as the interpreters do.
+ */
+public final class BytecodeCompiler {
+    private static final String
+        EXECUTABLE = Type.getInternalName(WordyExecutable.class),
+        BATCH_EXECUTABLE = Type.getInternalName(WordyBatchExecutable.class),
+        CONTEXT_BASE_DESCRIPTOR = Type.getDescriptor(WordyExecutable.ExecutionContext.class),
+        BUDGET = Type.getInternalName(ExecutionBudget.class),
+        CONSTANT_POWER = Type.getInternalName(ConstantPower.class),
+        BUDGET_DESCRIPTOR = Type.getDescriptor(ExecutionBudget.class),
+        BUDGET_FIELD = "$budget",  // “$” cannot appear in a Wordy variable name
+        NAMES_FIELD = "$names",
+        SLOTS_FIELD = "$slots";
+
+    /**
+     * Identifies the code this compiler generates: a digest of the class files of this compiler
+     * and of every class that generated code refers to. Any change to them changes this, so caches
+     * of generated bytecode can tell when their entries are stale.
+     */
+    static final String CODE_VERSION = digestClassFiles(
+        BytecodeCompiler.class,
+        ConstantPower.class,
+        ExecutionBudget.class,
+        LoopExited.class,
+        WordyExecutable.class,
+        WordyExecutable.ExecutionContext.class,
+        WordyBatchExecutable.class);
+
+    private static final int
+        RUN_CONTEXT_LOCAL = 2,     // the run() argument, cast to the context class
+        BATCH_CONTEXT_LOCAL = 5,   // the runBatch() context argument, cast to the context class
+        BATCH_INDEX_LOCAL = 6,     // the runBatch() loop counter
+        BATCH_ARRAYS_LOCAL = 7;    // the input arrays, then the output arrays
+
+    /**
+     * Compiles the given program to a class with the given name.
+     *
+     * @see WordyCompiler#compile(StatementNode, String, Class) for usage
+     */
+    public static <Context extends WordyExecutable.ExecutionContext> WordyExecutable<Context> compile(
+        StatementNode program,
+        String className,
+        Class<Context> executionContextInterface
+    ) {
+        return load(generate(program, className, executionContextInterface), program, executionContextInterface);
+    }
+
+    /**
+     * The bytecode for a compiled program, not yet loaded.
+     */
+    static final class GeneratedClasses {
+        final String className;
+        final byte[] programClass, contextClass;
+
+        GeneratedClasses(String className, byte[] programClass, byte[] contextClass) {
+            this.className = className;
+            this.programClass = programClass;
+            this.contextClass = contextClass;
+        }
+    }
+
+    /**
+     * Compiles the given program to a class with the given name, which also has a runBatch() method
+     * that takes the given input variables and produces the given output variables.
+     *
+     * @see WordyCompiler#compileBatch(StatementNode, String, Class, List, List) for usage
+     */
+    public static <Context extends WordyExecutable.ExecutionContext> WordyBatchExecutable<Context> compileBatch(
+        StatementNode program,
+        String className,
+        Class<Context> executionContextInterface,
+        List<String> inputs,
+        List<String> outputs
+    ) {
+        var classes = generate(program, className, executionContextInterface,
+            Objects.requireNonNull(inputs, "inputs"), Objects.requireNonNull(outputs, "outputs"));
+        return (WordyBatchExecutable<Context>) load(classes, program, executionContextInterface);
+    }
+
+    static GeneratedClasses generate(StatementNode program, String className, Class<?> executionContextInterface) {
+        return generate(program, className, executionContextInterface, null, null);
+    }
+
+    /**
+     * Generates the classes for a program, with a runBatch() method if inputs and outputs are
+     * non-null.
+     */
+    static GeneratedClasses generate(
+        StatementNode program,
+        String className,
+        Class<?> executionContextInterface,
+        List<String> batchInputs,
+        List<String> batchOutputs
+    ) {
+        String programClass = className.replace('.', '/');
+        String contextClass = programClass + "$ExecutionContext";
+
+        // Variables used by the program, plus any the interface or batch signature expects that the
+        // program ignores
+        var variables = new TreeSet<String>();
+        for(var variable : program.findAllVariables())
+            variables.add(variable.getName());
+        for(Method method : executionContextInterface.getMethods())
+            if(Modifier.isAbstract(method.getModifiers()) && method.getName().matches("[gs]et_.+"))
+                variables.add(method.getName().substring(4));
+        if(batchInputs != null) {
+            variables.addAll(batchInputs);
+            variables.addAll(batchOutputs);
+        }
+
+        return new GeneratedClasses(
+            className,
+            new BytecodeCompiler(contextClass).programClass(programClass, program, batchInputs, batchOutputs),
+            contextClass(contextClass, programClass, executionContextInterface, variables));
+    }
+
+    /**
+     * Defines the given classes in a new class loader, and returns an instance of the program class.
+     */
+    static <Context extends WordyExecutable.ExecutionContext> WordyExecutable<Context> load(
+        GeneratedClasses classes,
+        StatementNode program,
+        Class<Context> executionContextInterface
+    ) {
+        try {
+            var loader = new GeneratedClassLoader(executionContextInterface.getClassLoader());
+            loader.define(classes.className + "$ExecutionContext", classes.contextClass);
+            @SuppressWarnings("unchecked")
+            var executable = (WordyExecutable<Context>)
+                loader.define(classes.className, classes.programClass).getDeclaredConstructor().newInstance();
+            return executable;
+        } catch(ReflectiveOperationException | LinkageError e) {
+            throw new CompilationException(e, program);
+        }
+    }
+
+    // –––––––––––– Execution context class ––––––––––––
+
+    private static byte[] contextClass(
+        String contextClass,
+        String programClass,
+        Class<?> executionContextInterface,
+        Set<String> variables
+    ) {
+        var cw = newClassWriter();
+        cw.visit(V16, ACC_PUBLIC | ACC_SUPER, contextClass, null, "java/lang/Object",
+            new String[] { Type.getInternalName(executionContextInterface) });
+        cw.visitInnerClass(contextClass, programClass, "ExecutionContext", ACC_PUBLIC | ACC_STATIC);
+
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        for(String name : variables) {
+            // Package-private rather than private, so the program class can read and write them
+            cw.visitField(0, name, "D", null, null).visitEnd();
+            if(VariableNode.isInternal(name))
+                continue;  // the host cannot see it
+
+            mv = cw.visitMethod(ACC_PUBLIC, "get_" + name, "()D", null, null);
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitFieldInsn(GETFIELD, contextClass, name, "D");
+            mv.visitInsn(DRETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+
+            mv = cw.visitMethod(ACC_PUBLIC, "set_" + name, "(D)V", null, null);
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitVarInsn(DLOAD, 1);
+            mv.visitFieldInsn(PUTFIELD, contextClass, name, "D");
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        slotMethods(cw, contextClass, variables.stream()
+            .filter(name -> !VariableNode.isInternal(name))
+            .collect(Collectors.toList()));
+
+        cw.visitField(ACC_PRIVATE, BUDGET_FIELD, BUDGET_DESCRIPTOR, null, null).visitEnd();
+
+        mv = cw.visitMethod(ACC_PUBLIC, "setExecutionBudget", "(" + BUDGET_DESCRIPTOR + ")V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitFieldInsn(PUTFIELD, contextClass, BUDGET_FIELD, BUDGET_DESCRIPTOR);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        mv = cw.visitMethod(0, "loopIteration", "()V", null, null);
+        mv.visitCode();
+        Label noBudget = new Label();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, contextClass, BUDGET_FIELD, BUDGET_DESCRIPTOR);
+        mv.visitInsn(DUP);
+        mv.visitJumpInsn(IFNULL, noBudget);
+        mv.visitMethodInsn(INVOKEVIRTUAL, BUDGET, "loopIteration", "()V", false);
+        mv.visitInsn(RETURN);
+        mv.visitLabel(noBudget);
+        mv.visitInsn(POP);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    /**
+     * Generates the slot API from ExecutionContext: slots number the variables in the given order.
+     */
+    private static void slotMethods(ClassWriter cw, String contextClass, List<String> variables) {
+        cw.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, NAMES_FIELD, "Ljava/util/List;", null, null).visitEnd();
+        cw.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, SLOTS_FIELD, "Ljava/util/Map;", null, null).visitEnd();
+
+        // static { $names = List.of(...); $slots = new HashMap(); $slots.put(name, slot)... }
+        MethodVisitor mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+        mv.visitCode();
+        mv.visitLdcInsn(variables.size());
+        mv.visitTypeInsn(ANEWARRAY, "java/lang/String");
+        for(int slot = 0; slot < variables.size(); slot++) {
+            mv.visitInsn(DUP);
+            mv.visitLdcInsn(slot);
+            mv.visitLdcInsn(variables.get(slot));
+            mv.visitInsn(AASTORE);
+        }
+        mv.visitMethodInsn(INVOKESTATIC, "java/util/List", "of", "([Ljava/lang/Object;)Ljava/util/List;", true);
+        mv.visitFieldInsn(PUTSTATIC, contextClass, NAMES_FIELD, "Ljava/util/List;");
+        mv.visitTypeInsn(NEW, "java/util/HashMap");
+        mv.visitInsn(DUP);
+        mv.visitMethodInsn(INVOKESPECIAL, "java/util/HashMap", "<init>", "()V", false);
+        for(int slot = 0; slot < variables.size(); slot++) {
+            mv.visitInsn(DUP);
+            mv.visitLdcInsn(variables.get(slot));
+            mv.visitLdcInsn(slot);
+            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
+            mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map", "put",
+                "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", true);
+            mv.visitInsn(POP);
+        }
+        mv.visitFieldInsn(PUTSTATIC, contextClass, SLOTS_FIELD, "Ljava/util/Map;");
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        mv = cw.visitMethod(ACC_PUBLIC, "variableNames", "()Ljava/util/List;", null, null);
+        mv.visitCode();
+        mv.visitFieldInsn(GETSTATIC, contextClass, NAMES_FIELD, "Ljava/util/List;");
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        // int slotOf(String name) { Integer slot = $slots.get(name); return slot == null ? -1 : slot; }
+        mv = cw.visitMethod(ACC_PUBLIC, "slotOf", "(Ljava/lang/String;)I", null, null);
+        mv.visitCode();
+        Label unknown = new Label();
+        mv.visitFieldInsn(GETSTATIC, contextClass, SLOTS_FIELD, "Ljava/util/Map;");
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map", "get", "(Ljava/lang/Object;)Ljava/lang/Object;", true);
+        mv.visitInsn(DUP);
+        mv.visitJumpInsn(IFNULL, unknown);
+        mv.visitTypeInsn(CHECKCAST, "java/lang/Integer");
+        mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
+        mv.visitInsn(IRETURN);
+        mv.visitLabel(unknown);
+        mv.visitInsn(POP);
+        mv.visitInsn(ICONST_M1);
+        mv.visitInsn(IRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        // get(slot) and set(slot, value) switch on the slot to reach the right field
+        for(boolean isGetter : new boolean[] { true, false }) {
+            mv = cw.visitMethod(ACC_PUBLIC, isGetter ? "get" : "set", isGetter ? "(I)D" : "(ID)V", null, null);
+            mv.visitCode();
+            Label outOfBounds = new Label();
+            Label[] cases = new Label[variables.size()];
+            for(int slot = 0; slot < cases.length; slot++)
+                cases[slot] = new Label();
+            if(cases.length > 0) {
+                mv.visitVarInsn(ILOAD, 1);
+                mv.visitTableSwitchInsn(0, cases.length - 1, outOfBounds, cases);
+            }
+            for(int slot = 0; slot < cases.length; slot++) {
+                mv.visitLabel(cases[slot]);
+                mv.visitVarInsn(ALOAD, 0);
+                if(isGetter) {
+                    mv.visitFieldInsn(GETFIELD, contextClass, variables.get(slot), "D");
+                    mv.visitInsn(DRETURN);
+                } else {
+                    mv.visitVarInsn(DLOAD, 2);
+                    mv.visitFieldInsn(PUTFIELD, contextClass, variables.get(slot), "D");
+                    mv.visitInsn(RETURN);
+                }
+            }
+            mv.visitLabel(outOfBounds);
+            mv.visitTypeInsn(NEW, "java/lang/IndexOutOfBoundsException");
+            mv.visitInsn(DUP);
+            mv.visitVarInsn(ILOAD, 1);
+            mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IndexOutOfBoundsException", "<init>", "(I)V", false);
+            mv.visitInsn(ATHROW);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        // copyTo(values) and copyFrom(values) move every variable at once, in slot order
+        for(boolean isCopyTo : new boolean[] { true, false }) {
+            mv = cw.visitMethod(ACC_PUBLIC, isCopyTo ? "copyTo" : "copyFrom", "([D)V", null, null);
+            mv.visitCode();
+            for(int slot = 0; slot < variables.size(); slot++) {
+                if(isCopyTo) {
+                    mv.visitVarInsn(ALOAD, 1);
+                    mv.visitLdcInsn(slot);
+                    mv.visitVarInsn(ALOAD, 0);
+                    mv.visitFieldInsn(GETFIELD, contextClass, variables.get(slot), "D");
+                    mv.visitInsn(DASTORE);
+                } else {
+                    mv.visitVarInsn(ALOAD, 0);
+                    mv.visitVarInsn(ALOAD, 1);
+                    mv.visitLdcInsn(slot);
+                    mv.visitInsn(DALOAD);
+                    mv.visitFieldInsn(PUTFIELD, contextClass, variables.get(slot), "D");
+                }
+            }
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+    }
+
+    // –––––––––––– Program class ––––––––––––
+
+    private final String contextClass;
+    private MethodVisitor mv;
+    private int contextLocal;  // the local variable holding the context in the current method
+    private final Deque<Label> loopEnds = new ArrayDeque<>();  // innermost loop first
+
+    private BytecodeCompiler(String contextClass) {
+        this.contextClass = contextClass;
+    }
+
+    private byte[] programClass(
+        String programClass,
+        StatementNode program,
+        List<String> batchInputs,
+        List<String> batchOutputs
+    ) {
+        var cw = newClassWriter();
+        cw.visit(V16, ACC_PUBLIC | ACC_SUPER, programClass, null, "java/lang/Object",
+            new String[] { batchInputs != null ? BATCH_EXECUTABLE : EXECUTABLE });
+        cw.visitInnerClass(contextClass, programClass, "ExecutionContext", ACC_PUBLIC | ACC_STATIC);
+
+        mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        // WordyExecutable’s type parameter erases to ExecutionContext, so these signatures are
+        // what the interface methods look like at the bytecode level
+        mv = cw.visitMethod(ACC_PUBLIC, "createContext", "()" + CONTEXT_BASE_DESCRIPTOR, null, null);
+        mv.visitCode();
+        mv.visitTypeInsn(NEW, contextClass);
+        mv.visitInsn(DUP);
+        mv.visitMethodInsn(INVOKESPECIAL, contextClass, "<init>", "()V", false);
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        mv = cw.visitMethod(ACC_PUBLIC, "run", "(" + CONTEXT_BASE_DESCRIPTOR + ")V", null, null);
+        mv.visitCode();
+        contextLocal = RUN_CONTEXT_LOCAL;
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitTypeInsn(CHECKCAST, contextClass);
+        mv.visitVarInsn(ASTORE, contextLocal);
+        statement(program);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        if(batchInputs != null)
+            runBatchMethod(cw, program, batchInputs, batchOutputs);
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    /**
+     * Generates runBatch(context, inputs, outputs, count), which inlines the whole program into a
+     * loop over the array elements.
+     */
+    private void runBatchMethod(ClassWriter cw, StatementNode program, List<String> inputs, List<String> outputs) {
+        mv = cw.visitMethod(ACC_PUBLIC, "runBatch", "(" + CONTEXT_BASE_DESCRIPTOR + "[[D[[DI)V", null, null);
+        mv.visitCode();
+        contextLocal = BATCH_CONTEXT_LOCAL;
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitTypeInsn(CHECKCAST, contextClass);
+        mv.visitVarInsn(ASTORE, contextLocal);
+
+        // Unpack each array into its own local once, outside the loop
+        for(int k = 0; k < inputs.size() + outputs.size(); k++) {
+            boolean isInput = k < inputs.size();
+            mv.visitVarInsn(ALOAD, isInput ? 2 : 3);
+            mv.visitLdcInsn(isInput ? k : k - inputs.size());
+            mv.visitInsn(AALOAD);
+            mv.visitVarInsn(ASTORE, BATCH_ARRAYS_LOCAL + k);
+        }
+
+        Label loopTest = new Label(), loopBody = new Label();
+        mv.visitInsn(ICONST_0);
+        mv.visitVarInsn(ISTORE, BATCH_INDEX_LOCAL);
+        mv.visitJumpInsn(GOTO, loopTest);
+
+        mv.visitLabel(loopBody);
+        for(int k = 0; k < inputs.size(); k++) {
+            mv.visitVarInsn(ALOAD, contextLocal);
+            mv.visitVarInsn(ALOAD, BATCH_ARRAYS_LOCAL + k);
+            mv.visitVarInsn(ILOAD, BATCH_INDEX_LOCAL);
+            mv.visitInsn(DALOAD);
+            mv.visitFieldInsn(PUTFIELD, contextClass, inputs.get(k), "D");
+        }
+        statement(program);
+        for(int k = 0; k < outputs.size(); k++) {
+            mv.visitVarInsn(ALOAD, BATCH_ARRAYS_LOCAL + inputs.size() + k);
+            mv.visitVarInsn(ILOAD, BATCH_INDEX_LOCAL);
+            mv.visitVarInsn(ALOAD, contextLocal);
+            mv.visitFieldInsn(GETFIELD, contextClass, outputs.get(k), "D");
+            mv.visitInsn(DASTORE);
+        }
+        mv.visitIincInsn(BATCH_INDEX_LOCAL, 1);
+
+        mv.visitLabel(loopTest);
+        mv.visitVarInsn(ILOAD, BATCH_INDEX_LOCAL);
+        mv.visitVarInsn(ILOAD, 4);
+        mv.visitJumpInsn(IF_ICMPLT, loopBody);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    // –––––––––––– Statements ––––––––––––
+
+    private void statement(StatementNode node) {
+        if(node instanceof AssignmentNode) {
+            var assignment = (AssignmentNode) node;
+            mv.visitVarInsn(ALOAD, contextLocal);
+            expression(assignment.getExpression());
+            mv.visitFieldInsn(PUTFIELD, contextClass, assignment.getVariable().getName(), "D");
+        } else if(node instanceof BlockNode) {
+            for(var statement : ((BlockNode) node).getStatements())
+                statement(statement);
+        } else if(node instanceof ConditionalNode) {
+            conditional((ConditionalNode) node);
+        } else if(node instanceof LoopNode) {
+            loop((LoopNode) node);
+        } else if(node instanceof LoopExitNode) {
+            if(loopEnds.isEmpty()) {
+                mv.visitFieldInsn(GETSTATIC, Type.getInternalName(LoopExited.class), "INSTANCE",
+                    Type.getDescriptor(LoopExited.class));
+                mv.visitInsn(ATHROW);
+            } else {
+                mv.visitJumpInsn(GOTO, loopEnds.peek());
+            }
+        } else if(node instanceof FusedNode) {
+            statement((StatementNode) ((FusedNode) node).unfused());
+        } else {
+            throw unsupported(node);
+        }
+    }
+
+    private void conditional(ConditionalNode node) {
+        Label ifFalse = new Label(), end = new Label();
+        expression(node.getLhs());
+        expression(node.getRhs());
+        // Jump to the else branch when the comparison does not hold. Comparisons involving NaN
+        // never hold, so choose the DCMP variant that maps NaN to a result that takes the jump.
+        switch(node.getOperator()) {
+            case EQUALS:
+                mv.visitInsn(DCMPL);
+                mv.visitJumpInsn(IFNE, ifFalse);
+                break;
+            case LESS_THAN:
+                mv.visitInsn(DCMPG);
+                mv.visitJumpInsn(IFGE, ifFalse);
+                break;
+            case GREATER_THAN:
+                mv.visitInsn(DCMPL);
+                mv.visitJumpInsn(IFLE, ifFalse);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown comparison operator: " + node.getOperator());
+        }
+        statement(node.getIfTrue());
+        mv.visitJumpInsn(GOTO, end);
+        mv.visitLabel(ifFalse);
+        statement(node.getIfFalse());
+        mv.visitLabel(end);
+    }
+
+    private void loop(LoopNode node) {
+        Label start = new Label(), end = new Label();
+        loopEnds.push(end);
+        mv.visitLabel(start);
+        statement(node.getBody());
+        mv.visitVarInsn(ALOAD, contextLocal);
+        mv.visitMethodInsn(INVOKEVIRTUAL, contextClass, "loopIteration", "()V", false);
+        mv.visitJumpInsn(GOTO, start);
+        mv.visitLabel(end);
+        loopEnds.pop();
+    }
+
+    // –––––––––––– Expressions ––––––––––––
+
+    private void expression(ExpressionNode node) {
+        if(node instanceof ConstantNode) {
+            mv.visitLdcInsn(((ConstantNode) node).getValue());
+        } else if(node instanceof VariableNode) {
+            mv.visitVarInsn(ALOAD, contextLocal);
+            mv.visitFieldInsn(GETFIELD, contextClass, ((VariableNode) node).getName(), "D");
+        } else if(node instanceof BinaryExpressionNode) {
+            var binary = (BinaryExpressionNode) node;
+            var power = constantPower(binary);
+            if(power != null) {
+                expression(binary.getLhs());
+                mv.visitMethodInsn(INVOKESTATIC, CONSTANT_POWER, power.getMethodName(), "(D)D", false);
+                return;
+            }
+            expression(binary.getLhs());
+            expression(binary.getRhs());
+            switch(binary.getOperator()) {
+                case ADDITION:       mv.visitInsn(DADD); break;
+                case SUBTRACTION:    mv.visitInsn(DSUB); break;
+                case MULTIPLICATION: mv.visitInsn(DMUL); break;
+                case DIVISION:       mv.visitInsn(DDIV); break;
+                case EXPONENTIATION:
+                    mv.visitMethodInsn(INVOKESTATIC, "java/lang/Math", "pow", "(DD)D", false);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown binary operator: " + binary.getOperator());
+            }
+        } else if(node instanceof FusedNode) {
+            expression((ExpressionNode) ((FusedNode) node).unfused());
+        } else {
+            throw unsupported(node);
+        }
+    }
+
+    /**
+     * The cheaper replacement for the given operation, if it is exponentiation by a suitable
+     * constant.
+     */
+    private static ConstantPower constantPower(BinaryExpressionNode binary) {
+        if(binary.getOperator() != BinaryExpressionNode.Operator.EXPONENTIATION
+                || !(binary.getRhs() instanceof ConstantNode))
+            return null;
+        return ConstantPower.of(((ConstantNode) binary.getRhs()).getValue());
+    }
+
+    // –––––––––––– Helpers ––––––––––––
+
+    private static ClassWriter newClassWriter() {
+        return new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                return "java/lang/Object";  // generated code never merges two different reference types
+            }
+        };
+    }
+
+    private static UnsupportedOperationException unsupported(ASTNode node) {
+        return new UnsupportedOperationException(
+            "Bytecode compilation not implemented for " + node.getClass().getSimpleName());
+    }
+
+    /**
+     * Gives each compiled program its own class loader, so that the same class name can be
+     * compiled more than once, and so that programs can be garbage collected once unused. Nothing
+     * outside the program refers to the loader, so the JVM unloads the program’s classes (and
+     * frees their Metaspace) once the WordyExecutable and all of its contexts are unreachable.
+     */
+    private static final class GeneratedClassLoader extends ClassLoader {
+        GeneratedClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] bytecode) {
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+
+    // –––––––––––– Versioning ––––––––––––
+
+    private static String digestClassFiles(Class<?>... classes) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            for(var c : classes)
+                try(var in = c.getResourceAsStream("/" + c.getName().replace('.', '/') + ".class")) {
+                    if(in == null)
+                        return unknownVersion();
+                    digest.update(in.readAllBytes());
+                }
+            var result = new StringBuilder();
+            for(byte b : digest.digest())
+                result.append("%02x".formatted(b));
+            return result.toString();
+        } catch(IOException | NoSuchAlgorithmException e) {
+            return unknownVersion();
+        }
+    }
+
+    /**
+     * Where class files are not readable, treats every process as having a different compiler, so
+     * that no process reuses another’s bytecode.
+     */
+    private static String unknownVersion() {
+        return "unknown-" + UUID.randomUUID();
+    }
+}
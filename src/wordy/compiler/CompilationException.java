@@ -16,4 +16,13 @@ public class CompilationException extends RuntimeException {
             + javaSource
             + "\n━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
     }
+
+    public CompilationException(Throwable e, StatementNode wordySource) {
+        super(
+            "Unable to compile Wordy source code: " + e
+            + "\n━━━━━━━━━━ WORDY AST ━━━━━━━━━━━\n"
+            + wordySource.dump()
+            + "\n━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━",
+            e);
+    }
 }
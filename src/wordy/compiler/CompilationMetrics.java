@@ -0,0 +1,265 @@
+package wordy.compiler;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+import wordy.ast.StatementNode;
+import wordy.parser.WordyParser;
+
+/**
+ * Records where the time goes when preparing Wordy programs. Each step of preparing a program —
+ * parsing, generating code, running javac, loading classes, and the first run — is a
+ * {@link Phase}; for each phase of each program, this records the elapsed time, the bytes
+ * allocated by the preparing thread, and the size of the phase’s output where there is one.
+ *
+ * Use the methods here in place of the usual entry points to measure them:
+ * <pre>
+ *     var metrics = new CompilationMetrics();
+ *     var program = metrics.parse("Foo", wordyCode);
+ *     var compiledProgram = metrics.compile(program, "Foo", MyContext.class);
+ *     metrics.firstRun("Foo", () -> compiledProgram.run(context));
+ *     System.out.println(metrics.report());
+ * </pre>
+ * Any other work can be recorded with {@link #measure(String, Phase, Supplier, ToLongFunction)}.
+ * All methods are thread-safe.
+ */
+public final class CompilationMetrics {
+    private static final com.sun.management.ThreadMXBean ALLOCATION_COUNTER = allocationCounter();
+
+    private final List<Measurement> measurements = new ArrayList<>();
+
+    public enum Phase {
+        /**
+         * Wordy source to AST. Output size is the length of the source in characters.
+         */
+        PARSE,
+
+        /**
+         * AST to bytecode, or to Java source on the javac path. Output size is the number of
+         * bytes of class files, or the length of the Java source in characters.
+         */
+        GENERATE,
+
+        /**
+         * Java source to loaded class with javac. Not used by the bytecode compiler.
+         */
+        JAVAC,
+
+        /**
+         * Defining and instantiating the generated classes.
+         */
+        LOAD,
+
+        /**
+         * The program’s first run, which includes class initialization and interpreted bytecode.
+         */
+        FIRST_RUN
+    }
+
+    /**
+     * The cost of one phase of preparing one program.
+     */
+    public static final class Measurement {
+        private final String program;
+        private final Phase phase;
+        private final long durationNanos, allocatedBytes, outputSize;
+
+        Measurement(String program, Phase phase, long durationNanos, long allocatedBytes, long outputSize) {
+            this.program = program;
+            this.phase = phase;
+            this.durationNanos = durationNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.outputSize = outputSize;
+        }
+
+        public String getProgram() {
+            return program;
+        }
+
+        public Phase getPhase() {
+            return phase;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * Bytes allocated on the measuring thread during the phase, or -1 if this JVM cannot count
+         * allocations. Work the phase hands off to other threads is not included.
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        /**
+         * The size of the phase’s output (see {@link Phase}), or -1 if it has none.
+         */
+        public long getOutputSize() {
+            return outputSize;
+        }
+
+        @Override
+        public String toString() {
+            return "%s %s: %.3fms, %d bytes allocated, output size %d".formatted(
+                program, phase, durationNanos / 1e6, allocatedBytes, outputSize);
+        }
+    }
+
+    // –––––––––––– Instrumented entry points ––––––––––––
+
+    /**
+     * Parses a program like {@link WordyParser#parseProgram(String)}, recording the PARSE phase.
+     */
+    public StatementNode parse(String programName, String source) {
+        return measure(programName, Phase.PARSE, () -> WordyParser.parseProgram(source), ast -> source.length());
+    }
+
+    /**
+     * Compiles a program like {@link WordyCompiler#compile(StatementNode, String, Class)},
+     * recording the GENERATE and LOAD phases under the class name.
+     */
+    public <Context extends WordyExecutable.ExecutionContext> WordyExecutable<Context> compile(
+        StatementNode program,
+        String className,
+        Class<Context> executionContextInterface
+    ) {
+        var classes = measure(className, Phase.GENERATE,
+            () -> BytecodeCompiler.generate(program, className, executionContextInterface),
+            generated -> generated.programClass.length + generated.contextClass.length);
+        return measure(className, Phase.LOAD,
+            () -> BytecodeCompiler.load(classes, program, executionContextInterface),
+            executable -> -1);
+    }
+
+    /**
+     * Compiles a program like {@link WordyCompiler#compileFromSource(StatementNode, String, Class)},
+     * recording the GENERATE and JAVAC phases under the class name.
+     */
+    public <Context extends WordyExecutable.ExecutionContext> WordyExecutable<Context> compileFromSource(
+        StatementNode program,
+        String className,
+        Class<Context> executionContextInterface
+    ) {
+        var javaSource = measure(className, Phase.GENERATE,
+            () -> WordyCompiler.compile(program, className, executionContextInterface.getCanonicalName()),
+            String::length);
+        return measure(className, Phase.JAVAC,
+            () -> WordyCompiler.compileJavaSource(program, className, javaSource),
+            executable -> -1);
+    }
+
+    /**
+     * Runs the given code, usually a program’s first run, recording the FIRST_RUN phase.
+     */
+    public void firstRun(String programName, Runnable run) {
+        measure(programName, Phase.FIRST_RUN, () -> { run.run(); return null; }, none -> -1);
+    }
+
+    /**
+     * Runs the given work and records its cost as the given phase of the given program. If the
+     * work throws, nothing is recorded.
+     *
+     * @param outputSize Computes the size of the work’s output, or -1 if it has none.
+     */
+    public <T> T measure(String programName, Phase phase, Supplier<T> work, ToLongFunction<T> outputSize) {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        T result = work.get();
+        long duration = System.nanoTime() - start;
+        long allocated = (allocatedBefore < 0) ? -1 : allocatedBytes() - allocatedBefore;
+
+        record(new Measurement(programName, phase, duration, allocated, outputSize.applyAsLong(result)));
+        return result;
+    }
+
+    private synchronized void record(Measurement measurement) {
+        measurements.add(measurement);
+    }
+
+    // –––––––––––– Queries ––––––––––––
+
+    /**
+     * Every measurement recorded so far, in the order the phases finished.
+     */
+    public synchronized List<Measurement> getMeasurements() {
+        return List.copyOf(measurements);
+    }
+
+    /**
+     * The measurements for the given program, in the order the phases finished.
+     */
+    public synchronized List<Measurement> getMeasurements(String programName) {
+        return measurements.stream()
+            .filter(m -> m.program.equals(programName))
+            .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * The total time spent in each phase across all programs, in nanoseconds.
+     */
+    public synchronized Map<Phase, Long> getTotalDurationNanos() {
+        var result = new EnumMap<Phase, Long>(Phase.class);
+        for(var m : measurements)
+            result.merge(m.phase, m.durationNanos, Long::sum);
+        return result;
+    }
+
+    public synchronized void clear() {
+        measurements.clear();
+    }
+
+    /**
+     * A human-readable table of every measurement, followed by totals per phase.
+     */
+    public synchronized String report() {
+        var out = new StringBuilder();
+        String row = "%-32s %-10s %12s %14s %12s%n";
+        out.append(row.formatted("program", "phase", "time (ms)", "allocated (B)", "output size"));
+        for(var m : measurements)
+            out.append(row.formatted(
+                m.program,
+                m.phase,
+                "%.3f".formatted(m.durationNanos / 1e6),
+                m.allocatedBytes < 0 ? "n/a" : m.allocatedBytes,
+                m.outputSize < 0 ? "" : m.outputSize));
+
+        out.append('\n');
+        for(var total : getTotalDurationNanos().entrySet())
+            out.append(row.formatted(
+                "total", total.getKey(), "%.3f".formatted(total.getValue() / 1e6), "", ""));
+        return out.toString();
+    }
+
+    @Override
+    public String toString() {
+        return report();
+    }
+
+    // –––––––––––– Allocation counting ––––––––––––
+
+    private static long allocatedBytes() {
+        if(ALLOCATION_COUNTER == null)
+            return -1;
+        return ALLOCATION_COUNTER.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        // Allocation counts are a HotSpot extension; other JVMs just report no allocation data
+        var bean = ManagementFactory.getThreadMXBean();
+        if(!(bean instanceof com.sun.management.ThreadMXBean))
+            return null;
+        var counter = (com.sun.management.ThreadMXBean) bean;
+        if(!counter.isThreadAllocatedMemorySupported())
+            return null;
+        if(!counter.isThreadAllocatedMemoryEnabled())
+            counter.setThreadAllocatedMemoryEnabled(true);
+        return counter;
+    }
+}
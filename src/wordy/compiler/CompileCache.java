@@ -0,0 +1,292 @@
+package wordy.compiler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import wordy.ast.StatementNode;
+
+/**
+ * Remembers compiled Wordy programs, so that compiling the same program again is nearly free.
+ * Entries are keyed by the program’s AST (compared structurally, not by identity) together with
+ * the execution context interface.
+ *
+ * The cache has two tiers. The memory tier holds loaded programs, and discards the least recently
+ * used one when it is full. The optional disk tier holds the generated bytecode in a directory,
+ * so that a new process can load a program compiled by an earlier one without generating it
+ * again. A program found on disk is loaded and promoted to the memory tier.
+ *
+ * Compiled programs get class names chosen by the cache, derived from the key. All methods are
+ * thread-safe.
+ */
+public final class CompileCache {
+    /**
+     * Identifies the layout of files on disk. Changes to the bytecode inside them need no change
+     * here: every key includes {@link BytecodeCompiler#CODE_VERSION}, so files written by a
+     * different compiler never match.
+     */
+    private static final int DISK_FORMAT_VERSION = 1;
+    private static final String DISK_FILE_SUFFIX = ".wordyclass";
+
+    private final int maxEntries;
+    private final Path directory;  // null if there is no disk tier
+    private final Map<Key, WordyExecutable<?>> entries;
+
+    private long hits, diskHits, misses, evictions;
+
+    /**
+     * Creates a memory-only cache that holds at most the given number of programs.
+     */
+    public CompileCache(int maxEntries) {
+        this(maxEntries, null);
+    }
+
+    /**
+     * Creates a cache that holds at most the given number of programs in memory, and stores
+     * every program it compiles in the given directory. The directory is created if needed.
+     */
+    public CompileCache(int maxEntries, Path directory) {
+        if(maxEntries < 1)
+            throw new IllegalArgumentException("maxEntries must be at least 1, but was " + maxEntries);
+        this.maxEntries = maxEntries;
+        this.directory = directory;
+        entries = new LinkedHashMap<>(16, 0.75f, true) {  // access order, for LRU
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, WordyExecutable<?>> eldest) {
+                if(size() <= CompileCache.this.maxEntries)
+                    return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns the compiled form of the given program, compiling it only if it is not already in
+     * the cache.
+     *
+     * @see WordyCompiler#compile(StatementNode, String, Class)
+     */
+    public <Context extends WordyExecutable.ExecutionContext> WordyExecutable<Context> compile(
+        StatementNode program,
+        Class<Context> executionContextInterface
+    ) {
+        return lookup(new Key(program, executionContextInterface, null, null));
+    }
+
+    /**
+     * Returns the compiled form of the given program with a batch entry point for the given inputs
+     * and outputs, compiling it only if it is not already in the cache.
+     *
+     * @see WordyCompiler#compileBatch(StatementNode, String, Class, List, List)
+     */
+    public <Context extends WordyExecutable.ExecutionContext> WordyBatchExecutable<Context> compileBatch(
+        StatementNode program,
+        Class<Context> executionContextInterface,
+        List<String> inputs,
+        List<String> outputs
+    ) {
+        @SuppressWarnings("unchecked")
+        var result = (WordyBatchExecutable<Context>) lookup(new Key(
+            program, executionContextInterface, List.copyOf(inputs), List.copyOf(outputs)));
+        return result;
+    }
+
+    private synchronized <Context extends WordyExecutable.ExecutionContext> WordyExecutable<Context> lookup(Key key) {
+        @SuppressWarnings("unchecked")
+        var result = (WordyExecutable<Context>) entries.get(key);
+        if(result != null) {
+            hits++;
+            return result;
+        }
+
+        String keyText = key.describe();
+        String className = "wordy.generated.Program_" + digest(keyText).substring(0, 24);
+
+        var classes = readFromDisk(keyText, className);
+        if(classes != null) {
+            diskHits++;
+        } else {
+            misses++;
+            classes = BytecodeCompiler.generate(
+                key.program, className, key.executionContextInterface, key.batchInputs, key.batchOutputs);
+            writeToDisk(keyText, classes);
+        }
+        @SuppressWarnings("unchecked")
+        var executionContextInterface = (Class<Context>) key.executionContextInterface;
+        result = BytecodeCompiler.load(classes, key.program, executionContextInterface);
+        entries.put(key, result);
+        return result;
+    }
+
+    /**
+     * The number of requests answered from memory.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * The number of requests answered by loading bytecode from disk.
+     */
+    public synchronized long getDiskHits() {
+        return diskHits;
+    }
+
+    /**
+     * The number of requests that required compiling the program.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * The number of programs discarded from memory to make room for others.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * The number of programs currently held in memory.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CompileCache{hits=" + hits
+            + ", diskHits=" + diskHits
+            + ", misses=" + misses
+            + ", evictions=" + evictions
+            + ", size=" + entries.size() + "/" + maxEntries
+            + '}';
+    }
+
+    // –––––––––––– Disk tier ––––––––––––
+
+    private BytecodeCompiler.GeneratedClasses readFromDisk(String keyText, String className) {
+        if(directory == null)
+            return null;
+        Path file = fileFor(keyText);
+        if(!Files.isRegularFile(file))
+            return null;
+        try(var in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+            if(in.readInt() != DISK_FORMAT_VERSION)
+                return null;
+            if(!keyText.equals(new String(readBytes(in), StandardCharsets.UTF_8)))
+                return null;  // digest collision; recompile
+            return new BytecodeCompiler.GeneratedClasses(className, readBytes(in), readBytes(in));
+        } catch(IOException e) {
+            return null;  // unreadable or truncated; recompile and overwrite it
+        }
+    }
+
+    private void writeToDisk(String keyText, BytecodeCompiler.GeneratedClasses classes) {
+        if(directory == null)
+            return;
+        try {
+            var bytes = new ByteArrayOutputStream();
+            try(var out = new DataOutputStream(bytes)) {
+                out.writeInt(DISK_FORMAT_VERSION);
+                writeBytes(out, keyText.getBytes(StandardCharsets.UTF_8));
+                writeBytes(out, classes.programClass);
+                writeBytes(out, classes.contextClass);
+            }
+
+            // Write to a temporary file, then move it into place, so that other processes sharing
+            // the directory never see a partial file
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "wordy", ".tmp");
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, fileFor(keyText), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch(IOException e) {
+            // The disk tier is only an optimization; the compiled program is still usable
+            System.err.println("Unable to write compiled Wordy program to " + directory + ": " + e);
+        }
+    }
+
+    private Path fileFor(String keyText) {
+        return directory.resolve(digest(keyText) + DISK_FILE_SUFFIX);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] result = new byte[in.readInt()];
+        in.readFully(result);
+        return result;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String digest(String text) {
+        try {
+            var hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            var result = new StringBuilder();
+            for(byte b : hash)
+                result.append("%02x".formatted(b));
+            return result.toString();
+        } catch(NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is unavailable", e);  // every JVM must support it
+        }
+    }
+
+    // –––––––––––– Keys ––––––––––––
+
+    private static final class Key {
+        private final StatementNode program;
+        private final Class<?> executionContextInterface;
+        private final List<String> batchInputs, batchOutputs;  // null if there is no batch entry point
+
+        Key(StatementNode program, Class<?> executionContextInterface, List<String> batchInputs, List<String> batchOutputs) {
+            this.program = program;
+            this.executionContextInterface = executionContextInterface;
+            this.batchInputs = batchInputs;
+            this.batchOutputs = batchOutputs;
+        }
+
+        /**
+         * A complete description of the key as text, for matching entries across processes. The
+         * AST’s toString() includes every node and attribute, and the compiler version ensures that
+         * bytecode from any other build of the compiler is never reused.
+         */
+        String describe() {
+            String batch = (batchInputs == null) ? "" : "batch " + batchInputs + " -> " + batchOutputs + '\n';
+            return "compiler " + BytecodeCompiler.CODE_VERSION + '\n'
+                + executionContextInterface.getName() + '\n' + batch + program;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o)
+                return true;
+            if(o == null || getClass() != o.getClass())
+                return false;
+            Key that = (Key) o;
+            return this.program.equals(that.program)
+                && this.executionContextInterface == that.executionContextInterface
+                && Objects.equals(this.batchInputs, that.batchInputs)
+                && Objects.equals(this.batchOutputs, that.batchOutputs);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(program, executionContextInterface, batchInputs, batchOutputs);
+        }
+    }
+}
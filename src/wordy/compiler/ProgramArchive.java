@@ -0,0 +1,263 @@
+package wordy.compiler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import wordy.ast.StatementNode;
+import wordy.parser.WordyParser;
+
+/**
+ * A jar of Wordy programs compiled ahead of time, so that a process can load them with no parsing
+ * or code generation at startup — only class loading. Neither the parser nor ASM is needed to
+ * load programs from an archive.
+ *
+ * To build an archive from the command line, pass the jar to write and the Wordy source files to
+ * put in it:
+ * <pre>
+ *     java wordy.compiler.ProgramArchive [--interface com.example.MyContext] programs.jar foo.wordy bar.wordy
+ * </pre>
+ * Each program is named after its file, without the “.wordy” extension. Then, at run time:
+ * <pre>
+ *     try(var archive = ProgramArchive.open(Paths.get("programs.jar"))) {
+ *         WordyExecutable&lt;MyContext&gt; foo = archive.load("foo", MyContext.class);
+ *         ...
+ *     }
+ * </pre>
+ * The jar’s manifest lists each program with its class name and execution context interface. The
+ * interface must be on the class path both when exporting and when loading. Without --interface,
+ * programs use {@link WordyExecutable.ExecutionContext} and its slot API.
+ *
+ * The manifest also records the version of the code BytecodeCompiler generates. An archive only
+ * opens with the same version, since its classes call into Wordy’s runtime classes; re-export
+ * archives after upgrading Wordy.
+ */
+public final class ProgramArchive implements Closeable {
+    /**
+     * Identifies the archive layout. Change this whenever the manifest format changes
+     * incompatibly. Changes to generated bytecode need no change here, since the manifest records
+     * {@link BytecodeCompiler#CODE_VERSION} too.
+     */
+    static final String FORMAT_VERSION = "2";
+
+    static final Attributes.Name
+        FORMAT_VERSION_ATTRIBUTE = new Attributes.Name("Wordy-Archive-Version"),
+        CODE_VERSION_ATTRIBUTE = new Attributes.Name("Wordy-Compiler-Version");
+
+    private static final Attributes.Name
+        CLASS_ATTRIBUTE = new Attributes.Name("Wordy-Class"),
+        INTERFACE_ATTRIBUTE = new Attributes.Name("Wordy-Context-Interface");
+
+    private static final String CLASS_PACKAGE = "wordy.aot.";
+    private static final String SOURCE_SUFFIX = ".wordy";
+
+    private final URLClassLoader loader;
+    private final Map<String, Attributes> programs;
+
+    // –––––––––––– Exporting ––––––––––––
+
+    /**
+     * Compiles the given programs and writes them to a new jar, replacing any existing file.
+     *
+     * @param programs Parsed programs, keyed by the name to load them with.
+     * @param executionContextInterface The interface every program’s context implements.
+     * @throws CompilationException if any program fails to compile, in which case no file is written
+     */
+    public static void export(
+        Map<String, StatementNode> programs,
+        Class<? extends WordyExecutable.ExecutionContext> executionContextInterface,
+        Path jarFile
+    ) throws IOException {
+        var manifest = new Manifest();
+        var mainAttributes = manifest.getMainAttributes();
+        mainAttributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        mainAttributes.put(FORMAT_VERSION_ATTRIBUTE, FORMAT_VERSION);
+        mainAttributes.put(CODE_VERSION_ATTRIBUTE, BytecodeCompiler.CODE_VERSION);
+
+        var classNames = new HashMap<String, String>();
+        var generated = new ArrayList<BytecodeCompiler.GeneratedClasses>();
+        for(var entry : programs.entrySet()) {
+            String name = entry.getKey(), className = classNameFor(name);
+            String clash = classNames.put(className, name);
+            if(clash != null)
+                throw new IllegalArgumentException(
+                    "Programs \"" + clash + "\" and \"" + name + "\" would both compile to " + className);
+
+            // Generate, and load once to verify, before writing anything
+            var classes = BytecodeCompiler.generate(entry.getValue(), className, executionContextInterface);
+            BytecodeCompiler.load(classes, entry.getValue(), executionContextInterface);
+            generated.add(classes);
+
+            var attributes = new Attributes();
+            attributes.put(CLASS_ATTRIBUTE, className);
+            attributes.put(INTERFACE_ATTRIBUTE, executionContextInterface.getName());
+            manifest.getEntries().put(name, attributes);
+        }
+
+        if(jarFile.toAbsolutePath().getParent() != null)
+            Files.createDirectories(jarFile.toAbsolutePath().getParent());
+        try(var out = new JarOutputStream(Files.newOutputStream(jarFile), manifest)) {
+            for(var classes : generated) {
+                String path = classes.className.replace('.', '/');
+                writeEntry(out, path + ".class", classes.programClass);
+                writeEntry(out, path + "$ExecutionContext.class", classes.contextClass);
+            }
+        }
+    }
+
+    private static void writeEntry(JarOutputStream out, String path, byte[] contents) throws IOException {
+        out.putNextEntry(new JarEntry(path));
+        out.write(contents);
+        out.closeEntry();
+    }
+
+    /**
+     * The name of the class a program compiles to: a Java identifier derived from the program name.
+     */
+    static String classNameFor(String programName) {
+        if(programName.isEmpty())
+            throw new IllegalArgumentException("Program name cannot be empty");
+        var result = new StringBuilder(CLASS_PACKAGE);
+        if(!Character.isJavaIdentifierStart(programName.charAt(0)))
+            result.append('_');
+        for(char c : programName.toCharArray())
+            result.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        return result.toString();
+    }
+
+    /**
+     * Exports Wordy source files to a jar. Usage:
+     * <pre>
+     *     ProgramArchive [--interface contextInterfaceName] output.jar source.wordy...
+     * </pre>
+     */
+    public static void main(String[] args) throws Exception {
+        var argList = new ArrayList<>(List.of(args));
+        Class<? extends WordyExecutable.ExecutionContext> executionContextInterface = WordyExecutable.ExecutionContext.class;
+        if(argList.size() >= 2 && argList.get(0).equals("--interface")) {
+            argList.remove(0);
+            executionContextInterface = Class.forName(argList.remove(0))
+                .asSubclass(WordyExecutable.ExecutionContext.class);
+        }
+        if(argList.size() < 2) {
+            System.err.println(
+                "usage: ProgramArchive [--interface contextInterfaceName] output.jar source" + SOURCE_SUFFIX + "...");
+            System.exit(1);
+        }
+
+        Path jarFile = Paths.get(argList.remove(0));
+        var programs = new LinkedHashMap<String, StatementNode>();
+        for(var sourceFile : argList) {
+            Path path = Paths.get(sourceFile);
+            String name = path.getFileName().toString();
+            if(name.endsWith(SOURCE_SUFFIX))
+                name = name.substring(0, name.length() - SOURCE_SUFFIX.length());
+            programs.put(name, WordyParser.parseProgram(Files.readString(path)));
+        }
+
+        export(programs, executionContextInterface, jarFile);
+        System.out.println("Wrote " + programs.size() + " programs to " + jarFile);
+    }
+
+    // –––––––––––– Loading ––––––––––––
+
+    /**
+     * Opens an archive whose programs’ execution context interfaces are visible to the class loader
+     * that loaded Wordy.
+     */
+    public static ProgramArchive open(Path jarFile) throws IOException {
+        return open(jarFile, ProgramArchive.class.getClassLoader());
+    }
+
+    /**
+     * Opens an archive, loading its programs in a child of the given class loader, which must be
+     * able to see both Wordy and the programs’ execution context interfaces.
+     *
+     * @throws IOException if the file is not a program archive, or was exported by a version of
+     *      Wordy that generates different code
+     */
+    public static ProgramArchive open(Path jarFile, ClassLoader parent) throws IOException {
+        Manifest manifest;
+        try(var jar = new JarFile(jarFile.toFile())) {
+            manifest = jar.getManifest();
+        }
+        String version = (manifest == null) ? null : manifest.getMainAttributes().getValue(FORMAT_VERSION_ATTRIBUTE);
+        if(!FORMAT_VERSION.equals(version))
+            throw new IOException(
+                jarFile + " is not a Wordy program archive of version " + FORMAT_VERSION + " (found " + version + ")");
+        String codeVersion = manifest.getMainAttributes().getValue(CODE_VERSION_ATTRIBUTE);
+        if(!BytecodeCompiler.CODE_VERSION.equals(codeVersion))
+            throw new IOException(
+                jarFile + " was compiled by a different version of Wordy (compiler " + codeVersion
+                + ", expected " + BytecodeCompiler.CODE_VERSION + "); export it again");
+        return new ProgramArchive(new URLClassLoader(new URL[] { jarFile.toUri().toURL() }, parent), manifest);
+    }
+
+    private ProgramArchive(URLClassLoader loader, Manifest manifest) {
+        this.loader = loader;
+        this.programs = manifest.getEntries();
+    }
+
+    /**
+     * The names of the programs in this archive.
+     */
+    public Set<String> getProgramNames() {
+        return Collections.unmodifiableSet(new TreeSet<>(programs.keySet()));
+    }
+
+    /**
+     * Returns a new instance of the named program.
+     *
+     * @throws IllegalArgumentException if there is no such program, or its context does not
+     *      implement the given interface
+     */
+    public <Context extends WordyExecutable.ExecutionContext> WordyExecutable<Context> load(
+        String programName,
+        Class<Context> executionContextInterface
+    ) {
+        var attributes = programs.get(programName);
+        if(attributes == null)
+            throw new IllegalArgumentException("No program named \"" + programName + "\" in archive");
+        String className = attributes.getValue(CLASS_ATTRIBUTE);
+
+        try {
+            var contextClass = loader.loadClass(className + "$ExecutionContext");
+            if(!executionContextInterface.isAssignableFrom(contextClass))
+                throw new IllegalArgumentException(
+                    "Program \"" + programName + "\" was exported with context interface "
+                    + attributes.getValue(INTERFACE_ATTRIBUTE) + ", which is not compatible with "
+                    + executionContextInterface.getName());
+            @SuppressWarnings("unchecked")
+            var executable = (WordyExecutable<Context>)
+                loader.loadClass(className).getDeclaredConstructor().newInstance();
+            return executable;
+        } catch(ReflectiveOperationException | LinkageError e) {
+            throw new IllegalStateException("Unable to load program \"" + programName + "\" from archive", e);
+        }
+    }
+
+    /**
+     * Closes the jar file. Programs already loaded keep working, but no more can be loaded.
+     */
+    @Override
+    public void close() throws IOException {
+        loader.close();
+    }
+}
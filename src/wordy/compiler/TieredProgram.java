@@ -0,0 +1,219 @@
+package wordy.compiler;
+
+import java.util.HashSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import wordy.ast.StatementNode;
+import wordy.interpreter.EvaluationContext;
+import wordy.interpreter.InterpretedProgram;
+import wordy.interpreter.InterpreterEngine;
+
+/**
+ * Runs a Wordy program on an interpreter at first, so that it starts immediately, then switches
+ * to compiled code once the program has proven to be hot. The program is compiled on a background
+ * thread after it has run a given number of times; runs that start after compilation finishes use
+ * the compiled code, and runs already in progress finish on the interpreter.
+ *
+ * Callers see only the interpreter’s API: variables live in an {@link EvaluationContext} no
+ * matter which tier runs the program. The compiled tier copies the program’s variables into a
+ * compiled context before each run and back out afterward, together with the execution budget;
+ * each thread reuses its own compiled context.
+ * Traced contexts always run on the interpreter, since compiled code does not report to tracers.
+ *
+ * If compilation fails, the program stays on the interpreter.
+ */
+public final class TieredProgram implements InterpretedProgram {
+    /**
+     * The number of runs after which {@link #prepare(StatementNode)} compiles a program.
+     */
+    public static final int DEFAULT_COMPILE_THRESHOLD = 1000;
+
+    private static final Executor DEFAULT_COMPILER_THREAD = Executors.newSingleThreadExecutor(task -> {
+        var thread = new Thread(task, "Wordy background compiler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final StatementNode program;
+    private final InterpretedProgram interpreted;
+    private final int compileThreshold;
+    private final Executor compilerThread;
+    private final AtomicInteger runCount = new AtomicInteger();
+
+    private volatile CompiledTier compiled;  // null until compilation succeeds
+    private volatile Tier tier = Tier.INTERPRETED;
+
+    /**
+     * Prepares the given program to start on the {@link InterpreterEngine#VM VM} and compile after
+     * {@link #DEFAULT_COMPILE_THRESHOLD} runs on a shared background thread.
+     */
+    public static TieredProgram prepare(StatementNode program) {
+        return prepare(program, InterpreterEngine.VM, DEFAULT_COMPILE_THRESHOLD, DEFAULT_COMPILER_THREAD);
+    }
+
+    /**
+     * Prepares the given program to start on the given engine, and to compile on the given executor
+     * once it has run compileThreshold times. A threshold of zero compiles immediately.
+     */
+    public static TieredProgram prepare(
+        StatementNode program,
+        InterpreterEngine engine,
+        int compileThreshold,
+        Executor compilerThread
+    ) {
+        if(compileThreshold < 0)
+            throw new IllegalArgumentException("compileThreshold cannot be negative, but was " + compileThreshold);
+        var result = new TieredProgram(program, engine.prepare(program), compileThreshold, compilerThread);
+        if(compileThreshold == 0)
+            result.startCompiling();
+        return result;
+    }
+
+    private TieredProgram(
+        StatementNode program,
+        InterpretedProgram interpreted,
+        int compileThreshold,
+        Executor compilerThread
+    ) {
+        this.program = program;
+        this.interpreted = interpreted;
+        this.compileThreshold = compileThreshold;
+        this.compilerThread = compilerThread;
+    }
+
+    @Override
+    public EvaluationContext createContext() {
+        return interpreted.createContext();
+    }
+
+    @Override
+    public EvaluationContext createContext(EvaluationContext.Tracer tracer) {
+        return interpreted.createContext(tracer);
+    }
+
+    @Override
+    public void run(EvaluationContext context) {
+        var compiled = this.compiled;  // read once, so a run uses a single tier throughout
+        if(compiled != null && !context.isTraced()) {
+            compiled.run(context);
+            return;
+        }
+
+        if(tier == Tier.INTERPRETED && runCount.incrementAndGet() == compileThreshold)
+            startCompiling();
+        interpreted.run(context);
+    }
+
+    /**
+     * Which tier will run the next untraced run of this program.
+     */
+    public Tier getTier() {
+        return tier;
+    }
+
+    public enum Tier {
+        /**
+         * Running on the interpreter, and not yet hot enough to compile.
+         */
+        INTERPRETED,
+
+        /**
+         * Running on the interpreter while the compiler works in the background.
+         */
+        COMPILING,
+
+        /**
+         * Running compiled code.
+         */
+        COMPILED,
+
+        /**
+         * Running on the interpreter because compilation failed.
+         */
+        COMPILE_FAILED
+    }
+
+    // –––––––––––– Compiled tier ––––––––––––
+
+    private void startCompiling() {
+        tier = Tier.COMPILING;
+        compilerThread.execute(() -> {
+            try {
+                compiled = new CompiledTier(
+                    WordyCompiler.compile(program, "TieredProgram", WordyExecutable.ExecutionContext.class),
+                    interpreted.createContext());
+                tier = Tier.COMPILED;
+            } catch(RuntimeException | LinkageError e) {
+                tier = Tier.COMPILE_FAILED;
+                System.err.println("Unable to compile hot Wordy program; staying on the interpreter: " + e);
+            }
+        });
+    }
+
+    /**
+     * A compiled program, plus the mapping between its context’s slots and EvaluationContext slots.
+     * Each thread reuses one compiled context and one scratch array for all its runs, so the hot
+     * path allocates nothing.
+     */
+    private static final class CompiledTier {
+        private final WordyExecutable<WordyExecutable.ExecutionContext> executable;
+        private final EvaluationContext layout;  // has the slots of every context this tier runs
+        private final int[] slots;  // EvaluationContext slot for each compiled slot
+        private final ThreadLocal<Scratch> scratch;
+
+        CompiledTier(WordyExecutable<WordyExecutable.ExecutionContext> executable, EvaluationContext layout) {
+            this.executable = executable;
+            this.layout = layout;
+
+            // Both tiers resolve the same program, so they must have exactly the same variables.
+            // Neither lists internal ones, which need no copying: a run assigns them before it
+            // reads them.
+            var names = executable.createContext().variableNames();
+            var interpretedNames = layout.allVariables().keySet();
+            if(!interpretedNames.equals(new HashSet<>(names)))
+                throw new IllegalStateException(
+                    "Compiled variables " + names + " do not match interpreted variables " + interpretedNames);
+            slots = new int[names.size()];
+            for(int n = 0; n < slots.length; n++)
+                slots[n] = layout.slotOf(names.get(n));
+
+            scratch = ThreadLocal.withInitial(() -> new Scratch(executable.createContext(), slots.length));
+        }
+
+        void run(EvaluationContext context) {
+            if(!context.hasSameLayout(layout))
+                throw new IllegalArgumentException("Context was not created by this program");
+
+            var scratch = this.scratch.get();
+            var values = scratch.values;
+            var frame = context.frame();
+            for(int n = 0; n < slots.length; n++)
+                values[n] = frame[slots[n]];
+
+            var compiledContext = scratch.compiledContext;
+            compiledContext.copyFrom(values);
+            compiledContext.setExecutionBudget(context.getExecutionBudget());
+            try {
+                executable.run(compiledContext);
+            } finally {
+                // Copy results back even if the program stopped early, as the interpreters leave them
+                compiledContext.setExecutionBudget(null);
+                compiledContext.copyTo(values);
+                for(int n = 0; n < slots.length; n++)
+                    frame[slots[n]] = values[n];
+            }
+        }
+    }
+
+    private static final class Scratch {
+        final WordyExecutable.ExecutionContext compiledContext;
+        final double[] values;
+
+        Scratch(WordyExecutable.ExecutionContext compiledContext, int size) {
+            this.compiledContext = compiledContext;
+            this.values = new double[size];
+        }
+    }
+}
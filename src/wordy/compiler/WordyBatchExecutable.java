@@ -0,0 +1,27 @@
+package wordy.compiler;
+
+import java.util.List;
+
+import wordy.ast.StatementNode;
+
+/**
+ * A compiled Wordy program that can also run over a whole array of inputs in one call. The loop
+ * over the inputs is part of the generated class, so there are no interface calls or context
+ * accessors per element, and the JIT sees one hot loop.
+ *
+ * @see WordyCompiler#compileBatch(StatementNode, String, Class, List, List)
+ */
+public interface WordyBatchExecutable<Context extends WordyExecutable.ExecutionContext>
+        extends WordyExecutable<Context> {
+    /**
+     * Runs the program count times against the given context. Before each run i, sets the k-th
+     * input variable to inputs[k][i]; after it, stores the k-th output variable in outputs[k][i].
+     * Inputs and outputs are numbered in the order given at compile time. This is exactly
+     * equivalent to calling run() count times with the same context, so any variable that is not
+     * an input carries its value over from one run to the next.
+     *
+     * @throws ArrayIndexOutOfBoundsException if there are too few arrays, or an array is shorter
+     *     than count
+     */
+    void runBatch(Context context, double[][] inputs, double[][] outputs, int count);
+}
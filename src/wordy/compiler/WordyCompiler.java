@@ -2,10 +2,14 @@ package wordy.compiler;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.joor.Reflect;
 
 import wordy.ast.StatementNode;
+import wordy.ast.VariableNode;
 
 /**
  * Compiles Wordy code to Java code.
@@ -16,12 +20,16 @@ public class WordyCompiler {
      * of a class that:
      * <ul>
      * <li> has a nested class named `ExecutionContext` that contains properties for all the variables
-     *      used in the Wordy program,
+     *      used in the Wordy program, except internal ones (see VariableNode.isInternal()),
      * <li> implements `WordyExecutable`,
      * <li> and thus has a `createContext()` method you can use to pass variable values to and from
      *      the Wordy code, and
      * <li> has a `run()` method you can use to execute the Wordy code.
      * </ul>
+     *
+     * The generated ExecutionContext also accepts an optional ExecutionBudget, which compiled loops
+     * charge by calling the context’s `loopIteration()` method at each back-edge, and implements
+     * ExecutionContext’s slot methods for access to variables by number.
      * 
      * This method is suitable for viewing the compiled Java source output. If you want to run the
      * Wordy program, consider the other `compile()` method in this class.
@@ -41,6 +49,7 @@ public class WordyCompiler {
         out.print(
             """
             import wordy.compiler.WordyExecutable;
+            import wordy.interpreter.ExecutionBudget;
             
             public class %1$s implements WordyExecutable<%1$s.ExecutionContext> {
                 public void run(ExecutionContext context) {
@@ -65,7 +74,23 @@ public class WordyCompiler {
             out.println("        private double " + variable.getName() + ";");
         }
         out.println();
+        out.println(
+            """
+                    private ExecutionBudget $budget;  // “$” cannot appear in a Wordy variable name
+
+                    public void setExecutionBudget(ExecutionBudget budget) {
+                        this.$budget = budget;
+                    }
+
+                    void loopIteration() {
+                        if($budget != null)
+                            $budget.loopIteration();
+                    }
+            """
+        );
         for(var variable: program.findAllVariables()) {
+            if(VariableNode.isInternal(variable.getName()))
+                continue;  // no accessors for optimizer temporaries
             out.println(
                 """
                         public double get_%1$s() {
@@ -78,6 +103,11 @@ public class WordyCompiler {
                 """.formatted(variable.getName())
             );
         }
+        slotMethods(out, program.findAllVariables().stream()
+            .map(VariableNode::getName)
+            .filter(name -> !VariableNode.isInternal(name))
+            .sorted()
+            .collect(Collectors.toList()));
         out.print(
             """
                 }
@@ -88,8 +118,54 @@ public class WordyCompiler {
     }
 
     /**
-     * Compiles Wordy code to Java, then compiles the Java to an executable class. To use this class
-     * to execute Wordy code:
+     * Emits the slot API from ExecutionContext, numbering the variables in the given order.
+     */
+    private static void slotMethods(PrintWriter out, List<String> names) {
+        out.println(
+            """
+                    private static final java.util.List<String> $names = java.util.List.of(%s);
+
+                    public java.util.List<String> variableNames() {
+                        return $names;
+                    }
+
+                    public int slotOf(String name) {
+                        return $names.indexOf(name);
+                    }
+            """.formatted(names.stream()
+                .map(name -> '"' + name + '"')
+                .collect(Collectors.joining(", ")))
+        );
+
+        out.println("        public double get(int slot) {");
+        out.println("            switch(slot) {");
+        for(int slot = 0; slot < names.size(); slot++)
+            out.println("                case " + slot + ": return " + names.get(slot) + ";");
+        out.println("                default: throw new IndexOutOfBoundsException(slot);");
+        out.println("            }");
+        out.println("        }");
+        out.println();
+        out.println("        public void set(int slot, double value) {");
+        out.println("            switch(slot) {");
+        for(int slot = 0; slot < names.size(); slot++)
+            out.println("                case " + slot + ": " + names.get(slot) + " = value; break;");
+        out.println("                default: throw new IndexOutOfBoundsException(slot);");
+        out.println("            }");
+        out.println("        }");
+        out.println();
+        out.println("        public void copyTo(double[] values) {");
+        for(int slot = 0; slot < names.size(); slot++)
+            out.println("            values[" + slot + "] = " + names.get(slot) + ";");
+        out.println("        }");
+        out.println();
+        out.println("        public void copyFrom(double[] values) {");
+        for(int slot = 0; slot < names.size(); slot++)
+            out.println("            " + names.get(slot) + " = values[" + slot + "];");
+        out.println("        }");
+    }
+
+    /**
+     * Compiles Wordy code to an executable class. To use this class to execute Wordy code:
      * <pre>
      *     interface MyContext {
      *         void set_some_variable(double value);  // Will be input to Wordy code
@@ -118,14 +194,104 @@ public class WordyCompiler {
      * @param className The name to use for the generated Java class.
      * @param executionContextInterface An interface that declares getters and setters for any
      *      variables you need to pass to / from the Wordy code.
-     * @return An object whose run() method is the compiled Wordy program.
+     * @return An object whose run() method is the compiled Wordy program. Its classes are unloaded
+     *      once it and its contexts are no longer reachable, so it is safe to compile programs
+     *      on demand in a long-running process.
+     * @see BytecodeCompiler, which this method uses to generate the class directly as bytecode
      */
     public static <Context extends WordyExecutable.ExecutionContext> WordyExecutable<Context> compile(
         StatementNode program,
         String className,
         Class<Context> executionContextInterface
+    ) {
+        return BytecodeCompiler.compile(program, className, executionContextInterface);
+    }
+
+    /**
+     * Compiles Wordy code to an executable class, like {@link #compile(StatementNode, String, Class)},
+     * whose runBatch() method runs the program once for each element of a set of input arrays:
+     * <pre>
+     *     var compiledProgram = WordyCompiler.compileBatch(
+     *         WordyParser.parseProgram(wordyCode),
+     *         "Foo",
+     *         MyContext.class,
+     *         List.of("x"),                // inputs, one array each
+     *         List.of("red", "green"));    // outputs, one array each
+     *
+     *     MyContext context = compiledProgram.createContext();
+     *     context.set_some_variable(whatever);  // same value for every element
+     *     compiledProgram.runBatch(context, new double[][] { xs }, new double[][] { reds, greens }, count);
+     * </pre>
+     *
+     * @param inputs The variables to set from each input array, in order.
+     * @param outputs The variables to copy to each output array, in order.
+     * @see WordyBatchExecutable#runBatch
+     */
+    public static <Context extends WordyExecutable.ExecutionContext> WordyBatchExecutable<Context> compileBatch(
+        StatementNode program,
+        String className,
+        Class<Context> executionContextInterface,
+        List<String> inputs,
+        List<String> outputs
+    ) {
+        return BytecodeCompiler.compileBatch(program, className, executionContextInterface, inputs, outputs);
+    }
+
+    /**
+     * Compiles many Wordy programs at once, as when loading a pack of shaders or rules at startup.
+     * Each program gets its own class, named by its key in the map, and its own class loader, so
+     * programs can still be unloaded individually. A program that fails to compile is reported in
+     * the result’s errors without affecting the others.
+     *
+     * @param programs Parsed programs, keyed by the class name to give each one.
+     * @param parallel Whether to compile on all available cores. Compilation of each program is
+     *      independent, so this scales with the number of programs.
+     */
+    public static <Context extends WordyExecutable.ExecutionContext> BulkCompilation<Context> compileAll(
+        Map<String, StatementNode> programs,
+        Class<Context> executionContextInterface,
+        boolean parallel
+    ) {
+        return BulkCompilation.compile(programs, executionContextInterface, parallel);
+    }
+
+    /**
+     * Compiles Wordy code to a tree of method handles instead of a class. Unlike
+     * {@link #compile(StatementNode, String, Class)}, this defines no classes, at the cost of
+     * somewhat slower code. Hosts access the context’s variables through its slot methods. See
+     * {@link MethodHandleCompiler}.
+     */
+    public static WordyExecutable<WordyExecutable.ExecutionContext> compileToMethodHandles(StatementNode program) {
+        return MethodHandleCompiler.compile(program);
+    }
+
+    /**
+     * Compiles Wordy code to Java, then compiles the Java to an executable class with javac. The
+     * result behaves the same as {@link #compile(StatementNode, String, Class)}, but compilation
+     * is much slower. This is useful for checking the Java source translation end to end.
+     *
+     * Note that jOOR defines a class whose package matches this class’s permanently in the
+     * application class loader, so give such programs a name outside `wordy.compiler` if they need
+     * to be unloadable.
+     */
+    public static <Context extends WordyExecutable.ExecutionContext> WordyExecutable<Context> compileFromSource(
+        StatementNode program,
+        String className,
+        Class<Context> executionContextInterface
     ) {
         var javaSource = compile(program, className, executionContextInterface.getCanonicalName());
+        return compileJavaSource(program, className, javaSource);
+    }
+
+    /**
+     * Compiles and instantiates the Java source for a program, as generated by
+     * {@link #compile(StatementNode, String, String)}.
+     */
+    static <Context extends WordyExecutable.ExecutionContext> WordyExecutable<Context> compileJavaSource(
+        StatementNode program,
+        String className,
+        String javaSource
+    ) {
         try {
             return Reflect.compile(className, javaSource).create().get();
         } catch(Exception e) {
@@ -1,6 +1,10 @@
 package wordy.compiler;
 
+import java.util.List;
+
 import wordy.ast.StatementNode;
+import wordy.interpreter.ExecutionBudget;
+import wordy.interpreter.ExecutionBudgetExceeded;
 
 /**
  * A compiled Wordy program. To run it, use the createContext() method to create an object that will
@@ -13,5 +17,79 @@ public interface WordyExecutable<Context extends WordyExecutable.ExecutionContex
 
     void run(Context context);
 
-    interface ExecutionContext { }
+    /**
+     * The variables of a running compiled program. Hosts normally access variables through the
+     * get_ / set_ methods of their own interface that extends this one. Hosts that only discover
+     * variable names at run time can use the slot methods instead, which every generated context
+     * implements: resolve each name to a slot once with {@link #slotOf(String)}, then access it by
+     * number, or move all variables at once with {@link #copyTo(double[])} and
+     * {@link #copyFrom(double[])}.
+     *
+     * {@linkplain wordy.ast.VariableNode#isInternal(String) Internal} variables, such as optimizer
+     * temporaries, have neither accessors nor slots.
+     */
+    interface ExecutionContext {
+        /**
+         * Limits how much work the compiled program may do when run against this context, or
+         * removes the limit if null. Compiled loops charge the budget at each back-edge, and stop
+         * the program with an {@link ExecutionBudgetExceeded} when it runs out.
+         */
+        default void setExecutionBudget(ExecutionBudget budget) {
+            throw unsupported("budgets");
+        }
+
+        /**
+         * The names of all variables in this context, except internal ones. The variable at index
+         * i has slot i.
+         */
+        default List<String> variableNames() {
+            throw unsupported("slots");
+        }
+
+        /**
+         * Returns the slot that holds the variable with the given name, or -1 if there is none.
+         */
+        default int slotOf(String name) {
+            throw unsupported("slots");
+        }
+
+        /**
+         * Returns the current value of the variable in the given slot.
+         *
+         * @throws IndexOutOfBoundsException if there is no such slot
+         */
+        default double get(int slot) {
+            throw unsupported("slots");
+        }
+
+        /**
+         * Changes the value of the variable in the given slot.
+         *
+         * @throws IndexOutOfBoundsException if there is no such slot
+         */
+        default void set(int slot, double value) {
+            throw unsupported("slots");
+        }
+
+        /**
+         * Copies every variable into the given array, indexed by slot. The array must have at least
+         * as many elements as there are variables.
+         */
+        default void copyTo(double[] values) {
+            throw unsupported("slots");
+        }
+
+        /**
+         * Sets every variable from the given array, indexed by slot. The array must have at least
+         * as many elements as there are variables.
+         */
+        default void copyFrom(double[] values) {
+            throw unsupported("slots");
+        }
+
+        private UnsupportedOperationException unsupported(String feature) {
+            return new UnsupportedOperationException(
+                getClass().getName() + " was not generated by WordyCompiler, and does not support " + feature);
+        }
+    }
 }
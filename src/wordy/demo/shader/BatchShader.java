@@ -0,0 +1,68 @@
+package wordy.demo.shader;
+
+import wordy.ast.StatementNode;
+import wordy.interpreter.BatchInterpreter;
+import wordy.interpreter.ExecutionBudget;
+
+/**
+ * A shader backed by the batch interpreter, which computes a whole row of pixels in one run.
+ */
+class BatchShader implements Shader {
+    private final BatchInterpreter.Program program;
+    private BatchInterpreter.Batch batch;
+    private final double viewScale;
+    private final ColorComponents color = new ColorComponents();
+    private final ExecutionBudget budget = ExecutionBudget.unlimited();
+
+    public BatchShader(StatementNode program, double viewScale) {
+        this.program = BatchInterpreter.prepare(program);
+        this.viewScale = viewScale;
+    }
+
+    public double computePixelColor(double x, double y, ColorComponents result) {
+        prepareBatch(1);
+        batch.lanes("x")[0] = x;
+        batch.lanes("y")[0] = y;
+
+        program.run(batch, 1);
+
+        result.set(
+            batch.lanes("red")[0],
+            batch.lanes("green")[0],
+            batch.lanes("blue")[0]);
+
+        return batch.lanes("work_done")[0];
+    }
+
+    @Override
+    public double computeRowColors(double[] x, double y, int[] colors) {
+        int count = x.length;
+        prepareBatch(count);
+        System.arraycopy(x, 0, batch.lanes("x"), 0, count);
+        batch.fill("y", y);
+
+        program.run(batch, count);
+
+        double[] red = batch.lanes("red"), green = batch.lanes("green"), blue = batch.lanes("blue"),
+                 workDone = batch.lanes("work_done");
+        double totalWork = 0;
+        for(int i = 0; i < count; i++) {
+            color.set(red[i], green[i], blue[i]);
+            colors[i] = color.toInt();
+            totalWork += Math.max(workDone[i], 0);
+        }
+        return totalWork;
+    }
+
+    public void cancel() {
+        budget.cancel();
+    }
+
+    private void prepareBatch(int count) {
+        if(batch == null || batch.capacity() < count) {
+            batch = program.createBatch(count);
+            batch.fill("view_scale", viewScale);
+            batch.setExecutionBudget(budget);
+        }
+    }
+}
@@ -1,20 +1,34 @@
 package wordy.demo.shader;
 
+import java.util.List;
+
 import wordy.ast.StatementNode;
-import wordy.compiler.WordyCompiler;
-import wordy.compiler.WordyExecutable;
+import wordy.compiler.CompileCache;
+import wordy.compiler.WordyBatchExecutable;
+import wordy.interpreter.ExecutionBudget;
 
 /**
- * A shader backed by compiled Wordy code.
+ * A shader backed by compiled Wordy code. Whole rows run through the generated batch entry point,
+ * so the loop over pixels happens inside the compiled class.
  */
 class CompiledShader implements Shader {
-    private final WordyExecutable<ShaderExecutionContext> logic;
+    /**
+     * Every zoom creates a new shader for the same program, so keep recent programs compiled.
+     */
+    private static final CompileCache COMPILE_CACHE = new CompileCache(16);
+
+    private final WordyBatchExecutable<ShaderExecutionContext> logic;
     private final ShaderExecutionContext context;
+    private final ExecutionBudget budget = ExecutionBudget.unlimited();
+    private final ColorComponents color = new ColorComponents();
+    private double[][] rowOutputs = new double[4][0];  // red, green, blue, work_done
 
     public CompiledShader(StatementNode program, double viewScale) {
-        logic = WordyCompiler.compile(program, "CompiledShaderLogic", ShaderExecutionContext.class);
+        logic = COMPILE_CACHE.compileBatch(program, ShaderExecutionContext.class,
+            List.of("x"), List.of("red", "green", "blue", "work_done"));
         context = logic.createContext();
         context.set_view_scale(viewScale);
+        context.setExecutionBudget(budget);
     }
 
     public double computePixelColor(double x, double y, ColorComponents result) {
@@ -30,4 +44,27 @@ class CompiledShader implements Shader {
 
         return context.get_work_done();
     }
+
+    @Override
+    public double computeRowColors(double[] x, double y, int[] colors) {
+        int count = x.length;
+        if(rowOutputs[0].length < count)
+            rowOutputs = new double[4][count];
+
+        context.set_y(y);
+        logic.runBatch(context, new double[][] { x }, rowOutputs, count);
+
+        double[] red = rowOutputs[0], green = rowOutputs[1], blue = rowOutputs[2], workDone = rowOutputs[3];
+        double totalWork = 0;
+        for(int i = 0; i < count; i++) {
+            color.set(red[i], green[i], blue[i]);
+            colors[i] = color.toInt();
+            totalWork += Math.max(workDone[i], 0);
+        }
+        return totalWork;
+    }
+
+    public void cancel() {
+        budget.cancel();
+    }
 }
@@ -2,32 +2,57 @@ package wordy.demo.shader;
 
 import wordy.ast.StatementNode;
 import wordy.interpreter.EvaluationContext;
+import wordy.interpreter.ExecutionBudget;
+import wordy.interpreter.InterpretedProgram;
+import wordy.interpreter.InterpreterEngine;
 
 /**
  * A shader backed by interpreted Wordy code.
  */
 class InterpretedShader implements Shader {
-    private final StatementNode program;
+    private final InterpretedProgram program;
     private final EvaluationContext context;
+    private final ExecutionBudget budget = ExecutionBudget.unlimited();
+    private final int x, y, red, green, blue, workDone;  // variable slots
 
-    public InterpretedShader(StatementNode program, double viewScale) {
+    public InterpretedShader(StatementNode program, double viewScale, InterpreterEngine engine) {
+        this(engine.prepare(program), viewScale);
+    }
+
+    /**
+     * Uses an already prepared program, so that its state (e.g. a tiered program’s run count and
+     * compiled code) carries over from one shader to the next.
+     */
+    public InterpretedShader(InterpretedProgram program, double viewScale) {
         this.program = program;
 
-        context = new EvaluationContext();
+        context = this.program.createContext();
         context.set("view_scale", viewScale);
+        context.setExecutionBudget(budget);
+
+        x = context.slotOf("x");
+        y = context.slotOf("y");
+        red = context.slotOf("red");
+        green = context.slotOf("green");
+        blue = context.slotOf("blue");
+        workDone = context.slotOf("work_done");
     }
 
     public double computePixelColor(double x, double y, ColorComponents result) {
-        context.set("x", x);
-        context.set("y", y);
+        context.set(this.x, x);
+        context.set(this.y, y);
 
         program.run(context);
 
         result.set(
-            context.get("red"),
-            context.get("green"),
-            context.get("blue"));
+            context.get(red),
+            context.get(green),
+            context.get(blue));
+
+        return context.get(workDone);
+    }
 
-        return context.get("work_done");
+    public void cancel() {
+        budget.cancel();
     }
 }
@@ -3,6 +3,7 @@ package wordy.demo.shader;
 import java.awt.image.BufferedImage;
 
 import wordy.demo.ExecutionCancelledException;
+import wordy.interpreter.ExecutionBudgetExceeded;
 
 /**
  * Generates an image whose pixel colors come from a Shader.
@@ -35,35 +36,43 @@ final class Renderer implements Runnable {
         long nextUpdateTime = 0;
 
         try {
-            ColorComponents color = new ColorComponents();
             int width = image.getWidth(), height = image.getHeight();
+            double[] rowX = new double[width];
+            int[] rowColors = new int[width];
+            for(int x = 0; x < width; x++)
+                rowX[x] = (x - width / 2) * scale + centerX;
+
             double workSinceProgressReport = 0;
             for(int y = 0; y < height; y++) {
-                for(int x = 0; x < width; x++) {
-                    double realX = (x - width  / 2) * scale + centerX;
-                    double realY = (y - height / 2) * scale + centerY;
-                    double workDone = shader.computePixelColor(realX, realY, color);
-                    image.setRGB(x, y, color.toInt());
+                double realY = (y - height / 2) * scale + centerY;
+                double workDone = shader.computeRowColors(rowX, realY, rowColors);
+                image.setRGB(0, y, width, 1, rowColors, 0, width);
 
-                    workSinceProgressReport += Math.max(workDone, 0) + 40;
-                    if(workSinceProgressReport > 100000) {
-                        workSinceProgressReport = 0;
-                        if (System.currentTimeMillis() > nextUpdateTime) {
-                            nextUpdateTime = System.currentTimeMillis() + 50;
-                            progressCallback.run();
-                        }
+                workSinceProgressReport += workDone + 40 * width;
+                if(workSinceProgressReport > 100000) {
+                    workSinceProgressReport = 0;
+                    if (System.currentTimeMillis() > nextUpdateTime) {
+                        nextUpdateTime = System.currentTimeMillis() + 50;
+                        progressCallback.run();
                     }
                 }
             }
             System.out.println("Done rendering (" + (System.currentTimeMillis() - timer) + "ms)");
             System.out.println();
             progressCallback.run();
-        } catch(ExecutionCancelledException e) {
+        } catch(ExecutionCancelledException | ExecutionBudgetExceeded e) {
             System.out.println("Rendering cancelled");
             System.out.println();
         }
     }
 
+    /**
+     * Stops rendering as soon as possible, even if the shader is in the middle of a pixel.
+     */
+    public void cancel() {
+        shader.cancel();
+    }
+
     public void onProgress(Runnable callback) {
         progressCallback = callback;
     }
@@ -23,4 +23,28 @@ interface Shader {
      * @return A report of how much work was done, to let caller space out progress callbacks.
      */
     double computePixelColor(double x, double y, ColorComponents result);
+
+    /**
+     * Computes the colors for a whole row of pixels that share the same y coordinate. Shaders that
+     * can process many pixels at once override this; by default, it computes each pixel in turn.
+     *
+     * @param colors Implementations fill this with the resulting colors, in the form returned by
+     *               {@link ColorComponents#toInt()}
+     * @return The total work done for the row, as reported by computePixelColor().
+     */
+    default double computeRowColors(double[] x, double y, int[] colors) {
+        ColorComponents color = new ColorComponents();
+        double workDone = 0;
+        for(int i = 0; i < x.length; i++) {
+            workDone += Math.max(computePixelColor(x[i], y, color), 0);
+            colors[i] = color.toInt();
+        }
+        return workDone;
+    }
+
+    /**
+     * Asks any computation in progress, on any thread, to stop as soon as possible by throwing
+     * {@link wordy.interpreter.ExecutionBudgetExceeded}. Once cancelled, a shader stays cancelled.
+     */
+    void cancel();
 }
@@ -15,7 +15,11 @@ import java.util.concurrent.Executors;
 import javax.swing.JFrame;
 
 import wordy.ast.StatementNode;
+import wordy.compiler.TieredProgram;
 import wordy.demo.ExecutionCancelledException;
+import wordy.interpreter.InterpreterEngine;
+import wordy.optimizer.AstOptimizer;
+import wordy.optimizer.SuperinstructionFusion;
 import wordy.parser.WordyParser;
 
 /**
@@ -24,8 +28,14 @@ import wordy.parser.WordyParser;
  */
 public class ShaderUI {
     private static final boolean USE_COMPILER = false;
+    private static final boolean USE_TIERED_EXECUTION = false;  // interpret, then compile when hot
+    private static final boolean USE_BATCH_INTERPRETER = false;
+    private static final InterpreterEngine INTERPRETER_ENGINE = InterpreterEngine.TREE_WALKING;
+    private static final boolean OPTIMIZE_AST = false;
+    private static final boolean FUSE_SUPERINSTRUCTIONS = false;
 
     private final StatementNode program;
+    private final TieredProgram tieredProgram;  // null unless USE_TIERED_EXECUTION
     private final BufferedImage image;
     private final JFrame window;
     private double centerX, centerY, scale;
@@ -43,6 +53,7 @@ public class ShaderUI {
 
     public ShaderUI(String sourceFileName, int width, int height) throws Exception {
         program = loadProgram("/" + sourceFileName);
+        tieredProgram = USE_TIERED_EXECUTION ? TieredProgram.prepare(program) : null;
 
         final int pixelRatio = 2;
         image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
@@ -75,6 +86,10 @@ public class ShaderUI {
         System.out.println();
 
         var program = WordyParser.parseProgram(source);
+        if(OPTIMIZE_AST)
+            program = AstOptimizer.optimize(program);
+        if(FUSE_SUPERINSTRUCTIONS)
+            program = SuperinstructionFusion.fuse(program);
         System.out.println(program.dump());
         System.out.println();
 
@@ -86,9 +101,15 @@ public class ShaderUI {
             image, centerX, centerY, scale,
             USE_COMPILER
                 ? new CompiledShader(program, scale)
-                : new InterpretedShader(program, scale));
+                : USE_TIERED_EXECUTION
+                    ? new InterpretedShader(tieredProgram, scale)
+                    : USE_BATCH_INTERPRETER
+                        ? new BatchShader(program, scale)
+                        : new InterpretedShader(program, scale, INTERPRETER_ENGINE));
 
         synchronized(this) {
+            if(currentRenderer != null)
+                currentRenderer.cancel();  // stops even a shader stuck in a loop
             currentRenderer = renderer;
         }
 
@@ -0,0 +1,503 @@
+package wordy.interpreter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import wordy.ast.ASTNode;
+import wordy.ast.AssignmentNode;
+import wordy.ast.BinaryExpressionNode;
+import wordy.ast.BlockNode;
+import wordy.ast.ConditionalNode;
+import wordy.ast.ConstantNode;
+import wordy.ast.ExpressionNode;
+import wordy.ast.FusedNode;
+import wordy.ast.LoopExitNode;
+import wordy.ast.LoopNode;
+import wordy.ast.StatementNode;
+import wordy.ast.VariableNode;
+
+/**
+ * Runs one Wordy program over many independent sets of inputs at once. Each set of inputs is a
+ * “lane”; each variable holds a {@code double[]} with one value per lane, and each node does its
+ * work for every lane in a single tight loop. The cost of dispatching a node is thus paid once per
+ * batch instead of once per lane, and the JIT is free to vectorize the inner loops.
+ *
+ * Control flow uses per-lane masks. A conditional computes which lanes take each branch, and runs
+ * each branch (if any lane takes it) with only those lanes active. A loop keeps running its body
+ * until every lane has exited. Lanes that are inactive still compute expressions, but never store
+ * the results, so every lane ends with exactly the values the tree-walking interpreter would
+ * give it.
+ *
+ * Like {@link ClosureCompiler}, this translates the AST once into a tree of closures, then runs
+ * those. It does not trace.
+ */
+public final class BatchInterpreter {
+    /**
+     * Prepares the given program for batch execution.
+     */
+    public static Program prepare(StatementNode program) {
+        var compiler = new BatchInterpreter(
+            VariableSlots.resolve(program, temporariesNeeded(program)));
+        var body = compiler.statement(program, 1);  // mask 0 is the whole batch
+        return new Program(compiler.slots, compiler.maskCount, body);
+    }
+
+    /**
+     * A program prepared for batch execution. It can run any number of batches, but a single batch
+     * must not be run by multiple threads at once.
+     */
+    public static final class Program {
+        private final VariableSlots slots;
+        private final int maskCount;
+        private final Statement body;
+
+        private Program(VariableSlots slots, int maskCount, Statement body) {
+            this.slots = slots;
+            this.maskCount = maskCount;
+            this.body = body;
+        }
+
+        /**
+         * Creates storage for up to the given number of lanes. All variables start at 0 in every lane.
+         */
+        public Batch createBatch(int capacity) {
+            return new Batch(this, capacity);
+        }
+
+        /**
+         * Runs the program on the first {@code count} lanes of the given batch.
+         *
+         * @throws LoopExited if the program executes “exit loop” outside of any loop in any lane.
+         */
+        public void run(Batch batch, int count) {
+            if(batch.program != this)
+                throw new IllegalArgumentException("Batch was not created by this program");
+            if(count < 0 || count > batch.capacity())
+                throw new IllegalArgumentException(
+                    "Lane count " + count + " out of range for batch of capacity " + batch.capacity());
+
+            boolean[] active = batch.masks[0];
+            Arrays.fill(active, 0, count, true);
+            body.execute(batch, active, count);
+            for(int i = 0; i < count; i++)
+                if(!active[i])
+                    throw LoopExited.INSTANCE;  // “exit loop” outside of any loop; same as tree walker
+        }
+    }
+
+    /**
+     * The variables for a batch of lanes. Callers read and write lane values directly through the
+     * arrays returned by {@link #lanes(String)}.
+     */
+    public static final class Batch {
+        private final Program program;
+        private final double[][] columns;  // indexed by slot, then lane
+        private final boolean[][] masks;
+        private final Map<String,double[]> otherColumns = new HashMap<>();
+        private ExecutionBudget budget;  // null if unlimited
+
+        private Batch(Program program, int capacity) {
+            this.program = program;
+            columns = new double[program.slots.size()][capacity];
+            masks = new boolean[program.maskCount][capacity];
+        }
+
+        public int capacity() {
+            return masks[0].length;
+        }
+
+        /**
+         * Returns the live array of per-lane values for the given variable. Changes to the array
+         * are visible to the program, and vice versa. Variables the program never uses still get
+         * an array, but the program will neither read nor write it.
+         */
+        public double[] lanes(String name) {
+            int slot = program.slots.slotOf(name);
+            if(slot >= 0)
+                return columns[slot];
+            return otherColumns.computeIfAbsent(name, k -> new double[capacity()]);
+        }
+
+        /**
+         * Sets the given variable to the same value in every lane.
+         */
+        public void fill(String name, double value) {
+            Arrays.fill(lanes(name), value);
+        }
+
+        /**
+         * Limits how much work runs of this batch may do, or removes the limit if null. A loop
+         * charges one iteration to the budget each time it repeats, however many lanes are still
+         * running.
+         */
+        public void setExecutionBudget(ExecutionBudget budget) {
+            this.budget = budget;
+        }
+    }
+
+    /**
+     * A compiled expression. It computes its value for lanes 0 through count-1 (active or not),
+     * and returns the array that holds the results: either a variable’s own column, or a temporary.
+     */
+    @FunctionalInterface
+    private interface Expression {
+        double[] evaluate(Batch batch, int count);
+    }
+
+    /**
+     * A compiled statement. It runs only in lanes where active[i] is true, and clears active[i]
+     * for lanes that exit the innermost enclosing loop.
+     */
+    @FunctionalInterface
+    private interface Statement {
+        void execute(Batch batch, boolean[] active, int count);
+    }
+
+    private final VariableSlots slots;
+    private int maskCount = 1;
+
+    private BatchInterpreter(VariableSlots slots) {
+        this.slots = slots;
+    }
+
+    // –––––––––––– Statements ––––––––––––
+
+    /**
+     * Compiles a statement that may use masks numbered from firstMask upward for its own control
+     * flow.
+     */
+    private Statement statement(StatementNode node, int firstMask) {
+        if(node instanceof AssignmentNode)
+            return assignment((AssignmentNode) node);
+        if(node instanceof BlockNode)
+            return block(((BlockNode) node).getStatements(), firstMask);
+        if(node instanceof ConditionalNode)
+            return conditional((ConditionalNode) node, firstMask);
+        if(node instanceof LoopNode)
+            return loop(((LoopNode) node).getBody(), firstMask);
+        if(node instanceof LoopExitNode)
+            return (batch, active, count) -> Arrays.fill(active, 0, count, false);
+        if(node instanceof FusedNode)
+            return statement((StatementNode) ((FusedNode) node).unfused(), firstMask);
+        throw unsupported(node);
+    }
+
+    private Statement assignment(AssignmentNode node) {
+        int slot = slotOf(node.getVariable());
+        Expression expr = expression(node.getExpression(), 0);
+        return (batch, active, count) -> {
+            double[] values = expr.evaluate(batch, count);
+            double[] target = batch.columns[slot];
+            for(int i = 0; i < count; i++)
+                target[i] = active[i] ? values[i] : target[i];
+        };
+    }
+
+    private Statement block(List<StatementNode> statementNodes, int firstMask) {
+        var statements = new Statement[statementNodes.size()];
+        var mayExit = new boolean[statementNodes.size()];
+        for(int n = 0; n < statements.length; n++) {
+            statements[n] = statement(statementNodes.get(n), firstMask);
+            mayExit[n] = containsExit(statementNodes.get(n));
+        }
+        return (batch, active, count) -> {
+            for(int n = 0; n < statements.length; n++) {
+                statements[n].execute(batch, active, count);
+                if(mayExit[n] && !any(active, count))
+                    return;  // every lane has exited
+            }
+        };
+    }
+
+    private Statement conditional(ConditionalNode node, int firstMask) {
+        Condition condition = condition(node.getOperator(), node.getLhs(), node.getRhs());
+        int trueMask = firstMask, falseMask = firstMask + 1;
+        reserveMasks(firstMask + 2);
+        Statement ifTrue = statement(node.getIfTrue(), firstMask + 2);
+        Statement ifFalse = node.getIfFalse().equals(BlockNode.EMPTY)
+            ? null
+            : statement(node.getIfFalse(), firstMask + 2);
+        boolean mayExit = containsExit(node.getIfTrue()) || containsExit(node.getIfFalse());
+
+        return (batch, active, count) -> {
+            boolean[] whenTrue = batch.masks[trueMask], whenFalse = batch.masks[falseMask];
+            condition.test(batch, count, whenTrue);
+            boolean anyTrue = false, anyFalse = false;
+            for(int i = 0; i < count; i++) {
+                boolean holds = whenTrue[i];
+                whenTrue[i]  = active[i] &&  holds;
+                whenFalse[i] = active[i] && !holds;
+                anyTrue  |= whenTrue[i];
+                anyFalse |= whenFalse[i];
+            }
+            if(anyTrue)
+                ifTrue.execute(batch, whenTrue, count);
+            if(anyFalse && ifFalse != null)
+                ifFalse.execute(batch, whenFalse, count);
+            if(mayExit)
+                for(int i = 0; i < count; i++)
+                    active[i] = whenTrue[i] || whenFalse[i];  // drop lanes that exited in either branch
+        };
+    }
+
+    private Statement loop(StatementNode bodyNode, int firstMask) {
+        int loopMask = firstMask;
+        reserveMasks(firstMask + 1);
+        Statement body = statement(bodyNode, firstMask + 1);
+        return (batch, active, count) -> {
+            boolean[] running = batch.masks[loopMask];
+            System.arraycopy(active, 0, running, 0, count);
+            while(any(running, count)) {
+                body.execute(batch, running, count);
+                if(batch.budget != null && any(running, count))
+                    batch.budget.loopIteration();
+            }
+            // Exits stop at this loop; lanes active before it are still active after it
+        };
+    }
+
+    // –––––––––––– Conditions ––––––––––––
+
+    /**
+     * Computes a comparison for lanes 0 through count-1, storing the result in the given mask.
+     */
+    @FunctionalInterface
+    private interface Condition {
+        void test(Batch batch, int count, boolean[] result);
+    }
+
+    private Condition condition(ConditionalNode.Operator operator, ExpressionNode lhsNode, ExpressionNode rhsNode) {
+        Expression lhs = expression(lhsNode, 0);
+        if(rhsNode instanceof ConstantNode) {
+            double b = ((ConstantNode) rhsNode).getValue();
+            switch(operator) {
+                case EQUALS:
+                    return (batch, count, result) -> {
+                        double[] a = lhs.evaluate(batch, count);
+                        for(int i = 0; i < count; i++)
+                            result[i] = a[i] == b;
+                    };
+                case LESS_THAN:
+                    return (batch, count, result) -> {
+                        double[] a = lhs.evaluate(batch, count);
+                        for(int i = 0; i < count; i++)
+                            result[i] = a[i] < b;
+                    };
+                case GREATER_THAN:
+                    return (batch, count, result) -> {
+                        double[] a = lhs.evaluate(batch, count);
+                        for(int i = 0; i < count; i++)
+                            result[i] = a[i] > b;
+                    };
+            }
+        } else {
+            Expression rhs = expression(rhsNode, 1);
+            switch(operator) {
+                case EQUALS:
+                    return (batch, count, result) -> {
+                        double[] a = lhs.evaluate(batch, count), b = rhs.evaluate(batch, count);
+                        for(int i = 0; i < count; i++)
+                            result[i] = a[i] == b[i];
+                    };
+                case LESS_THAN:
+                    return (batch, count, result) -> {
+                        double[] a = lhs.evaluate(batch, count), b = rhs.evaluate(batch, count);
+                        for(int i = 0; i < count; i++)
+                            result[i] = a[i] < b[i];
+                    };
+                case GREATER_THAN:
+                    return (batch, count, result) -> {
+                        double[] a = lhs.evaluate(batch, count), b = rhs.evaluate(batch, count);
+                        for(int i = 0; i < count; i++)
+                            result[i] = a[i] > b[i];
+                    };
+            }
+        }
+        throw new IllegalArgumentException("Unknown comparison operator: " + operator);
+    }
+
+    // –––––––––––– Expressions ––––––––––––
+
+    /**
+     * Compiles an expression whose result, unless it is a plain variable, goes in the temporary
+     * column numbered temp. Subexpressions use temporaries numbered from temp upward.
+     */
+    private Expression expression(ExpressionNode node, int temp) {
+        if(node instanceof VariableNode) {
+            int slot = slotOf((VariableNode) node);
+            return (batch, count) -> batch.columns[slot];
+        }
+        if(node instanceof ConstantNode) {
+            double value = ((ConstantNode) node).getValue();
+            return (batch, count) -> {
+                double[] out = batch.columns[temp];
+                Arrays.fill(out, 0, count, value);
+                return out;
+            };
+        }
+        if(node instanceof BinaryExpressionNode)
+            return binaryExpression((BinaryExpressionNode) node, temp);
+        if(node instanceof FusedNode)
+            return expression((ExpressionNode) ((FusedNode) node).unfused(), temp);
+        throw unsupported(node);
+    }
+
+    private Expression binaryExpression(BinaryExpressionNode node, int temp) {
+        var operator = node.getOperator();
+        Expression lhs = expression(node.getLhs(), temp);
+
+        if(node.getRhs() instanceof ConstantNode) {
+            double b = ((ConstantNode) node.getRhs()).getValue();
+            switch(operator) {
+                case ADDITION:
+                    return (batch, count) -> {
+                        double[] a = lhs.evaluate(batch, count), out = batch.columns[temp];
+                        for(int i = 0; i < count; i++)
+                            out[i] = a[i] + b;
+                        return out;
+                    };
+                case SUBTRACTION:
+                    return (batch, count) -> {
+                        double[] a = lhs.evaluate(batch, count), out = batch.columns[temp];
+                        for(int i = 0; i < count; i++)
+                            out[i] = a[i] - b;
+                        return out;
+                    };
+                case MULTIPLICATION:
+                    return (batch, count) -> {
+                        double[] a = lhs.evaluate(batch, count), out = batch.columns[temp];
+                        for(int i = 0; i < count; i++)
+                            out[i] = a[i] * b;
+                        return out;
+                    };
+                case DIVISION:
+                    return (batch, count) -> {
+                        double[] a = lhs.evaluate(batch, count), out = batch.columns[temp];
+                        for(int i = 0; i < count; i++)
+                            out[i] = a[i] / b;
+                        return out;
+                    };
+                case EXPONENTIATION:
+                    if(b == 2)  // Math.pow(x, 2) is exactly x * x, which vectorizes
+                        return (batch, count) -> {
+                            double[] a = lhs.evaluate(batch, count), out = batch.columns[temp];
+                            for(int i = 0; i < count; i++)
+                                out[i] = a[i] * a[i];
+                            return out;
+                        };
+                    var power = ConstantPower.of(b);
+                    if(power != null)
+                        return (batch, count) -> {
+                            double[] a = lhs.evaluate(batch, count), out = batch.columns[temp];
+                            for(int i = 0; i < count; i++)
+                                out[i] = power.apply(a[i]);
+                            return out;
+                        };
+                    return (batch, count) -> {
+                        double[] a = lhs.evaluate(batch, count), out = batch.columns[temp];
+                        for(int i = 0; i < count; i++)
+                            out[i] = Math.pow(a[i], b);
+                        return out;
+                    };
+            }
+        }
+
+        Expression rhs = expression(node.getRhs(), temp + 1);
+        switch(operator) {
+            case ADDITION:
+                return (batch, count) -> {
+                    double[] a = lhs.evaluate(batch, count), b = rhs.evaluate(batch, count), out = batch.columns[temp];
+                    for(int i = 0; i < count; i++)
+                        out[i] = a[i] + b[i];
+                    return out;
+                };
+            case SUBTRACTION:
+                return (batch, count) -> {
+                    double[] a = lhs.evaluate(batch, count), b = rhs.evaluate(batch, count), out = batch.columns[temp];
+                    for(int i = 0; i < count; i++)
+                        out[i] = a[i] - b[i];
+                    return out;
+                };
+            case MULTIPLICATION:
+                return (batch, count) -> {
+                    double[] a = lhs.evaluate(batch, count), b = rhs.evaluate(batch, count), out = batch.columns[temp];
+                    for(int i = 0; i < count; i++)
+                        out[i] = a[i] * b[i];
+                    return out;
+                };
+            case DIVISION:
+                return (batch, count) -> {
+                    double[] a = lhs.evaluate(batch, count), b = rhs.evaluate(batch, count), out = batch.columns[temp];
+                    for(int i = 0; i < count; i++)
+                        out[i] = a[i] / b[i];
+                    return out;
+                };
+            case EXPONENTIATION:
+                return (batch, count) -> {
+                    double[] a = lhs.evaluate(batch, count), b = rhs.evaluate(batch, count), out = batch.columns[temp];
+                    for(int i = 0; i < count; i++)
+                        out[i] = Math.pow(a[i], b[i]);
+                    return out;
+                };
+        }
+        throw new IllegalArgumentException("Unknown binary operator: " + operator);
+    }
+
+    /**
+     * The number of temporary columns that expression() can use for the given subtree.
+     */
+    private static int temporariesNeeded(ASTNode node) {
+        if(node instanceof FusedNode)
+            return temporariesNeeded(((FusedNode) node).unfused());
+        if(node instanceof VariableNode)
+            return 0;
+        if(node instanceof ConstantNode)
+            return 1;
+        if(node instanceof BinaryExpressionNode) {
+            var binary = (BinaryExpressionNode) node;
+            return Math.max(1, Math.max(temporariesNeeded(binary.getLhs()), 1 + temporariesNeeded(binary.getRhs())));
+        }
+        int result = 0;
+        if(node instanceof ConditionalNode)
+            result = Math.max(
+                temporariesNeeded(((ConditionalNode) node).getLhs()),
+                1 + temporariesNeeded(((ConditionalNode) node).getRhs()));
+        for(var child : node.getChildren().values())
+            result = Math.max(result, temporariesNeeded(child));
+        return result;
+    }
+
+    // –––––––––––– Helpers ––––––––––––
+
+    private static boolean containsExit(ASTNode node) {
+        if(node instanceof FusedNode)
+            return containsExit(((FusedNode) node).unfused());
+        if(node instanceof LoopExitNode)
+            return true;
+        if(node instanceof LoopNode)
+            return false;  // exits inside a nested loop stop there
+        return node.getChildren().values().stream().anyMatch(BatchInterpreter::containsExit);
+    }
+
+    private static boolean any(boolean[] mask, int count) {
+        for(int i = 0; i < count; i++)
+            if(mask[i])
+                return true;
+        return false;
+    }
+
+    private void reserveMasks(int count) {
+        maskCount = Math.max(maskCount, count);
+    }
+
+    private int slotOf(VariableNode variable) {
+        return slots.slotOf(variable.getName());
+    }
+
+    private static UnsupportedOperationException unsupported(ASTNode node) {
+        return new UnsupportedOperationException(
+            "Batch interpretation not implemented for " + node.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,357 @@
+package wordy.interpreter;
+
+import java.util.List;
+
+import wordy.ast.ASTNode;
+import wordy.ast.AssignmentNode;
+import wordy.ast.BinaryExpressionNode;
+import wordy.ast.BlockNode;
+import wordy.ast.ConditionalExitNode;
+import wordy.ast.ConditionalNode;
+import wordy.ast.ConstantNode;
+import wordy.ast.ExpressionNode;
+import wordy.ast.FusedNode;
+import wordy.ast.IncrementNode;
+import wordy.ast.LoopExitNode;
+import wordy.ast.LoopNode;
+import wordy.ast.MultiplyAddNode;
+import wordy.ast.StatementNode;
+import wordy.ast.SumOfSquaresNode;
+import wordy.ast.VariableNode;
+
+/**
+ * Translates a Wordy AST into a tree of Java lambdas, one per node, that each do exactly the work
+ * of their node and nothing else. This is sometimes called “closure compilation.”
+ *
+ * The translation happens once per program. Decisions the tree-walking interpreter makes on every
+ * run — which operator a node uses, whether an operand is a constant or a variable, which slot a
+ * variable lives in — are made here instead, and baked into the choice of lambda. For example,
+ * “x plus 1” becomes a single lambda that loads x’s slot and adds 1, with no child calls at all.
+ * The resulting closures read and write the context’s slot array directly, and do not trace.
+ *
+ * Compared to {@link wordy.compiler.WordyCompiler}, this produces slower code, but is ready to run
+ * almost immediately: it generates no source code and defines no classes.
+ */
+public final class ClosureCompiler {
+    /**
+     * Compiles the given program to closures.
+     */
+    public static InterpretedProgram compile(StatementNode program) {
+        var slots = VariableSlots.resolve(program);
+        return new CompiledProgram(slots, new ClosureCompiler(slots).statement(program));
+    }
+
+    /**
+     * A compiled expression.
+     */
+    @FunctionalInterface
+    interface Expression {
+        double evaluate(double[] frame);
+    }
+
+    /**
+     * A compiled statement.
+     */
+    @FunctionalInterface
+    interface Statement {
+        /**
+         * Runs the statement, and returns true if it exited the innermost enclosing loop. Loops
+         * charge each iteration to the budget, unless it is null.
+         */
+        boolean execute(double[] frame, ExecutionBudget budget);
+    }
+
+    private final VariableSlots slots;
+
+    private ClosureCompiler(VariableSlots slots) {
+        this.slots = slots;
+    }
+
+    // –––––––––––– Statements ––––––––––––
+
+    private Statement statement(StatementNode node) {
+        if(node instanceof AssignmentNode)
+            return assignment((AssignmentNode) node);
+        if(node instanceof BlockNode)
+            return block(((BlockNode) node).getStatements());
+        if(node instanceof ConditionalNode)
+            return conditional((ConditionalNode) node);
+        if(node instanceof LoopNode)
+            return loop(((LoopNode) node).getBody());
+        if(node instanceof LoopExitNode)
+            return (frame, budget) -> true;
+        if(node instanceof IncrementNode) {
+            int slot = slotOf(((IncrementNode) node).getVariable());
+            double amount = ((IncrementNode) node).getAmount();
+            return (frame, budget) -> {
+                frame[slot] += amount;
+                return false;
+            };
+        }
+        if(node instanceof ConditionalExitNode) {
+            var exit = (ConditionalExitNode) node;
+            Condition condition = condition(exit.getOperator(), exit.getLhs(), new ConstantNode(exit.getLimit()));
+            return (frame, budget) -> condition.test(frame);
+        }
+        if(node instanceof FusedNode)
+            return statement((StatementNode) ((FusedNode) node).unfused());
+        throw unsupported(node);
+    }
+
+    private Statement assignment(AssignmentNode node) {
+        int slot = slotOf(node.getVariable());
+        ExpressionNode rhs = node.getExpression();
+        if(rhs instanceof ConstantNode) {
+            double value = ((ConstantNode) rhs).getValue();
+            return (frame, budget) -> {
+                frame[slot] = value;
+                return false;
+            };
+        }
+        Expression expr = expression(rhs);
+        return (frame, budget) -> {
+            frame[slot] = expr.evaluate(frame);
+            return false;
+        };
+    }
+
+    private Statement block(List<StatementNode> statementNodes) {
+        switch(statementNodes.size()) {
+            case 0:
+                return (frame, budget) -> false;
+            case 1:
+                return statement(statementNodes.get(0));
+            case 2: {
+                Statement first = statement(statementNodes.get(0)),
+                          second = statement(statementNodes.get(1));
+                return (frame, budget) -> first.execute(frame, budget) || second.execute(frame, budget);
+            }
+            default:
+                Statement[] statements = statementNodes.stream()
+                    .map(this::statement)
+                    .toArray(Statement[]::new);
+                return (frame, budget) -> {
+                    for(Statement statement : statements)
+                        if(statement.execute(frame, budget))
+                            return true;
+                    return false;
+                };
+        }
+    }
+
+    private Statement conditional(ConditionalNode node) {
+        Condition condition = condition(node.getOperator(), node.getLhs(), node.getRhs());
+        Statement ifTrue = statement(node.getIfTrue());
+        if(node.getIfFalse().equals(BlockNode.EMPTY))
+            return (frame, budget) -> condition.test(frame) && ifTrue.execute(frame, budget);
+        Statement ifFalse = statement(node.getIfFalse());
+        return (frame, budget) -> condition.test(frame)
+            ? ifTrue.execute(frame, budget)
+            : ifFalse.execute(frame, budget);
+    }
+
+    private Statement loop(StatementNode bodyNode) {
+        Statement body = statement(bodyNode);
+        return (frame, budget) -> {
+            while(!body.execute(frame, budget)) {
+                if(budget != null)
+                    budget.loopIteration();
+            }
+            return false;  // the exit stops at this loop; it does not propagate further
+        };
+    }
+
+    // –––––––––––– Conditions ––––––––––––
+
+    @FunctionalInterface
+    private interface Condition {
+        boolean test(double[] frame);
+    }
+
+    private Condition condition(ConditionalNode.Operator operator, ExpressionNode lhsNode, ExpressionNode rhsNode) {
+        Expression lhs = expression(lhsNode);
+        if(rhsNode instanceof ConstantNode) {
+            double rhs = ((ConstantNode) rhsNode).getValue();
+            switch(operator) {
+                case EQUALS:       return frame -> lhs.evaluate(frame) == rhs;
+                case LESS_THAN:    return frame -> lhs.evaluate(frame) <  rhs;
+                case GREATER_THAN: return frame -> lhs.evaluate(frame) >  rhs;
+            }
+        } else {
+            Expression rhs = expression(rhsNode);
+            switch(operator) {
+                case EQUALS:       return frame -> lhs.evaluate(frame) == rhs.evaluate(frame);
+                case LESS_THAN:    return frame -> lhs.evaluate(frame) <  rhs.evaluate(frame);
+                case GREATER_THAN: return frame -> lhs.evaluate(frame) >  rhs.evaluate(frame);
+            }
+        }
+        throw new IllegalArgumentException("Unknown comparison operator: " + operator);
+    }
+
+    // –––––––––––– Expressions ––––––––––––
+
+    private Expression expression(ExpressionNode node) {
+        if(node instanceof ConstantNode) {
+            double value = ((ConstantNode) node).getValue();
+            return frame -> value;
+        }
+        if(node instanceof VariableNode) {
+            int slot = slotOf((VariableNode) node);
+            return frame -> frame[slot];
+        }
+        if(node instanceof BinaryExpressionNode)
+            return binaryExpression((BinaryExpressionNode) node);
+        if(node instanceof SumOfSquaresNode) {
+            int a = slotOf(((SumOfSquaresNode) node).getLhs());
+            int b = slotOf(((SumOfSquaresNode) node).getRhs());
+            return frame -> frame[a] * frame[a] + frame[b] * frame[b];
+        }
+        if(node instanceof MultiplyAddNode) {
+            var multiplyAdd = (MultiplyAddNode) node;
+            Expression multiplier = expression(multiplyAdd.getMultiplier()),
+                       multiplicand = expression(multiplyAdd.getMultiplicand()),
+                       addend = expression(multiplyAdd.getAddend());
+            return frame -> multiplier.evaluate(frame) * multiplicand.evaluate(frame) + addend.evaluate(frame);
+        }
+        if(node instanceof FusedNode)
+            return expression((ExpressionNode) ((FusedNode) node).unfused());
+        throw unsupported(node);
+    }
+
+    private Expression binaryExpression(BinaryExpressionNode node) {
+        var operator = node.getOperator();
+        ExpressionNode lhsNode = node.getLhs(), rhsNode = node.getRhs();
+
+        // Specialize the common operand shapes so that each becomes a single closure with no
+        // child calls: variable ⋄ constant, constant ⋄ variable, and variable ⋄ variable.
+        if(lhsNode instanceof VariableNode && rhsNode instanceof ConstantNode) {
+            int a = slotOf((VariableNode) lhsNode);
+            double b = ((ConstantNode) rhsNode).getValue();
+            switch(operator) {
+                case ADDITION:       return frame -> frame[a] + b;
+                case SUBTRACTION:    return frame -> frame[a] - b;
+                case MULTIPLICATION: return frame -> frame[a] * b;
+                case DIVISION:       return frame -> frame[a] / b;
+                case EXPONENTIATION: return variableToConstantPower(a, b);
+            }
+        }
+        if(lhsNode instanceof ConstantNode && rhsNode instanceof VariableNode) {
+            double a = ((ConstantNode) lhsNode).getValue();
+            int b = slotOf((VariableNode) rhsNode);
+            switch(operator) {
+                case ADDITION:       return frame -> a + frame[b];
+                case SUBTRACTION:    return frame -> a - frame[b];
+                case MULTIPLICATION: return frame -> a * frame[b];
+                case DIVISION:       return frame -> a / frame[b];
+                case EXPONENTIATION: return frame -> Math.pow(a, frame[b]);
+            }
+        }
+        if(lhsNode instanceof VariableNode && rhsNode instanceof VariableNode) {
+            int a = slotOf((VariableNode) lhsNode);
+            int b = slotOf((VariableNode) rhsNode);
+            switch(operator) {
+                case ADDITION:       return frame -> frame[a] + frame[b];
+                case SUBTRACTION:    return frame -> frame[a] - frame[b];
+                case MULTIPLICATION: return frame -> frame[a] * frame[b];
+                case DIVISION:       return frame -> frame[a] / frame[b];
+                case EXPONENTIATION: return frame -> Math.pow(frame[a], frame[b]);
+            }
+        }
+        if(rhsNode instanceof ConstantNode) {
+            Expression lhs = expression(lhsNode);
+            double b = ((ConstantNode) rhsNode).getValue();
+            switch(operator) {
+                case ADDITION:       return frame -> lhs.evaluate(frame) + b;
+                case SUBTRACTION:    return frame -> lhs.evaluate(frame) - b;
+                case MULTIPLICATION: return frame -> lhs.evaluate(frame) * b;
+                case DIVISION:       return frame -> lhs.evaluate(frame) / b;
+                case EXPONENTIATION: return constantPower(lhs, b);
+            }
+        }
+
+        Expression lhs = expression(lhsNode), rhs = expression(rhsNode);
+        switch(operator) {
+            case ADDITION:       return frame -> lhs.evaluate(frame) + rhs.evaluate(frame);
+            case SUBTRACTION:    return frame -> lhs.evaluate(frame) - rhs.evaluate(frame);
+            case MULTIPLICATION: return frame -> lhs.evaluate(frame) * rhs.evaluate(frame);
+            case DIVISION:       return frame -> lhs.evaluate(frame) / rhs.evaluate(frame);
+            case EXPONENTIATION: return frame -> Math.pow(lhs.evaluate(frame), rhs.evaluate(frame));
+        }
+        throw new IllegalArgumentException("Unknown binary operator: " + operator);
+    }
+
+    /**
+     * A variable raised to a constant power, with the exponent’s {@link ConstantPower} replacement
+     * if it has one. Each replacement gets its own closure, so that the JIT can inline it.
+     */
+    private static Expression variableToConstantPower(int a, double b) {
+        var power = ConstantPower.of(b);
+        if(power == null)
+            return frame -> Math.pow(frame[a], b);
+        switch(power) {
+            case ZERO:      return frame -> 1;
+            case ONE:       return frame -> frame[a];
+            case TWO:       return frame -> ConstantPower.square(frame[a]);
+            case THREE:     return frame -> ConstantPower.cube(frame[a]);
+            case FOUR:      return frame -> ConstantPower.fourthPower(frame[a]);
+            case MINUS_ONE: return frame -> ConstantPower.reciprocal(frame[a]);
+            case ONE_HALF:  return frame -> ConstantPower.squareRoot(frame[a]);
+        }
+        throw new IllegalArgumentException("Unknown constant power: " + power);
+    }
+
+    private static Expression constantPower(Expression lhs, double b) {
+        var power = ConstantPower.of(b);
+        if(power == null)
+            return frame -> Math.pow(lhs.evaluate(frame), b);
+        switch(power) {
+            case ZERO:      return frame -> 1;
+            case ONE:       return lhs;
+            case TWO:       return frame -> ConstantPower.square(lhs.evaluate(frame));
+            case THREE:     return frame -> ConstantPower.cube(lhs.evaluate(frame));
+            case FOUR:      return frame -> ConstantPower.fourthPower(lhs.evaluate(frame));
+            case MINUS_ONE: return frame -> ConstantPower.reciprocal(lhs.evaluate(frame));
+            case ONE_HALF:  return frame -> ConstantPower.squareRoot(lhs.evaluate(frame));
+        }
+        throw new IllegalArgumentException("Unknown constant power: " + power);
+    }
+
+    // –––––––––––– Helpers ––––––––––––
+
+    private int slotOf(VariableNode variable) {
+        return slots.slotOf(variable.getName());
+    }
+
+    private static UnsupportedOperationException unsupported(ASTNode node) {
+        return new UnsupportedOperationException(
+            "Closure compilation not implemented for " + node.getClass().getSimpleName());
+    }
+
+    private static final class CompiledProgram implements InterpretedProgram {
+        private final VariableSlots slots;
+        private final Statement body;
+
+        CompiledProgram(VariableSlots slots, Statement body) {
+            this.slots = slots;
+            this.body = body;
+        }
+
+        @Override
+        public EvaluationContext createContext() {
+            return new EvaluationContext(slots);
+        }
+
+        @Override
+        public EvaluationContext createContext(EvaluationContext.Tracer tracer) {
+            return new EvaluationContext(slots, tracer);  // closures never call the tracer
+        }
+
+        @Override
+        public void run(EvaluationContext context) {
+            if(!context.hasLayout(slots))
+                throw new IllegalArgumentException("Context was not created by this program");
+            if(body.execute(context.frame(), context.getExecutionBudget()))
+                throw LoopExited.INSTANCE;  // “exit loop” outside of any loop; same as tree walker
+        }
+    }
+}
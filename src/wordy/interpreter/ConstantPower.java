@@ -0,0 +1,140 @@
+package wordy.interpreter;
+
+/**
+ * Cheaper replacements for Math.pow(x, c) when the exponent c is one of a few common constants.
+ * Every backend that evaluates exponentiation uses these same replacements, so that all engines,
+ * the compiler, and constant folding agree bit for bit.
+ *
+ * The replacements for 0, 1, 2, and 0.5 give exactly what Math.pow gives for every input,
+ * including zeros, infinities, and NaN. The others differ from Math.pow in the last bit for some
+ * inputs: −1 becomes a division, which is correctly rounded where Math.pow is only within one ulp,
+ * and 3 and 4 become multiply chains that round at each step.
+ */
+public enum ConstantPower {
+    ZERO(0, "one") {
+        @Override
+        public double apply(double base) {
+            return one(base);
+        }
+    },
+
+    ONE(1, "identity") {
+        @Override
+        public double apply(double base) {
+            return identity(base);
+        }
+    },
+
+    TWO(2, "square") {
+        @Override
+        public double apply(double base) {
+            return square(base);
+        }
+    },
+
+    THREE(3, "cube") {
+        @Override
+        public double apply(double base) {
+            return cube(base);
+        }
+    },
+
+    FOUR(4, "fourthPower") {
+        @Override
+        public double apply(double base) {
+            return fourthPower(base);
+        }
+    },
+
+    MINUS_ONE(-1, "reciprocal") {
+        @Override
+        public double apply(double base) {
+            return reciprocal(base);
+        }
+    },
+
+    ONE_HALF(0.5, "squareRoot") {
+        @Override
+        public double apply(double base) {
+            return squareRoot(base);
+        }
+    };
+
+    private final double exponent;
+    private final String methodName;
+
+    ConstantPower(double exponent, String methodName) {
+        this.exponent = exponent;
+        this.methodName = methodName;
+    }
+
+    /**
+     * Returns the replacement for raising to the given exponent, or null if there is none.
+     */
+    public static ConstantPower of(double exponent) {
+        for(var power : values())
+            if(power.exponent == exponent)  // matches −0 to ZERO, as Math.pow treats them alike
+                return power;
+        return null;
+    }
+
+    /**
+     * Computes base to the power of exponent as every Wordy backend does: with the replacement for
+     * the exponent if there is one, and Math.pow otherwise.
+     */
+    public static double pow(double base, double exponent) {
+        var power = of(exponent);
+        return (power == null) ? Math.pow(base, exponent) : power.apply(base);
+    }
+
+    public double getExponent() {
+        return exponent;
+    }
+
+    /**
+     * The name of the static method in this class that applies this replacement, taking and
+     * returning a double. Compilers can call it directly.
+     */
+    public String getMethodName() {
+        return methodName;
+    }
+
+    /**
+     * Returns base to the power of this replacement’s exponent.
+     */
+    public abstract double apply(double base);
+
+    // –––––––––––– Implementations ––––––––––––
+
+    public static double one(double base) {
+        return 1;  // even for NaN
+    }
+
+    public static double identity(double base) {
+        return base;
+    }
+
+    public static double square(double base) {
+        return base * base;
+    }
+
+    public static double cube(double base) {
+        return base * base * base;
+    }
+
+    public static double fourthPower(double base) {
+        double square = base * base;
+        return square * square;
+    }
+
+    public static double reciprocal(double base) {
+        return 1 / base;
+    }
+
+    public static double squareRoot(double base) {
+        // Math.pow gives +∞ for −∞, where sqrt gives NaN; adding 0 turns sqrt(−0) = −0 into +0
+        if(base == Double.NEGATIVE_INFINITY)
+            return Double.POSITIVE_INFINITY;
+        return Math.sqrt(base) + 0.0;
+    }
+}
@@ -1,58 +1,254 @@
 package wordy.interpreter;
 
-import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
 
 import wordy.ast.ASTNode;
+import wordy.ast.VariableNode;
 
 /**
  * Holds the values of a Wordy program’s variables before, during, and after interpreted execution.
  * {@link wordy.ast.VariableNode}s read and write from this context.
  *
+ * Variables live in a flat array of slots (see {@link VariableSlots}). Execution engines that have
+ * resolved a program’s variables ahead of time can use the slot-based {@link #get(int)} and
+ * {@link #set(int, double)} on their hot path; the name-based methods remain available for hosts
+ * and for code that has not been resolved.
+ *
  * Also allows an optional Tracer, which receives notifications about the interpreter’s progress.
  * Tracing allows a debug UI to log program execution, and allows a UI to cancel execution early
- * by throwing an exception.
+ * by throwing an exception. Whether a context is traced is fixed when it is created: contexts
+ * created without a tracer are untraced, and the interpreter skips all tracing work for them,
+ * including boxing each expression’s result.
+ *
+ * An optional {@link ExecutionBudget} limits how long programs may run against this context, with
+ * or without a tracer.
  *
  * @see wordy.compiler.WordyExecutable.ExecutionContext for the compiler counterpart to this class
  */
 public class EvaluationContext {
-    private final Map<String,Double> variables = new LinkedHashMap<>();
-    private final Tracer tracer;
+    private final VariableSlots layout;  // the slots this context was created with
+    private VariableSlots slots;
+    // Copy-on-write flags. Volatile because fork() clears them from whichever thread forks, and the
+    // owner must see that before its next write, or it would write into storage a fork shares.
+    private volatile boolean ownsSlots;  // false until we first need to add a name to shared slots
+    private double[] values;
+    private volatile boolean ownsValues;  // false while values is shared with a fork or the context it came from
+    private final Tracer tracer;  // null if untraced
+    private ExecutionBudget budget;  // null if unlimited
+
+    /**
+     * Creates a traced context whose variables are laid out according to the given slots, which
+     * typically come from {@link VariableSlots#resolve(ASTNode)}. Many contexts may share the
+     * same slots.
+     */
+    public EvaluationContext(VariableSlots slots, Tracer tracer) {
+        this(slots, Objects.requireNonNull(tracer, "tracer"), false);
+    }
+
+    /**
+     * Creates an untraced context whose variables are laid out according to the given slots.
+     */
+    public EvaluationContext(VariableSlots slots) {
+        this(slots, null, false);
+    }
 
+    /**
+     * Creates a traced context with no variables resolved in advance.
+     */
     public EvaluationContext(Tracer tracer) {
-        this.tracer = tracer;
+        this(new VariableSlots(), Objects.requireNonNull(tracer, "tracer"), true);
     }
 
+    /**
+     * Creates an untraced context with no variables resolved in advance.
+     */
     public EvaluationContext() {
-        this((node, ctx, phase, result) -> { });
+        this(new VariableSlots(), null, true);
+    }
+
+    private EvaluationContext(VariableSlots slots, Tracer tracer, boolean ownsSlots) {
+        this.layout = slots;
+        this.slots = slots;
+        this.ownsSlots = ownsSlots;
+        this.values = new double[slots.size()];
+        this.ownsValues = true;
+        this.tracer = tracer;
+    }
+
+    private EvaluationContext(EvaluationContext base) {
+        this.layout = base.layout;
+        this.slots = base.slots;
+        this.ownsSlots = false;
+        this.values = base.values;
+        this.ownsValues = false;
+        this.tracer = base.tracer;
+    }
+
+    /**
+     * Returns a new context that starts with the same variables and values as this one, in
+     * constant time. The two contexts then evolve independently: each copies the shared storage
+     * the first time it writes a variable (or hands its slot array to an execution engine), so a
+     * change to one is never visible in the other.
+     *
+     * This makes it cheap to set up a common starting state once (for example, shared inputs and
+     * the results of a setup program), then fork it for many separate runs. Many threads may fork
+     * the same context at once, as long as nothing writes to it meanwhile. Forking does change
+     * this context’s own copy-on-write state: its next write copies the storage first, since the
+     * fork now shares it.
+     *
+     * The fork has the same tracer as this context, and no execution budget.
+     */
+    public EvaluationContext fork() {
+        ownsSlots = false;
+        ownsValues = false;
+        return new EvaluationContext(this);
     }
 
     /**
      * Returns the current value of the variable with the given name.
      */
     public double get(String name) {
-        Double result = variables.get(name);
-        return (result == null) ? 0 : result;
+        int slot = slots.slotOf(name);
+        return (slot < 0) ? 0 : values[slot];
     }
 
     /**
      * Changes the current value of the variable with the given name.
      */
     public void set(String name, double value) {
-        variables.put(name, value);
+        int slot = slotOf(name);  // may grow the array, so look it up first
+        set(slot, value);
+    }
+
+    /**
+     * Returns the slot that holds the variable with the given name, adding a new slot for it if
+     * necessary. Resolve names once with this method, then use {@link #get(int)} and
+     * {@link #set(int, double)} for repeated access.
+     */
+    public int slotOf(String name) {
+        int slot = slots.slotOf(name);
+        if(slot >= 0)
+            return slot;
+
+        if(!ownsSlots) {
+            slots = slots.copy();
+            ownsSlots = true;
+        }
+        slot = slots.add(name);
+        if(slot >= values.length) {
+            values = Arrays.copyOf(values, Math.max(slot + 1, values.length * 2));
+            ownsValues = true;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the current value of the variable in the given slot.
+     */
+    public double get(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * Changes the current value of the variable in the given slot.
+     */
+    public void set(int slot, double value) {
+        if(!ownsValues)
+            copyValues();
+        values[slot] = value;
+    }
+
+    private void copyValues() {
+        values = values.clone();
+        ownsValues = true;
+    }
+
+    /**
+     * Indicates whether this context was created with the given slots, i.e. whether code resolved
+     * against those slots can access this context’s variables by slot number.
+     */
+    public boolean hasLayout(VariableSlots slots) {
+        return layout == slots;
+    }
+
+    /**
+     * Indicates whether this context was created with the same slots as the given one, so that a
+     * slot number means the same variable in both.
+     */
+    public boolean hasSameLayout(EvaluationContext other) {
+        return layout == other.layout;
+    }
+
+    /**
+     * Direct access to the slot array, for execution engines that have resolved their program
+     * against this context’s layout (see {@link #hasLayout(VariableSlots)}). The array is only
+     * replaced when a new name is added, which resolved code never does, or when this context
+     * takes its own copy of storage shared with a {@link #fork()}, which happens here: callers
+     * may write to the returned array.
+     */
+    public double[] frame() {
+        if(!ownsValues)
+            copyValues();
+        return values;
     }
 
+    /**
+     * Returns a live, read-only view of all variables that have a slot in this context, except
+     * {@linkplain VariableNode#isInternal(String) internal} ones such as optimizer temporaries.
+     */
     public Map<String, Double> allVariables() {
-        return Collections.unmodifiableMap(variables);
+        return new VariablesView();
+    }
+
+    /**
+     * Limits how much work programs may do when run against this context, or removes the limit if
+     * null. See {@link ExecutionBudget} for details.
+     */
+    public void setExecutionBudget(ExecutionBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * The budget set with {@link #setExecutionBudget(ExecutionBudget)}, or null if there is none.
+     */
+    public ExecutionBudget getExecutionBudget() {
+        return budget;
+    }
+
+    /**
+     * Charges one loop iteration to this context’s budget, if it has one. Loops call this each
+     * time they finish their body and are about to repeat.
+     *
+     * @throws ExecutionBudgetExceeded if the budget has run out
+     */
+    public void loopIteration() {
+        if(budget != null)
+            budget.loopIteration();
+    }
+
+    /**
+     * Indicates whether this context has a tracer. The interpreter checks this once per node, and
+     * skips all tracing work if it is false.
+     */
+    public boolean isTraced() {
+        return tracer != null;
     }
 
     public void trace(ASTNode astNode, Tracer.Phase phase) {
-        tracer.traceNode(astNode, this, phase, null);
+        if(tracer != null)
+            tracer.traceNode(astNode, this, phase, null);
     }
 
     public void trace(ASTNode astNode, Tracer.Phase phase, Object result) {
-        tracer.traceNode(astNode, this, phase, result);
+        if(tracer != null)
+            tracer.traceNode(astNode, this, phase, result);
     }
 
     /**
@@ -63,4 +259,67 @@ public class EvaluationContext {
 
         enum Phase { STARTED, COMPLETED }
     }
+
+    /**
+     * The variables in slots, skipping {@linkplain VariableNode#isInternal(String) internal} ones.
+     */
+    private class VariablesView extends AbstractMap<String, Double> {
+        @Override
+        public Double get(Object key) {
+            int slot = slotOf(key);
+            return (slot < 0) ? null : values[slot];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return slotOf(key) >= 0;
+        }
+
+        private int slotOf(Object key) {
+            if(!(key instanceof String) || VariableNode.isInternal((String) key))
+                return -1;
+            return slots.slotOf((String) key);
+        }
+
+        @Override
+        public Set<Entry<String, Double>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    int size = 0;
+                    for(int slot = slots.firstNamedSlot(); slot < slots.size(); slot++)
+                        if(!VariableNode.isInternal(slots.nameOf(slot)))
+                            size++;
+                    return size;
+                }
+
+                @Override
+                public Iterator<Entry<String, Double>> iterator() {
+                    return new Iterator<>() {
+                        private int slot = nextVisibleSlot(slots.firstNamedSlot());
+
+                        @Override
+                        public boolean hasNext() {
+                            return slot < slots.size();
+                        }
+
+                        @Override
+                        public Entry<String, Double> next() {
+                            if(!hasNext())
+                                throw new NoSuchElementException();
+                            var entry = new SimpleImmutableEntry<>(slots.nameOf(slot), values[slot]);
+                            slot = nextVisibleSlot(slot + 1);
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
+
+        private int nextVisibleSlot(int slot) {
+            while(slot < slots.size() && VariableNode.isInternal(slots.nameOf(slot)))
+                slot++;
+            return slot;
+        }
+    }
 }
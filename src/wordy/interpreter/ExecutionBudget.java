@@ -0,0 +1,105 @@
+package wordy.interpreter;
+
+import java.time.Duration;
+
+/**
+ * Limits how much work a Wordy program may do before it is stopped: a number of loop iterations
+ * (“fuel”), a deadline, or both. A budget can also be cancelled at any time from another thread.
+ * This lets a host run untrusted programs, which may loop forever, without paying for per-node
+ * tracing.
+ *
+ * Every execution engine, and code generated by {@link wordy.compiler.WordyCompiler}, charges the
+ * budget one unit of fuel each time a loop finishes its body and is about to repeat. Straight-line
+ * code cannot run forever, so loop back-edges are the only place that needs a check. The check is
+ * a single decrement and compare; the deadline and cancellation are only examined once every
+ * {@link #CHECK_INTERVAL} iterations (or sooner, if the fuel is about to run out).
+ *
+ * When the budget runs out, the program stops by throwing {@link ExecutionBudgetExceeded} from
+ * the back-edge. Every statement before that point has completed, so all variables hold the values
+ * they had at the end of the last full loop iteration.
+ *
+ * A budget tracks usage across everything it is attached to, and is not thread-safe except for
+ * {@link #cancel()}. To give each run its own allowance, create a new budget per run.
+ */
+public final class ExecutionBudget {
+    /**
+     * The maximum number of loop iterations between checks of the deadline and cancellation.
+     */
+    public static final int CHECK_INTERVAL = 1024;
+
+    private long fuelNotYetIssued;
+    private int fuelUntilNextCheck;
+    private final long deadline;  // System.nanoTime() value; only meaningful if hasDeadline
+    private final boolean hasDeadline;
+    private volatile boolean cancelled;
+
+    private ExecutionBudget(long fuel, Duration timeLimit) {
+        if(fuel < 0)
+            throw new IllegalArgumentException("fuel must be non-negative, but was " + fuel);
+        hasDeadline = (timeLimit != null);
+        deadline = hasDeadline ? System.nanoTime() + timeLimit.toNanos() : 0;
+
+        fuelUntilNextCheck = (int) Math.min(CHECK_INTERVAL, fuel);
+        fuelNotYetIssued = fuel - fuelUntilNextCheck;
+    }
+
+    /**
+     * A budget with no limit on fuel or time, which stops a program only if cancelled.
+     */
+    public static ExecutionBudget unlimited() {
+        return new ExecutionBudget(Long.MAX_VALUE, null);
+    }
+
+    /**
+     * A budget that allows the given number of loop iterations in total.
+     */
+    public static ExecutionBudget ofIterations(long maxIterations) {
+        return new ExecutionBudget(maxIterations, null);
+    }
+
+    /**
+     * A budget that expires the given amount of time from now.
+     */
+    public static ExecutionBudget ofTime(Duration timeLimit) {
+        return new ExecutionBudget(Long.MAX_VALUE, timeLimit);
+    }
+
+    /**
+     * A budget that allows the given number of loop iterations, but expires the given amount of
+     * time from now even if fuel remains.
+     */
+    public static ExecutionBudget of(long maxIterations, Duration timeLimit) {
+        return new ExecutionBudget(maxIterations, timeLimit);
+    }
+
+    /**
+     * Causes programs using this budget to stop at their next check. Safe to call from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Charges one loop iteration to this budget.
+     *
+     * @throws ExecutionBudgetExceeded if the budget is used up, expired, or cancelled
+     */
+    public void loopIteration() {
+        if(--fuelUntilNextCheck < 0)
+            check();
+    }
+
+    private void check() {
+        fuelUntilNextCheck = 0;  // stays exhausted if we throw
+        if(cancelled)
+            throw new ExecutionBudgetExceeded(ExecutionBudgetExceeded.Reason.CANCELLED);
+        if(hasDeadline && System.nanoTime() - deadline >= 0)
+            throw new ExecutionBudgetExceeded(ExecutionBudgetExceeded.Reason.DEADLINE);
+        if(fuelNotYetIssued <= 0)
+            throw new ExecutionBudgetExceeded(ExecutionBudgetExceeded.Reason.FUEL);
+
+        int issued = (int) Math.min(CHECK_INTERVAL, fuelNotYetIssued);
+        fuelNotYetIssued -= issued;
+        fuelUntilNextCheck = issued - 1;  // this iteration uses one
+    }
+}
@@ -0,0 +1,32 @@
+package wordy.interpreter;
+
+/**
+ * Stops a Wordy program whose {@link ExecutionBudget} has run out. Thrown at a loop back-edge, so
+ * the program’s variables hold the values they had at the end of its last complete loop iteration.
+ */
+public class ExecutionBudgetExceeded extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final Reason reason;
+
+    public ExecutionBudgetExceeded(Reason reason) {
+        super(reason.description);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public enum Reason {
+        FUEL("Program exceeded its loop iteration budget"),
+        DEADLINE("Program exceeded its time budget"),
+        CANCELLED("Program was cancelled");
+
+        private final String description;
+
+        Reason(String description) {
+            this.description = description;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package wordy.interpreter;
+
+/**
+ * A Wordy program prepared for repeated interpreted execution by one of the
+ * {@link InterpreterEngine}s. To run it, use createContext() to create a context whose variable
+ * slots match the program, set any input variables, then call run().
+ */
+public interface InterpretedProgram {
+    EvaluationContext createContext();
+
+    EvaluationContext createContext(EvaluationContext.Tracer tracer);
+
+    /**
+     * Runs the program against the given context, which must come from this program’s
+     * createContext() method.
+     */
+    void run(EvaluationContext context);
+}
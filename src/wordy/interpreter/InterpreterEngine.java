@@ -0,0 +1,81 @@
+package wordy.interpreter;
+
+import wordy.ast.StatementNode;
+import wordy.vm.VmCompiler;
+
+/**
+ * The available strategies for interpreting a Wordy program. Choose one per program with
+ * {@link #prepare(StatementNode)}.
+ */
+public enum InterpreterEngine {
+    /**
+     * Walks the AST on every run through {@link StatementNode#run(EvaluationContext)}, reporting
+     * each step to the context’s tracer. Slowest, but the only engine that supports tracing.
+     */
+    TREE_WALKING {
+        @Override
+        public InterpretedProgram prepare(StatementNode program) {
+            var slots = VariableSlots.resolve(program);
+            return new InterpretedProgram() {
+                @Override
+                public EvaluationContext createContext() {
+                    return new EvaluationContext(slots);
+                }
+
+                @Override
+                public EvaluationContext createContext(EvaluationContext.Tracer tracer) {
+                    return new EvaluationContext(slots, tracer);
+                }
+
+                @Override
+                public void run(EvaluationContext context) {
+                    program.run(context);
+                }
+            };
+        }
+    },
+
+    /**
+     * Translates the AST once into a tree of specialized closures, then runs those.
+     * Does not report to tracers.
+     *
+     * @see ClosureCompiler
+     */
+    CLOSURES {
+        @Override
+        public InterpretedProgram prepare(StatementNode program) {
+            return ClosureCompiler.compile(program);
+        }
+    },
+
+    /**
+     * Walks a parallel execution tree whose nodes specialize themselves based on what they observe
+     * at run time. Does not report to tracers.
+     *
+     * @see SpecializingInterpreter
+     */
+    SELF_SPECIALIZING {
+        @Override
+        public InterpretedProgram prepare(StatementNode program) {
+            return SpecializingInterpreter.prepare(program);
+        }
+    },
+
+    /**
+     * Lowers the AST once to a flat array of register-based instructions, then runs those in a
+     * single dispatch loop. Does not report to tracers.
+     *
+     * @see VmCompiler
+     */
+    VM {
+        @Override
+        public InterpretedProgram prepare(StatementNode program) {
+            return VmCompiler.compile(program);
+        }
+    };
+
+    /**
+     * Does any one-time work this engine needs to run the given program.
+     */
+    public abstract InterpretedProgram prepare(StatementNode program);
+}
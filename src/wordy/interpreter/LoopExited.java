@@ -3,6 +3,17 @@ package wordy.interpreter;
 /**
  * Causes the Wordy interpreter to exit the current innermost nested loop.
  * Thrown by {@link wordy.ast.LoopExitNode}.
+ *
+ * This is control flow, not an error, so it does not capture a stack trace: throwing it costs
+ * about as much as unwinding the frames between the exit and its loop. It also carries no state,
+ * so the interpreter can throw the shared {@link #INSTANCE} instead of allocating a new one.
  */
 public class LoopExited extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public static final LoopExited INSTANCE = new LoopExited();
+
+    public LoopExited() {
+        super(null, null, false, false);
+    }
 }
@@ -0,0 +1,766 @@
+package wordy.interpreter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import wordy.ast.ASTNode;
+import wordy.ast.AssignmentNode;
+import wordy.ast.BinaryExpressionNode;
+import wordy.ast.BlockNode;
+import wordy.ast.ConditionalNode;
+import wordy.ast.ConstantNode;
+import wordy.ast.ExpressionNode;
+import wordy.ast.FusedNode;
+import wordy.ast.LoopExitNode;
+import wordy.ast.LoopNode;
+import wordy.ast.StatementNode;
+import wordy.ast.VariableNode;
+
+/**
+ * A tree-walking interpreter whose nodes rewrite themselves into faster, specialized versions based
+ * on what they observe while the program runs, in the style of Truffle’s self-optimizing ASTs.
+ *
+ * The Wordy AST itself is immutable and may be shared, compared, and used as a map key, so this
+ * interpreter never modifies it. Instead, it runs a parallel tree of execution {@link Node}s, each
+ * of which remembers the AST node it came from. An execution node may {@linkplain Node#replace
+ * replace} itself in its parent with a specialization, guarded by an assumption about what it has
+ * seen so far. If a later run breaks that assumption, the specialized node
+ * {@linkplain Node#deoptimize deoptimizes}: it replaces itself with a general version that never
+ * specializes again, and carries on. The AST’s equals(), hashCode() and dump() are unaffected by
+ * any of this; {@link Program#dump()} shows the current state of the execution tree.
+ *
+ * Current specializations:
+ * <ul>
+ * <li> Binary expressions become a node for their specific operator on first execution.
+ * <li> Exponentiation whose exponent is always 2 becomes a multiplication.
+ * <li> A conditional that has only ever taken one branch becomes a node containing only that
+ *      branch, with the other branch reachable only through deoptimization.
+ * <li> Variable reads and writes resolve their slot on first execution and cache it.
+ * </ul>
+ *
+ * Fused nodes (see {@link wordy.optimizer.SuperinstructionFusion}) run as their unfused form, since
+ * specialization achieves much the same effect at run time.
+ *
+ * Because a prepared program rewrites itself as it runs, do not run the same prepared program on
+ * multiple threads at once. Execution does not trace.
+ */
+public final class SpecializingInterpreter {
+    /**
+     * The number of times a conditional runs before it commits to a branch profile.
+     */
+    static final int CONDITIONAL_PROFILE_RUNS = 1000;
+
+    /**
+     * Builds the (as yet unspecialized) execution tree for the given program.
+     */
+    public static Program prepare(StatementNode program) {
+        var slots = VariableSlots.resolve(program);
+        return new Program(slots, new SpecializingInterpreter(slots).statement(program));
+    }
+
+    private final VariableSlots slots;
+
+    private SpecializingInterpreter(VariableSlots slots) {
+        this.slots = slots;
+    }
+
+    private Statement statement(StatementNode node) {
+        if(node instanceof AssignmentNode) {
+            var assignment = (AssignmentNode) node;
+            return new UnresolvedAssignment(
+                assignment, assignment.getVariable().getName(), expression(assignment.getExpression()));
+        }
+        if(node instanceof BlockNode) {
+            var block = (BlockNode) node;
+            return new Block(block, block.getStatements().stream()
+                .map(this::statement)
+                .toArray(Statement[]::new));
+        }
+        if(node instanceof ConditionalNode) {
+            var conditional = (ConditionalNode) node;
+            return new ProfilingConditional(
+                conditional,
+                expression(conditional.getLhs()),
+                expression(conditional.getRhs()),
+                statement(conditional.getIfTrue()),
+                statement(conditional.getIfFalse()));
+        }
+        if(node instanceof LoopNode)
+            return new Loop((LoopNode) node, statement(((LoopNode) node).getBody()));
+        if(node instanceof LoopExitNode)
+            return new Exit(node);
+        if(node instanceof FusedNode)
+            return statement((StatementNode) ((FusedNode) node).unfused());
+        throw unsupported(node);
+    }
+
+    private Expression expression(ExpressionNode node) {
+        if(node instanceof ConstantNode)
+            return new Constant((ConstantNode) node);
+        if(node instanceof VariableNode)
+            return new UnresolvedRead((VariableNode) node);
+        if(node instanceof BinaryExpressionNode) {
+            var binary = (BinaryExpressionNode) node;
+            return new UninitializedBinary(binary, expression(binary.getLhs()), expression(binary.getRhs()));
+        }
+        if(node instanceof FusedNode)
+            return expression((ExpressionNode) ((FusedNode) node).unfused());
+        throw unsupported(node);
+    }
+
+    private static Map<String, Node> orderedMap(Object... keysAndNodes) {
+        var result = new LinkedHashMap<String, Node>();
+        for(int n = 0; n < keysAndNodes.length; n += 2)
+            result.put((String) keysAndNodes[n], (Node) keysAndNodes[n + 1]);
+        return result;
+    }
+
+    private static UnsupportedOperationException unsupported(ASTNode node) {
+        return new UnsupportedOperationException(
+            "Specializing interpreter not implemented for " + node.getClass().getSimpleName());
+    }
+
+    // –––––––––––– Rewriting protocol ––––––––––––
+
+    /**
+     * A node in the execution tree. Each node knows the AST node it executes, and its parent in the
+     * execution tree, so that it can swap itself out for a different implementation.
+     */
+    abstract static class Node {
+        private final ASTNode source;
+        private Node parent;
+
+        Node(ASTNode source) {
+            this.source = source;
+        }
+
+        /**
+         * The AST node this execution node implements.
+         */
+        final ASTNode getSource() {
+            return source;
+        }
+
+        /**
+         * Makes this node the parent of the given child, and returns the child.
+         */
+        final <T extends Node> T adopt(T child) {
+            ((Node) child).parent = this;
+            return child;
+        }
+
+        /**
+         * Replaces this node in its parent with the given node, which must implement the same AST
+         * node. Returns the replacement, so that callers can continue executing with it.
+         */
+        final <T extends Node> T replace(T replacement) {
+            if(((Node) replacement).source != source)
+                throw new IllegalArgumentException("Replacement implements a different AST node");
+            parent.replaceChild(this, parent.adopt(replacement));
+            return replacement;
+        }
+
+        /**
+         * Replaces this specialized node with a general version after one of its assumptions
+         * failed. Identical to replace(); named separately to make intent clear at call sites.
+         */
+        final <T extends Node> T deoptimize(T general) {
+            return replace(general);
+        }
+
+        /**
+         * Swaps one of this node’s children for a replacement.
+         */
+        abstract void replaceChild(Node oldChild, Node newChild);
+
+        /**
+         * This node’s children, for dump(). Keys match the source AST node’s getChildren().
+         */
+        abstract Map<String, Node> children();
+
+        final void dump(StringBuilder out, String indent, String label) {
+            out.append(indent);
+            if(label != null)
+                out.append(label).append(": ");
+            out.append(getClass().getSimpleName())
+                .append(" ← ")
+                .append(source.getClass().getSimpleName())
+                .append('\n');
+            for(var child : children().entrySet())
+                child.getValue().dump(out, indent + "  ", child.getKey());
+        }
+    }
+
+    abstract static class Expression extends Node {
+        Expression(ASTNode source) {
+            super(source);
+        }
+
+        abstract double execute(double[] frame);
+
+        @Override
+        void replaceChild(Node oldChild, Node newChild) {
+            throw new IllegalStateException(getClass().getSimpleName() + " has no children");
+        }
+
+        @Override
+        Map<String, Node> children() {
+            return Map.of();
+        }
+    }
+
+    abstract static class Statement extends Node {
+        Statement(ASTNode source) {
+            super(source);
+        }
+
+        /**
+         * Runs the statement, and returns true if it exited the innermost enclosing loop. Loops
+         * charge each iteration to the budget, unless it is null.
+         */
+        abstract boolean execute(double[] frame, ExecutionBudget budget);
+    }
+
+    // –––––––––––– Program ––––––––––––
+
+    /**
+     * A program prepared for the specializing interpreter. The root of the execution tree.
+     */
+    public static final class Program extends Node implements InterpretedProgram {
+        private final VariableSlots slots;
+        private Statement body;
+
+        Program(VariableSlots slots, Statement body) {
+            super(body.getSource());
+            this.slots = slots;
+            this.body = adopt(body);
+        }
+
+        @Override
+        public EvaluationContext createContext() {
+            return new EvaluationContext(slots);
+        }
+
+        @Override
+        public EvaluationContext createContext(EvaluationContext.Tracer tracer) {
+            return new EvaluationContext(slots, tracer);  // never calls the tracer
+        }
+
+        @Override
+        public void run(EvaluationContext context) {
+            if(!context.hasLayout(slots))
+                throw new IllegalArgumentException("Context was not created by this program");
+            if(body.execute(context.frame(), context.getExecutionBudget()))
+                throw LoopExited.INSTANCE;
+        }
+
+        /**
+         * Describes the execution tree as it currently stands: which implementation each node of
+         * the program has specialized to so far.
+         */
+        public String dump() {
+            var out = new StringBuilder();
+            body.dump(out, "", null);
+            return out.toString();
+        }
+
+        @Override
+        void replaceChild(Node oldChild, Node newChild) {
+            body = (Statement) newChild;
+        }
+
+        @Override
+        Map<String, Node> children() {
+            return Map.of("body", body);
+        }
+
+        int slotOf(String name) {
+            return slots.slotOf(name);
+        }
+    }
+
+    // –––––––––––– Variables ––––––––––––
+
+    /**
+     * Walks up to the root to find the program’s slot for the given name.
+     */
+    private static int resolveSlot(Node node, String name) {
+        Node root = node;
+        while(root.parent != null)
+            root = root.parent;
+        return ((Program) root).slotOf(name);
+    }
+
+    static final class UnresolvedRead extends Expression {
+        UnresolvedRead(VariableNode source) {
+            super(source);
+        }
+
+        @Override
+        double execute(double[] frame) {
+            String name = ((VariableNode) getSource()).getName();
+            return replace(new SlotRead(getSource(), resolveSlot(this, name))).execute(frame);
+        }
+    }
+
+    static final class SlotRead extends Expression {
+        private final int slot;
+
+        SlotRead(ASTNode source, int slot) {
+            super(source);
+            this.slot = slot;
+        }
+
+        @Override
+        double execute(double[] frame) {
+            return frame[slot];
+        }
+    }
+
+    static final class Constant extends Expression {
+        private final double value;
+
+        Constant(ConstantNode source) {
+            super(source);
+            this.value = source.getValue();
+        }
+
+        @Override
+        double execute(double[] frame) {
+            return value;
+        }
+    }
+
+    // –––––––––––– Binary expressions ––––––––––––
+
+    abstract static class Binary extends Expression {
+        Expression lhs, rhs;
+
+        Binary(ASTNode source, Expression lhs, Expression rhs) {
+            super(source);
+            this.lhs = adopt(lhs);
+            this.rhs = adopt(rhs);
+        }
+
+        @Override
+        final void replaceChild(Node oldChild, Node newChild) {
+            if(oldChild == lhs)
+                lhs = (Expression) newChild;
+            else if(oldChild == rhs)
+                rhs = (Expression) newChild;
+            else
+                throw new IllegalArgumentException("Not a child: " + oldChild);
+        }
+
+        @Override
+        final Map<String, Node> children() {
+            return orderedMap("lhs", lhs, "rhs", rhs);
+        }
+    }
+
+    /**
+     * Chooses an operator-specific node on first execution.
+     */
+    static final class UninitializedBinary extends Binary {
+        UninitializedBinary(BinaryExpressionNode source, Expression lhs, Expression rhs) {
+            super(source, lhs, rhs);
+        }
+
+        @Override
+        double execute(double[] frame) {
+            return replace(specialize()).execute(frame);
+        }
+
+        private Binary specialize() {
+            var source = (BinaryExpressionNode) getSource();
+            switch(source.getOperator()) {
+                case ADDITION:       return new Add(source, lhs, rhs);
+                case SUBTRACTION:    return new Subtract(source, lhs, rhs);
+                case MULTIPLICATION: return new Multiply(source, lhs, rhs);
+                case DIVISION:       return new Divide(source, lhs, rhs);
+                case EXPONENTIATION:
+                    if(source.getRhs().equals(new ConstantNode(2)))
+                        return new Square(source, lhs, rhs);
+                    if(source.getRhs() instanceof ConstantNode) {
+                        var power = ConstantPower.of(((ConstantNode) source.getRhs()).getValue());
+                        if(power != null)
+                            return new ReducedPower(source, lhs, rhs, power);
+                        return new Power(source, lhs, rhs);
+                    }
+                    return new SquareIfExponentIsTwo(source, lhs, rhs);
+            }
+            throw new IllegalArgumentException("Unknown binary operator: " + source.getOperator());
+        }
+    }
+
+    static final class Add extends Binary {
+        Add(ASTNode source, Expression lhs, Expression rhs) {
+            super(source, lhs, rhs);
+        }
+
+        @Override
+        double execute(double[] frame) {
+            return lhs.execute(frame) + rhs.execute(frame);
+        }
+    }
+
+    static final class Subtract extends Binary {
+        Subtract(ASTNode source, Expression lhs, Expression rhs) {
+            super(source, lhs, rhs);
+        }
+
+        @Override
+        double execute(double[] frame) {
+            return lhs.execute(frame) - rhs.execute(frame);
+        }
+    }
+
+    static final class Multiply extends Binary {
+        Multiply(ASTNode source, Expression lhs, Expression rhs) {
+            super(source, lhs, rhs);
+        }
+
+        @Override
+        double execute(double[] frame) {
+            return lhs.execute(frame) * rhs.execute(frame);
+        }
+    }
+
+    static final class Divide extends Binary {
+        Divide(ASTNode source, Expression lhs, Expression rhs) {
+            super(source, lhs, rhs);
+        }
+
+        @Override
+        double execute(double[] frame) {
+            return lhs.execute(frame) / rhs.execute(frame);
+        }
+    }
+
+    /**
+     * Exponentiation whose exponent is the constant 2. Math.pow(x, 2) is exactly x * x, so this
+     * needs no guard.
+     */
+    static final class Square extends Binary {
+        Square(ASTNode source, Expression lhs, Expression rhs) {
+            super(source, lhs, rhs);
+        }
+
+        @Override
+        double execute(double[] frame) {
+            double base = lhs.execute(frame);
+            return base * base;
+        }
+    }
+
+    /**
+     * Exponentiation whose exponent is computed, but has been 2 every time so far.
+     */
+    static final class SquareIfExponentIsTwo extends Binary {
+        SquareIfExponentIsTwo(ASTNode source, Expression lhs, Expression rhs) {
+            super(source, lhs, rhs);
+        }
+
+        @Override
+        double execute(double[] frame) {
+            double base = lhs.execute(frame);
+            double exponent = rhs.execute(frame);
+            if(exponent != 2)
+                return deoptimize(new Power(getSource(), lhs, rhs)).apply(base, exponent);
+            return base * base;
+        }
+    }
+
+    /**
+     * Exponentiation whose exponent is a constant with a cheaper {@link ConstantPower} replacement.
+     */
+    static final class ReducedPower extends Binary {
+        private final ConstantPower power;
+
+        ReducedPower(ASTNode source, Expression lhs, Expression rhs, ConstantPower power) {
+            super(source, lhs, rhs);
+            this.power = power;
+        }
+
+        @Override
+        double execute(double[] frame) {
+            return power.apply(lhs.execute(frame));
+        }
+    }
+
+    static final class Power extends Binary {
+        Power(ASTNode source, Expression lhs, Expression rhs) {
+            super(source, lhs, rhs);
+        }
+
+        @Override
+        double execute(double[] frame) {
+            return apply(lhs.execute(frame), rhs.execute(frame));
+        }
+
+        double apply(double base, double exponent) {
+            return Math.pow(base, exponent);
+        }
+    }
+
+    // –––––––––––– Statements ––––––––––––
+
+    static final class UnresolvedAssignment extends Statement {
+        private Expression expression;
+        private final String name;
+
+        UnresolvedAssignment(AssignmentNode source, String name, Expression expression) {
+            super(source);
+            this.name = name;
+            this.expression = adopt(expression);
+        }
+
+        @Override
+        boolean execute(double[] frame, ExecutionBudget budget) {
+            return replace(new SlotAssignment(getSource(), resolveSlot(this, name), expression))
+                .execute(frame, budget);
+        }
+
+        @Override
+        void replaceChild(Node oldChild, Node newChild) {
+            expression = (Expression) newChild;
+        }
+
+        @Override
+        Map<String, Node> children() {
+            return Map.of("rhs", expression);
+        }
+    }
+
+    static final class SlotAssignment extends Statement {
+        private Expression expression;
+        private final int slot;
+
+        SlotAssignment(ASTNode source, int slot, Expression expression) {
+            super(source);
+            this.slot = slot;
+            this.expression = adopt(expression);
+        }
+
+        @Override
+        boolean execute(double[] frame, ExecutionBudget budget) {
+            frame[slot] = expression.execute(frame);
+            return false;
+        }
+
+        @Override
+        void replaceChild(Node oldChild, Node newChild) {
+            expression = (Expression) newChild;
+        }
+
+        @Override
+        Map<String, Node> children() {
+            return Map.of("rhs", expression);
+        }
+    }
+
+    static final class Block extends Statement {
+        private final Statement[] statements;
+
+        Block(ASTNode source, Statement[] statements) {
+            super(source);
+            this.statements = statements;
+            for(var statement : statements)
+                adopt(statement);
+        }
+
+        @Override
+        boolean execute(double[] frame, ExecutionBudget budget) {
+            for(Statement statement : statements)
+                if(statement.execute(frame, budget))
+                    return true;
+            return false;
+        }
+
+        @Override
+        void replaceChild(Node oldChild, Node newChild) {
+            for(int n = 0; n < statements.length; n++)
+                if(statements[n] == oldChild)
+                    statements[n] = (Statement) newChild;
+        }
+
+        @Override
+        Map<String, Node> children() {
+            var result = new LinkedHashMap<String, Node>();
+            for(int n = 0; n < statements.length; n++)
+                result.put(String.valueOf(n), statements[n]);
+            return result;
+        }
+    }
+
+    static final class Loop extends Statement {
+        private Statement body;
+
+        Loop(LoopNode source, Statement body) {
+            super(source);
+            this.body = adopt(body);
+        }
+
+        @Override
+        boolean execute(double[] frame, ExecutionBudget budget) {
+            while(!body.execute(frame, budget)) {
+                if(budget != null)
+                    budget.loopIteration();
+            }
+            return false;
+        }
+
+        @Override
+        void replaceChild(Node oldChild, Node newChild) {
+            body = (Statement) newChild;
+        }
+
+        @Override
+        Map<String, Node> children() {
+            return Map.of("body", body);
+        }
+    }
+
+    static final class Exit extends Statement {
+        Exit(ASTNode source) {
+            super(source);
+        }
+
+        @Override
+        boolean execute(double[] frame, ExecutionBudget budget) {
+            return true;
+        }
+
+        @Override
+        void replaceChild(Node oldChild, Node newChild) {
+            throw new IllegalStateException("Exit has no children");
+        }
+
+        @Override
+        Map<String, Node> children() {
+            return Map.of();
+        }
+    }
+
+    // –––––––––––– Conditionals ––––––––––––
+
+    abstract static class Conditional extends Statement {
+        private final ConditionalNode.Operator operator;
+        Expression lhs, rhs;
+        Statement ifTrue, ifFalse;
+
+        Conditional(ASTNode source, Expression lhs, Expression rhs, Statement ifTrue, Statement ifFalse) {
+            super(source);
+            this.operator = ((ConditionalNode) source).getOperator();
+            this.lhs = adopt(lhs);
+            this.rhs = adopt(rhs);
+            this.ifTrue = adopt(ifTrue);
+            this.ifFalse = adopt(ifFalse);
+        }
+
+        final boolean test(double[] frame) {
+            double a = lhs.execute(frame), b = rhs.execute(frame);
+            switch(operator) {
+                case EQUALS:       return a == b;
+                case LESS_THAN:    return a <  b;
+                case GREATER_THAN: return a >  b;
+            }
+            throw new IllegalStateException("Unknown comparison operator: " + operator);
+        }
+
+        @Override
+        final void replaceChild(Node oldChild, Node newChild) {
+            if(oldChild == lhs)
+                lhs = (Expression) newChild;
+            else if(oldChild == rhs)
+                rhs = (Expression) newChild;
+            else if(oldChild == ifTrue)
+                ifTrue = (Statement) newChild;
+            else if(oldChild == ifFalse)
+                ifFalse = (Statement) newChild;
+            else
+                throw new IllegalArgumentException("Not a child: " + oldChild);
+        }
+
+        @Override
+        final Map<String, Node> children() {
+            return orderedMap("lhs", lhs, "rhs", rhs, "ifTrue", ifTrue, "ifFalse", ifFalse);
+        }
+    }
+
+    /**
+     * Counts which branches run, then commits to a specialization.
+     */
+    static final class ProfilingConditional extends Conditional {
+        private int trueCount, falseCount;
+
+        ProfilingConditional(ConditionalNode source, Expression lhs, Expression rhs, Statement ifTrue, Statement ifFalse) {
+            super(source, lhs, rhs, ifTrue, ifFalse);
+        }
+
+        @Override
+        boolean execute(double[] frame, ExecutionBudget budget) {
+            boolean result = test(frame);
+            if(result)
+                trueCount++;
+            else
+                falseCount++;
+
+            if(trueCount + falseCount >= CONDITIONAL_PROFILE_RUNS) {
+                if(falseCount == 0)
+                    replace(new OnlyTrueBranch(getSource(), lhs, rhs, ifTrue, ifFalse));
+                else if(trueCount == 0)
+                    replace(new OnlyFalseBranch(getSource(), lhs, rhs, ifTrue, ifFalse));
+                else
+                    replace(new BothBranches(getSource(), lhs, rhs, ifTrue, ifFalse));
+            }
+
+            return result ? ifTrue.execute(frame, budget) : ifFalse.execute(frame, budget);
+        }
+    }
+
+    /**
+     * A conditional that has always taken its true branch. The false branch is off the fast path.
+     */
+    static final class OnlyTrueBranch extends Conditional {
+        OnlyTrueBranch(ASTNode source, Expression lhs, Expression rhs, Statement ifTrue, Statement ifFalse) {
+            super(source, lhs, rhs, ifTrue, ifFalse);
+        }
+
+        @Override
+        boolean execute(double[] frame, ExecutionBudget budget) {
+            if(test(frame))
+                return ifTrue.execute(frame, budget);
+            return deoptimize(new BothBranches(getSource(), lhs, rhs, ifTrue, ifFalse))
+                .ifFalse.execute(frame, budget);
+        }
+    }
+
+    /**
+     * A conditional that has always taken its false branch. The true branch is off the fast path.
+     */
+    static final class OnlyFalseBranch extends Conditional {
+        OnlyFalseBranch(ASTNode source, Expression lhs, Expression rhs, Statement ifTrue, Statement ifFalse) {
+            super(source, lhs, rhs, ifTrue, ifFalse);
+        }
+
+        @Override
+        boolean execute(double[] frame, ExecutionBudget budget) {
+            if(!test(frame))
+                return ifFalse.execute(frame, budget);
+            return deoptimize(new BothBranches(getSource(), lhs, rhs, ifTrue, ifFalse))
+                .ifTrue.execute(frame, budget);
+        }
+    }
+
+    static final class BothBranches extends Conditional {
+        BothBranches(ASTNode source, Expression lhs, Expression rhs, Statement ifTrue, Statement ifFalse) {
+            super(source, lhs, rhs, ifTrue, ifFalse);
+        }
+
+        @Override
+        boolean execute(double[] frame, ExecutionBudget budget) {
+            return test(frame) ? ifTrue.execute(frame, budget) : ifFalse.execute(frame, budget);
+        }
+    }
+}
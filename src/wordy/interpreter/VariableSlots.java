@@ -0,0 +1,125 @@
+package wordy.interpreter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import wordy.ast.ASTNode;
+import wordy.ast.VariableNode;
+
+/**
+ * Assigns each distinct variable name in a Wordy program a fixed integer slot. An
+ * {@link EvaluationContext} built from these slots stores variable values in a flat
+ * {@code double[]}, so the interpreter can read and write variables by index instead of looking
+ * them up by name.
+ *
+ * Slots are numbered in the order their variables first appear in the program. Names that are not
+ * in the program can still be added later (e.g. by a host setting an extra input variable); they
+ * receive the next free slot, and existing slot numbers never change.
+ *
+ * An execution engine may also reserve a number of unnamed slots at the start of the array for its
+ * own scratch values, such as temporaries. Reserved slots are not variables: they have no name,
+ * and do not appear in {@link EvaluationContext#allVariables()}. Neither do
+ * {@linkplain VariableNode#isInternal(String) internal} variables, although they do have slots.
+ */
+public final class VariableSlots {
+    private final Map<String,Integer> slotsByName;
+    private final List<String> names;
+    private final int reservedSlots;
+
+    /**
+     * Creates an empty set of slots, to which names can be added on demand.
+     */
+    public VariableSlots() {
+        this(0);
+    }
+
+    private VariableSlots(int reservedSlots) {
+        slotsByName = new HashMap<>();
+        names = new ArrayList<>();
+        this.reservedSlots = reservedSlots;
+    }
+
+    private VariableSlots(VariableSlots original) {
+        slotsByName = new HashMap<>(original.slotsByName);
+        names = new ArrayList<>(original.names);
+        reservedSlots = original.reservedSlots;
+    }
+
+    /**
+     * Resolves every variable used in the given program to a slot. Call this once per program, and
+     * share the result among all the contexts that run it.
+     */
+    public static VariableSlots resolve(ASTNode program) {
+        return resolve(program, 0);
+    }
+
+    /**
+     * Resolves every variable used in the given program to a slot, after first reserving the given
+     * number of unnamed slots (numbered from 0) for the caller’s own use.
+     */
+    public static VariableSlots resolve(ASTNode program, int reservedSlots) {
+        var result = new VariableSlots(reservedSlots);
+        result.addAllVariables(program);
+        return result;
+    }
+
+    private void addAllVariables(ASTNode node) {
+        if(node instanceof VariableNode)
+            add(((VariableNode) node).getName());
+        for(var child : node.getChildren().values())
+            addAllVariables(child);
+    }
+
+    /**
+     * Returns the slot for the given variable name, or -1 if the name has no slot.
+     */
+    public int slotOf(String name) {
+        Integer slot = slotsByName.get(name);
+        return (slot == null) ? -1 : slot;
+    }
+
+    /**
+     * Returns the variable name stored in the given slot, or null if it is a reserved slot.
+     */
+    public String nameOf(int slot) {
+        return (slot < reservedSlots) ? null : names.get(slot - reservedSlots);
+    }
+
+    /**
+     * The number of slots, i.e. the size of the array needed to hold all the variables and any
+     * reserved slots.
+     */
+    public int size() {
+        return reservedSlots + names.size();
+    }
+
+    /**
+     * The first slot that holds a variable. All slots before it are reserved.
+     */
+    public int firstNamedSlot() {
+        return reservedSlots;
+    }
+
+    /**
+     * Returns the slot for the given name, giving it a new slot if it does not already have one.
+     */
+    int add(String name) {
+        Integer slot = slotsByName.get(name);
+        if(slot != null)
+            return slot;
+        slot = size();
+        slotsByName.put(name, slot);
+        names.add(name);
+        return slot;
+    }
+
+    /**
+     * Returns an independent copy, so that a context can add names without affecting other
+     * contexts that share the original.
+     */
+    VariableSlots copy() {
+        return new VariableSlots(this);
+    }
+}
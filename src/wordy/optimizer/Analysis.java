@@ -0,0 +1,92 @@
+package wordy.optimizer;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import wordy.ast.ASTNode;
+import wordy.ast.AssignmentNode;
+import wordy.ast.BinaryExpressionNode;
+import wordy.ast.BlockNode;
+import wordy.ast.ConditionalNode;
+import wordy.ast.ExpressionNode;
+import wordy.ast.FusedNode;
+import wordy.ast.LoopNode;
+import wordy.ast.StatementNode;
+import wordy.ast.VariableNode;
+
+/**
+ * Facts about AST subtrees that several optimization passes need.
+ */
+final class Analysis {
+    /**
+     * The names of all variables that the given node reads or writes.
+     */
+    static Set<String> variableNames(ASTNode node) {
+        var result = new HashSet<String>();
+        for(VariableNode variable : node.findAllVariables())
+            result.add(variable.getName());
+        return result;
+    }
+
+    /**
+     * The names of all variables that the given node, or any statement inside it, may assign.
+     */
+    static Set<String> assignedVariables(ASTNode node) {
+        var result = new HashSet<String>();
+        addAssignedVariables(node, result);
+        return result;
+    }
+
+    private static void addAssignedVariables(ASTNode node, Set<String> result) {
+        if(node instanceof FusedNode)
+            node = ((FusedNode) node).unfused();
+        if(node instanceof AssignmentNode)
+            result.add(((AssignmentNode) node).getVariable().getName());
+        for(var child : node.getChildren().values())
+            addAssignedVariables(child, result);
+    }
+
+    /**
+     * Returns a copy of the given program with every fused node replaced by its unfused form, so
+     * that passes only need to understand the basic nodes the parser produces.
+     */
+    static StatementNode unfused(StatementNode node) {
+        if(node instanceof FusedNode)
+            return unfused((StatementNode) ((FusedNode) node).unfused());
+        if(node instanceof AssignmentNode) {
+            var assignment = (AssignmentNode) node;
+            return new AssignmentNode(assignment.getVariable(), unfused(assignment.getExpression()));
+        }
+        if(node instanceof BlockNode) {
+            return new BlockNode(
+                ((BlockNode) node).getStatements().stream()
+                    .map(Analysis::unfused)
+                    .collect(Collectors.toList()));
+        }
+        if(node instanceof ConditionalNode) {
+            var conditional = (ConditionalNode) node;
+            return new ConditionalNode(
+                conditional.getOperator(),
+                unfused(conditional.getLhs()),
+                unfused(conditional.getRhs()),
+                unfused(conditional.getIfTrue()),
+                unfused(conditional.getIfFalse()));
+        }
+        if(node instanceof LoopNode)
+            return new LoopNode(unfused(((LoopNode) node).getBody()));
+        return node;  // LoopExitNode
+    }
+
+    private static ExpressionNode unfused(ExpressionNode node) {
+        if(node instanceof FusedNode)
+            return unfused((ExpressionNode) ((FusedNode) node).unfused());
+        if(node instanceof BinaryExpressionNode) {
+            var binary = (BinaryExpressionNode) node;
+            return new BinaryExpressionNode(binary.getOperator(), unfused(binary.getLhs()), unfused(binary.getRhs()));
+        }
+        return node;
+    }
+
+    private Analysis() { }
+}
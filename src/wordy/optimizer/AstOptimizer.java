@@ -0,0 +1,21 @@
+package wordy.optimizer;
+
+import wordy.ast.StatementNode;
+
+/**
+ * Runs all of the AST optimization passes that preserve a program’s exact results, in the order
+ * that lets each benefit from the last: {@link ConstantFolding}, then
+ * {@link CommonSubexpressionElimination}, then {@link DeadStoreElimination}. The result is an
+ * ordinary AST that every interpreter engine and compiler can run. To also fuse superinstructions,
+ * apply {@link SuperinstructionFusion} to the result.
+ */
+public final class AstOptimizer {
+    public static StatementNode optimize(StatementNode program) {
+        program = ConstantFolding.fold(program);
+        program = CommonSubexpressionElimination.eliminate(program);
+        program = DeadStoreElimination.eliminate(program);
+        return program;
+    }
+
+    private AstOptimizer() { }
+}
@@ -0,0 +1,227 @@
+package wordy.optimizer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import wordy.ast.ASTNode;
+import wordy.ast.AssignmentNode;
+import wordy.ast.BinaryExpressionNode;
+import wordy.ast.BlockNode;
+import wordy.ast.ConditionalNode;
+import wordy.ast.ExpressionNode;
+import wordy.ast.LoopNode;
+import wordy.ast.StatementNode;
+import wordy.ast.VariableNode;
+
+/**
+ * Computes each repeated operation once, and reuses its result for as long as none of its inputs
+ * change:
+ * <ul>
+ * <li> After “Set a to e,” later occurrences of e become reads of a, until e’s inputs or a change.
+ *      This carries into conditional branches and, when the loop never changes e’s inputs or a,
+ *      into loop bodies.
+ * <li> An operation that appears more than once in a straight run of statements, with no change
+ *      to its inputs in between, is assigned once to a new temporary variable. Temporaries are
+ *      named {@value #TEMPORARY_PREFIX}1, {@value #TEMPORARY_PREFIX}2, and so on; the “$” keeps
+ *      them from colliding with any name Wordy source can contain, and marks them as
+ *      {@linkplain VariableNode#isInternal(String) internal}, so they are hidden from the host
+ *      and {@link DeadStoreElimination} treats them as dead once the program finishes.
+ * </ul>
+ * Wordy expressions have no side effects, so evaluating an operation earlier or fewer times does
+ * not change the result. Fused nodes are replaced by their unfused form.
+ */
+public final class CommonSubexpressionElimination {
+    public static final String TEMPORARY_PREFIX = "$cse_";
+
+    private int temporaryCount;
+
+    /**
+     * Returns a copy of the given program that computes repeated operations only once.
+     */
+    public static StatementNode eliminate(StatementNode program) {
+        return new CommonSubexpressionElimination().statement(Analysis.unfused(program), new HashMap<>());
+    }
+
+    private CommonSubexpressionElimination() { }
+
+    /**
+     * Rewrites a statement, given the operations whose results are available in variables when it
+     * starts. Updates that map to describe what is available after the statement.
+     */
+    private StatementNode statement(StatementNode node, Map<ExpressionNode, VariableNode> available) {
+        if(node instanceof BlockNode)
+            return new BlockNode(block(((BlockNode) node).getStatements(), available));
+        var result = block(List.of(node), available);
+        return result.size() == 1 ? result.get(0) : new BlockNode(result);
+    }
+
+    private List<StatementNode> block(List<StatementNode> statements, Map<ExpressionNode, VariableNode> available) {
+        var results = new ArrayList<StatementNode>();
+        for(int index = 0; index < statements.size(); index++) {
+            var node = statements.get(index);
+
+            if(node instanceof AssignmentNode) {
+                var assignment = (AssignmentNode) node;
+                var variable = assignment.getVariable();
+                var rhs = assignment.getExpression();
+
+                // If the variable will hold the whole expression, later uses can read it instead
+                boolean holdsRhs =
+                    rhs instanceof BinaryExpressionNode
+                    && !Analysis.variableNames(rhs).contains(variable.getName());
+
+                introduceTemporaries(statements, index, List.of(rhs), holdsRhs ? rhs : null, available, results);
+                results.add(new AssignmentNode(variable, replace(rhs, available)));
+
+                kill(available, Set.of(variable.getName()));
+                if(holdsRhs)
+                    available.put(rhs, variable);
+
+            } else if(node instanceof ConditionalNode) {
+                var conditional = (ConditionalNode) node;
+                introduceTemporaries(
+                    statements, index, List.of(conditional.getLhs(), conditional.getRhs()), null, available, results);
+                results.add(new ConditionalNode(
+                    conditional.getOperator(),
+                    replace(conditional.getLhs(), available),
+                    replace(conditional.getRhs(), available),
+                    statement(conditional.getIfTrue(), new HashMap<>(available)),
+                    statement(conditional.getIfFalse(), new HashMap<>(available))));
+                kill(available, Analysis.assignedVariables(conditional));
+
+            } else if(node instanceof LoopNode) {
+                // The body starts each iteration with whatever the loop does not change
+                var body = ((LoopNode) node).getBody();
+                kill(available, Analysis.assignedVariables(body));
+                results.add(new LoopNode(statement(body, new HashMap<>(available))));
+
+            } else if(node instanceof BlockNode) {
+                results.add(new BlockNode(block(((BlockNode) node).getStatements(), available)));
+
+            } else {
+                results.add(node);  // LoopExitNode
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Before the statement at the given index, assigns temporaries for any operations in its
+     * expressions that will be evaluated again before their inputs change. The statement’s own
+     * result needs no temporary if it is held in a variable.
+     */
+    private void introduceTemporaries(
+        List<StatementNode> statements,
+        int index,
+        List<ExpressionNode> expressions,
+        ExpressionNode heldResult,
+        Map<ExpressionNode, VariableNode> available,
+        List<StatementNode> results
+    ) {
+        // Innermost first, so that each temporary can use the ones it contains
+        var candidates = new ArrayList<ExpressionNode>();
+        for(var expression : expressions)
+            collectCandidates(expression, available, candidates);
+
+        for(var candidate : candidates) {
+            if(available.containsKey(candidate) || candidate == heldResult)
+                continue;  // an earlier candidate was the same operation, or no temporary needed
+
+            int uses = 0;
+            for(var expression : expressions)
+                uses += countOccurrences(candidate, expression);
+            if(uses < 2)
+                uses += countLaterOccurrences(candidate, statements, index);
+            if(uses < 2)
+                continue;
+
+            var temporary = new VariableNode(TEMPORARY_PREFIX + (++temporaryCount));
+            results.add(new AssignmentNode(temporary, replace(candidate, available)));
+            available.put(candidate, temporary);
+        }
+    }
+
+    private static void collectCandidates(
+        ExpressionNode node,
+        Map<ExpressionNode, VariableNode> available,
+        List<ExpressionNode> candidates
+    ) {
+        if(!(node instanceof BinaryExpressionNode) || available.containsKey(node))
+            return;
+        var binary = (BinaryExpressionNode) node;
+        collectCandidates(binary.getLhs(), available, candidates);
+        collectCandidates(binary.getRhs(), available, candidates);
+        candidates.add(node);
+    }
+
+    /**
+     * Counts the uses of the given operation in the statements following the one at the given
+     * index, up to the first statement that may change one of its inputs.
+     */
+    private static int countLaterOccurrences(ExpressionNode operation, List<StatementNode> statements, int index) {
+        var inputs = Analysis.variableNames(operation);
+        if(!disjoint(inputs, Analysis.assignedVariables(statements.get(index))))
+            return 0;
+
+        int count = 0;
+        for(var node : statements.subList(index + 1, statements.size())) {
+            if(node instanceof AssignmentNode) {
+                count += countOccurrences(operation, ((AssignmentNode) node).getExpression());
+            } else if(node instanceof ConditionalNode) {
+                count += countOccurrences(operation, ((ConditionalNode) node).getLhs())
+                       + countOccurrences(operation, ((ConditionalNode) node).getRhs());
+            } else {
+                break;  // loops and nested blocks get their own analysis
+            }
+            if(!disjoint(inputs, Analysis.assignedVariables(node)))
+                break;
+        }
+        return count;
+    }
+
+    private static int countOccurrences(ExpressionNode operation, ASTNode node) {
+        if(node.equals(operation))
+            return 1;
+        int count = 0;
+        for(var child : node.getChildren().values())
+            count += countOccurrences(operation, child);
+        return count;
+    }
+
+    /**
+     * Replaces every operation in the given expression whose result is available in a variable with
+     * a read of that variable.
+     */
+    private static ExpressionNode replace(ExpressionNode node, Map<ExpressionNode, VariableNode> available) {
+        var holder = available.get(node);
+        if(holder != null)
+            return holder;
+        if(!(node instanceof BinaryExpressionNode))
+            return node;
+
+        var binary = (BinaryExpressionNode) node;
+        return new BinaryExpressionNode(
+            binary.getOperator(),
+            replace(binary.getLhs(), available),
+            replace(binary.getRhs(), available));
+    }
+
+    /**
+     * Forgets every available operation that reads, or is held in, one of the given variables.
+     */
+    private static void kill(Map<ExpressionNode, VariableNode> available, Set<String> assigned) {
+        available.entrySet().removeIf(entry ->
+            assigned.contains(entry.getValue().getName())
+                || !disjoint(assigned, Analysis.variableNames(entry.getKey())));
+    }
+
+    private static boolean disjoint(Set<String> a, Set<String> b) {
+        for(var name : a)
+            if(b.contains(name))
+                return false;
+        return true;
+    }
+}
@@ -0,0 +1,102 @@
+package wordy.optimizer;
+
+import java.util.stream.Collectors;
+
+import wordy.ast.AssignmentNode;
+import wordy.ast.BinaryExpressionNode;
+import wordy.ast.BlockNode;
+import wordy.ast.ConditionalNode;
+import wordy.ast.ConstantNode;
+import wordy.ast.ExpressionNode;
+import wordy.ast.FusedNode;
+import wordy.ast.LoopNode;
+import wordy.ast.StatementNode;
+import wordy.interpreter.ConstantPower;
+
+/**
+ * Evaluates operations on constants ahead of time:
+ * <ul>
+ * <li> An operator whose operands are both constant (e.g. “1 divided by 0”) becomes a single
+ *      {@link ConstantNode} holding its result, which may be infinite or NaN.
+ * <li> A conditional that compares two constants becomes whichever branch it would always take.
+ * </ul>
+ * Folding uses the same Java arithmetic as every execution engine, so results are bit-for-bit
+ * identical to running the original program. Fused nodes are replaced by their unfused form.
+ */
+public final class ConstantFolding {
+    /**
+     * Returns a copy of the given program with all constant operations folded.
+     */
+    public static StatementNode fold(StatementNode program) {
+        return statement(program);
+    }
+
+    private static StatementNode statement(StatementNode node) {
+        if(node instanceof FusedNode)
+            return statement((StatementNode) ((FusedNode) node).unfused());
+        if(node instanceof AssignmentNode) {
+            var assignment = (AssignmentNode) node;
+            return new AssignmentNode(assignment.getVariable(), expression(assignment.getExpression()));
+        }
+        if(node instanceof BlockNode) {
+            return new BlockNode(
+                ((BlockNode) node).getStatements().stream()
+                    .map(ConstantFolding::statement)
+                    .collect(Collectors.toList()));
+        }
+        if(node instanceof ConditionalNode)
+            return conditional((ConditionalNode) node);
+        if(node instanceof LoopNode)
+            return new LoopNode(statement(((LoopNode) node).getBody()));
+        return node;  // LoopExitNode
+    }
+
+    private static StatementNode conditional(ConditionalNode node) {
+        var lhs = expression(node.getLhs());
+        var rhs = expression(node.getRhs());
+        if(lhs instanceof ConstantNode && rhs instanceof ConstantNode) {
+            return compare(node.getOperator(), ((ConstantNode) lhs).getValue(), ((ConstantNode) rhs).getValue())
+                ? statement(node.getIfTrue())
+                : statement(node.getIfFalse());
+        }
+        return new ConditionalNode(
+            node.getOperator(), lhs, rhs, statement(node.getIfTrue()), statement(node.getIfFalse()));
+    }
+
+    private static ExpressionNode expression(ExpressionNode node) {
+        if(node instanceof FusedNode)
+            return expression((ExpressionNode) ((FusedNode) node).unfused());
+        if(!(node instanceof BinaryExpressionNode))
+            return node;
+
+        var binary = (BinaryExpressionNode) node;
+        var lhs = expression(binary.getLhs());
+        var rhs = expression(binary.getRhs());
+        if(lhs instanceof ConstantNode && rhs instanceof ConstantNode)
+            return new ConstantNode(
+                apply(binary.getOperator(), ((ConstantNode) lhs).getValue(), ((ConstantNode) rhs).getValue()));
+        return new BinaryExpressionNode(binary.getOperator(), lhs, rhs);
+    }
+
+    private static double apply(BinaryExpressionNode.Operator operator, double lhs, double rhs) {
+        switch(operator) {
+            case ADDITION:       return lhs + rhs;
+            case SUBTRACTION:    return lhs - rhs;
+            case MULTIPLICATION: return lhs * rhs;
+            case DIVISION:       return lhs / rhs;
+            case EXPONENTIATION: return ConstantPower.pow(lhs, rhs);  // same result as at run time
+        }
+        throw new IllegalArgumentException("Unknown binary operator: " + operator);
+    }
+
+    private static boolean compare(ConditionalNode.Operator operator, double lhs, double rhs) {
+        switch(operator) {
+            case EQUALS:       return lhs == rhs;
+            case LESS_THAN:    return lhs <  rhs;
+            case GREATER_THAN: return lhs >  rhs;
+        }
+        throw new IllegalArgumentException("Unknown comparison operator: " + operator);
+    }
+
+    private ConstantFolding() { }
+}
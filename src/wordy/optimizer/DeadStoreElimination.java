@@ -0,0 +1,110 @@
+package wordy.optimizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import wordy.ast.AssignmentNode;
+import wordy.ast.BlockNode;
+import wordy.ast.ConditionalNode;
+import wordy.ast.LoopExitNode;
+import wordy.ast.LoopNode;
+import wordy.ast.StatementNode;
+import wordy.ast.VariableNode;
+
+/**
+ * Removes assignments whose value is always overwritten before anything can read it.
+ *
+ * The host can read any variable after the program runs, whether through an
+ * {@link wordy.interpreter.EvaluationContext} or a compiled context interface, so every variable
+ * is live when the program finishes. The same is true wherever the program can stop early: at
+ * each loop back-edge, where an {@link wordy.interpreter.ExecutionBudget} may stop it, and at an
+ * “exit loop” outside of any loop. A store is therefore only removed when it is overwritten
+ * before the next loop repeats and before the program ends. The exception is
+ * {@linkplain VariableNode#isInternal(String) internal} variables, such as the temporaries from
+ * {@link CommonSubexpressionElimination}, which the host never sees and so are dead when the
+ * program finishes. Fused nodes are replaced by their unfused form.
+ */
+public final class DeadStoreElimination {
+    private final Set<String> allVariables;
+    private final Set<String> hostVariables;  // live when the program finishes
+
+    /**
+     * Returns a copy of the given program without its dead stores.
+     */
+    public static StatementNode eliminate(StatementNode program) {
+        program = Analysis.unfused(program);
+        var pass = new DeadStoreElimination(Analysis.variableNames(program));
+        return pass.statement(program, new HashSet<>(pass.hostVariables), pass.hostVariables);
+    }
+
+    private DeadStoreElimination(Set<String> allVariables) {
+        this.allVariables = Collections.unmodifiableSet(allVariables);
+        var hostVariables = new HashSet<>(allVariables);
+        hostVariables.removeIf(VariableNode::isInternal);
+        this.hostVariables = Collections.unmodifiableSet(hostVariables);
+    }
+
+    /**
+     * Rewrites a statement given the variables live after it, and the variables live after the
+     * innermost enclosing loop (where “exit loop” goes). Updates the live set to describe the
+     * variables live before the statement. Returns null if the whole statement is dead.
+     */
+    private StatementNode statement(StatementNode node, Set<String> live, Set<String> liveAfterLoop) {
+        if(node instanceof AssignmentNode) {
+            var assignment = (AssignmentNode) node;
+            if(!live.remove(assignment.getVariable().getName()))
+                return null;
+            live.addAll(Analysis.variableNames(assignment.getExpression()));
+            return node;
+        }
+        if(node instanceof BlockNode) {
+            var statements = ((BlockNode) node).getStatements();
+            var results = new ArrayList<StatementNode>();
+            for(int index = statements.size() - 1; index >= 0; index--) {
+                var result = statement(statements.get(index), live, liveAfterLoop);
+                if(result != null)
+                    results.add(result);
+            }
+            Collections.reverse(results);
+            return new BlockNode(results);
+        }
+        if(node instanceof ConditionalNode) {
+            var conditional = (ConditionalNode) node;
+            var liveIfTrue = new HashSet<>(live);
+            var ifTrue = statement(conditional.getIfTrue(), liveIfTrue, liveAfterLoop);
+            var liveIfFalse = new HashSet<>(live);
+            var ifFalse = statement(conditional.getIfFalse(), liveIfFalse, liveAfterLoop);
+
+            live.clear();
+            live.addAll(liveIfTrue);
+            live.addAll(liveIfFalse);
+            live.addAll(Analysis.variableNames(conditional.getLhs()));
+            live.addAll(Analysis.variableNames(conditional.getRhs()));
+            return new ConditionalNode(
+                conditional.getOperator(),
+                conditional.getLhs(),
+                conditional.getRhs(),
+                ifTrue == null ? BlockNode.EMPTY : ifTrue,
+                ifFalse == null ? BlockNode.EMPTY : ifFalse);
+        }
+        if(node instanceof LoopNode) {
+            // Everything is live at the back-edge, which also covers every value a later iteration
+            // might read, so there is no need to iterate to a fixed point. That includes internal
+            // variables: the host cannot see them if the budget stops the loop, but the next
+            // iteration may read them.
+            var liveAfterThisLoop = new HashSet<>(live);
+            live.clear();
+            live.addAll(allVariables);
+            var body = statement(((LoopNode) node).getBody(), live, liveAfterThisLoop);
+            return new LoopNode(body == null ? BlockNode.EMPTY : body);
+        }
+        if(node instanceof LoopExitNode) {
+            live.clear();
+            live.addAll(liveAfterLoop);
+            return node;
+        }
+        throw new IllegalArgumentException("Unknown statement type: " + node.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,136 @@
+package wordy.optimizer;
+
+import java.util.stream.Collectors;
+
+import wordy.ast.AssignmentNode;
+import wordy.ast.BinaryExpressionNode;
+import wordy.ast.BlockNode;
+import wordy.ast.ConditionalExitNode;
+import wordy.ast.ConditionalNode;
+import wordy.ast.ConstantNode;
+import wordy.ast.ExpressionNode;
+import wordy.ast.IncrementNode;
+import wordy.ast.LoopExitNode;
+import wordy.ast.LoopNode;
+import wordy.ast.MultiplyAddNode;
+import wordy.ast.StatementNode;
+import wordy.ast.SumOfSquaresNode;
+import wordy.ast.VariableNode;
+
+import static wordy.ast.BinaryExpressionNode.Operator.ADDITION;
+import static wordy.ast.BinaryExpressionNode.Operator.EXPONENTIATION;
+import static wordy.ast.BinaryExpressionNode.Operator.MULTIPLICATION;
+import static wordy.ast.BinaryExpressionNode.Operator.SUBTRACTION;
+
+/**
+ * Replaces common multi-node idioms in a Wordy AST with single fused nodes (“superinstructions”),
+ * so that every execution engine dispatches fewer nodes per iteration:
+ * <ul>
+ * <li> “Set x to x plus c” (or “c plus x”, or “x minus c”) becomes an {@link IncrementNode}.
+ * <li> “a squared plus b squared,” for variables a and b, becomes a {@link SumOfSquaresNode}.
+ * <li> “a times b plus c” (or “c plus a times b”) becomes a {@link MultiplyAddNode}.
+ * <li> “If e is greater than c then exit loop” (with any comparison, a constant c, and no else
+ *      clause) becomes a {@link ConditionalExitNode}.
+ * </ul>
+ * Every rewrite produces bit-for-bit the same results as the original code.
+ */
+public final class SuperinstructionFusion {
+    /**
+     * Returns a copy of the given program with all recognized idioms fused.
+     */
+    public static StatementNode fuse(StatementNode program) {
+        return statement(program);
+    }
+
+    private static StatementNode statement(StatementNode node) {
+        if(node instanceof AssignmentNode) {
+            var assignment = (AssignmentNode) node;
+            return assignment(assignment.getVariable(), expression(assignment.getExpression()));
+        }
+        if(node instanceof BlockNode) {
+            return new BlockNode(
+                ((BlockNode) node).getStatements().stream()
+                    .map(SuperinstructionFusion::statement)
+                    .collect(Collectors.toList()));
+        }
+        if(node instanceof ConditionalNode)
+            return conditional((ConditionalNode) node);
+        if(node instanceof LoopNode)
+            return new LoopNode(statement(((LoopNode) node).getBody()));
+        return node;  // LoopExitNode, or already fused
+    }
+
+    private static StatementNode assignment(VariableNode variable, ExpressionNode rhs) {
+        if(rhs instanceof BinaryExpressionNode) {
+            var binary = (BinaryExpressionNode) rhs;
+            var operator = binary.getOperator();
+            ExpressionNode lhsOperand = binary.getLhs(), rhsOperand = binary.getRhs();
+
+            // Addition is commutative and x - c is exactly x + (-c) in IEEE arithmetic
+            if(operator == ADDITION && lhsOperand.equals(variable) && rhsOperand instanceof ConstantNode)
+                return new IncrementNode(variable, ((ConstantNode) rhsOperand).getValue());
+            if(operator == ADDITION && rhsOperand.equals(variable) && lhsOperand instanceof ConstantNode)
+                return new IncrementNode(variable, ((ConstantNode) lhsOperand).getValue());
+            if(operator == SUBTRACTION && lhsOperand.equals(variable) && rhsOperand instanceof ConstantNode)
+                return new IncrementNode(variable, -((ConstantNode) rhsOperand).getValue());
+        }
+        return new AssignmentNode(variable, rhs);
+    }
+
+    private static StatementNode conditional(ConditionalNode node) {
+        var lhs = expression(node.getLhs());
+        var rhs = expression(node.getRhs());
+        var ifTrue = statement(node.getIfTrue());
+        var ifFalse = statement(node.getIfFalse());
+
+        if(rhs instanceof ConstantNode && isLoopExit(ifTrue) && ifFalse.equals(BlockNode.EMPTY))
+            return new ConditionalExitNode(node.getOperator(), lhs, ((ConstantNode) rhs).getValue());
+        return new ConditionalNode(node.getOperator(), lhs, rhs, ifTrue, ifFalse);
+    }
+
+    private static boolean isLoopExit(StatementNode node) {
+        return node instanceof LoopExitNode
+            || node.equals(new BlockNode(new LoopExitNode()));
+    }
+
+    private static ExpressionNode expression(ExpressionNode node) {
+        if(!(node instanceof BinaryExpressionNode))
+            return node;
+
+        var binary = (BinaryExpressionNode) node;
+        var lhs = expression(binary.getLhs());
+        var rhs = expression(binary.getRhs());
+
+        if(binary.getOperator() == ADDITION) {
+            if(isSquaredVariable(lhs) && isSquaredVariable(rhs))
+                return new SumOfSquaresNode(squaredVariable(lhs), squaredVariable(rhs));
+            if(isProduct(lhs))
+                return new MultiplyAddNode(
+                    ((BinaryExpressionNode) lhs).getLhs(), ((BinaryExpressionNode) lhs).getRhs(), rhs);
+            if(isProduct(rhs))
+                return new MultiplyAddNode(
+                    ((BinaryExpressionNode) rhs).getLhs(), ((BinaryExpressionNode) rhs).getRhs(), lhs);
+        }
+        return new BinaryExpressionNode(binary.getOperator(), lhs, rhs);
+    }
+
+    private static boolean isSquaredVariable(ExpressionNode node) {
+        if(!(node instanceof BinaryExpressionNode))
+            return false;
+        var binary = (BinaryExpressionNode) node;
+        return binary.getOperator() == EXPONENTIATION
+            && binary.getLhs() instanceof VariableNode
+            && binary.getRhs().equals(new ConstantNode(2));
+    }
+
+    private static VariableNode squaredVariable(ExpressionNode node) {
+        return (VariableNode) ((BinaryExpressionNode) node).getLhs();
+    }
+
+    private static boolean isProduct(ExpressionNode node) {
+        return node instanceof BinaryExpressionNode
+            && ((BinaryExpressionNode) node).getOperator() == MULTIPLICATION;
+    }
+
+    private SuperinstructionFusion() { }
+}
@@ -0,0 +1,367 @@
+package wordy.parser;
+
+import java.util.ArrayList;
+
+import wordy.ast.AssignmentNode;
+import wordy.ast.BinaryExpressionNode;
+import wordy.ast.BlockNode;
+import wordy.ast.ConditionalNode;
+import wordy.ast.ConstantNode;
+import wordy.ast.ExpressionNode;
+import wordy.ast.LoopExitNode;
+import wordy.ast.LoopNode;
+import wordy.ast.StatementNode;
+import wordy.ast.VariableNode;
+
+/**
+ * A hand-written parser for valid Wordy code, many times faster than the parboiled grammar in
+ * {@link WordyParser}. It accepts exactly the same language and builds the same AST. It reports
+ * no errors of its own: it returns null for any input it cannot parse, and WordyParser then
+ * re-parses that input with parboiled to produce the ParseException.
+ *
+ * Each method here mirrors the grammar rule of the same name in WordyParser, including PEG
+ * semantics: alternatives are tried in order, a failed alternative restores the position, and
+ * repetition is greedy. There is no separate tokenizer, because the grammar does not have one
+ * either: key phrases match as bare prefixes, with spaces between their words optional, so
+ * “set x to 1” and “setx to1” parse alike. Every token consumes the spaces after it.
+ *
+ * Input must already be normalized by WordyParser.normalize(): lowercase, with all whitespace
+ * replaced by spaces.
+ */
+final class RecursiveDescentParser {
+    private final String input;
+    private int pos;
+
+    private RecursiveDescentParser(String input) {
+        this.input = input;
+    }
+
+    // –––––––––––– Entry points ––––––––––––
+
+    static StatementNode parseProgram(String input) {
+        var parser = new RecursiveDescentParser(input);
+        parser.optionalSpace();
+        return parser.atEnd(parser.block());
+    }
+
+    static StatementNode parseStatement(String input) {
+        var parser = new RecursiveDescentParser(input);
+        return parser.atEnd(parser.statement());
+    }
+
+    static ExpressionNode parseExpression(String input) {
+        var parser = new RecursiveDescentParser(input);
+        return parser.atEnd(parser.expression());
+    }
+
+    private <T> T atEnd(T result) {
+        return (pos == input.length()) ? result : null;
+    }
+
+    // –––––––––––– Statements ––––––––––––
+
+    private BlockNode block() {
+        var statements = new ArrayList<StatementNode>();
+        while(true) {
+            int start = pos;
+            var statement = statement();
+            if(statement == null || !surroundingSpace('.')) {
+                pos = start;
+                break;
+            }
+            statements.add(statement);
+        }
+        return statements.isEmpty() ? null : new BlockNode(statements);
+    }
+
+    private StatementNode statement() {
+        // Each kind of statement starts with a different key phrase, so at most one can match
+        int start = pos;
+        StatementNode result;
+        if((result = assignment()) != null)
+            return result;
+        pos = start;
+        if((result = conditional()) != null)
+            return result;
+        pos = start;
+        if((result = loop()) != null)
+            return result;
+        pos = start;
+        if((result = loopExit()) != null)
+            return result;
+        pos = start;
+        return null;
+    }
+
+    private StatementNode conditional() {
+        if(!keyPhrase("if"))
+            return null;
+        var lhs = expression();
+        if(lhs == null)
+            return null;
+        var operator = comparisonOperator();
+        if(operator == null)
+            return null;
+        var rhs = expression();
+        if(rhs == null)
+            return null;
+
+        int thenStart = pos;
+        var multiline = conditionalBlocks(operator, lhs, rhs);
+        if(multiline != null)
+            return multiline;
+        pos = thenStart;
+
+        if(!keyPhrase("then"))
+            return null;
+        var ifTrue = statement();
+        if(ifTrue == null)
+            return null;
+        StatementNode ifFalse = BlockNode.EMPTY;
+        int elseStart = pos;
+        StatementNode elseStatement;
+        if(keyPhrase("else") && (elseStatement = statement()) != null)
+            ifFalse = elseStatement;
+        else
+            pos = elseStart;
+        return new ConditionalNode(operator, lhs, rhs, ifTrue, ifFalse);
+    }
+
+    /**
+     * The “then: ... else: ... end of conditional” form.
+     */
+    private StatementNode conditionalBlocks(ConditionalNode.Operator operator, ExpressionNode lhs, ExpressionNode rhs) {
+        if(!keyPhrase("then") || !surroundingSpace(':'))
+            return null;
+        var ifTrue = block();
+        if(ifTrue == null)
+            return null;
+        StatementNode ifFalse = BlockNode.EMPTY;
+        int elseStart = pos;
+        BlockNode elseBlock;
+        if(keyPhrase("else") && surroundingSpace(':') && (elseBlock = block()) != null)
+            ifFalse = elseBlock;
+        else
+            pos = elseStart;
+        if(!keyPhrase("end of conditional"))
+            return null;
+        return new ConditionalNode(operator, lhs, rhs, ifTrue, ifFalse);
+    }
+
+    private ConditionalNode.Operator comparisonOperator() {
+        if(keyPhrase("equals") || keyPhrase("is equal to"))
+            return ConditionalNode.Operator.EQUALS;
+        if(keyPhrase("is less than"))
+            return ConditionalNode.Operator.LESS_THAN;
+        if(keyPhrase("is greater than"))
+            return ConditionalNode.Operator.GREATER_THAN;
+        return null;
+    }
+
+    private StatementNode loop() {
+        if(!keyPhrase("loop") || !surroundingSpace(':'))
+            return null;
+        var body = block();
+        if(body == null || !keyPhrase("end of loop"))
+            return null;
+        return new LoopNode(body);
+    }
+
+    private StatementNode loopExit() {
+        return keyPhrase("exit loop") ? new LoopExitNode() : null;
+    }
+
+    private StatementNode assignment() {
+        if(!keyPhrase("set"))
+            return null;
+        var variable = variable();
+        if(variable == null || !keyPhrase("to"))
+            return null;
+        var expression = expression();
+        if(expression == null)
+            return null;
+        return new AssignmentNode(variable, expression);
+    }
+
+    // –––––––––––– Expressions ––––––––––––
+
+    private ExpressionNode expression() {
+        return additiveExpression();
+    }
+
+    private ExpressionNode additiveExpression() {
+        var result = multiplicativeExpression();
+        if(result == null)
+            return null;
+        while(true) {
+            int start = pos;
+            BinaryExpressionNode.Operator operator;
+            if(keyPhrase("plus"))
+                operator = BinaryExpressionNode.Operator.ADDITION;
+            else if(keyPhrase("minus"))
+                operator = BinaryExpressionNode.Operator.SUBTRACTION;
+            else
+                break;
+            var rhs = multiplicativeExpression();
+            if(rhs == null) {
+                pos = start;
+                break;
+            }
+            result = new BinaryExpressionNode(operator, result, rhs);
+        }
+        return result;
+    }
+
+    private ExpressionNode multiplicativeExpression() {
+        var result = exponentialExpression();
+        if(result == null)
+            return null;
+        while(true) {
+            int start = pos;
+            BinaryExpressionNode.Operator operator;
+            if(keyPhrase("times"))
+                operator = BinaryExpressionNode.Operator.MULTIPLICATION;
+            else if(keyPhrase("divided by"))
+                operator = BinaryExpressionNode.Operator.DIVISION;
+            else
+                break;
+            var rhs = exponentialExpression();
+            if(rhs == null) {
+                pos = start;
+                break;
+            }
+            result = new BinaryExpressionNode(operator, result, rhs);
+        }
+        return result;
+    }
+
+    private ExpressionNode exponentialExpression() {
+        var result = atom();
+        if(result == null)
+            return null;
+        while(true) {
+            int start = pos;
+            if(keyPhrase("to the power of")) {
+                var exponent = exponentialExpression();  // note the exponentiation is right-associative
+                if(exponent != null) {
+                    result = new BinaryExpressionNode(BinaryExpressionNode.Operator.EXPONENTIATION, result, exponent);
+                    continue;
+                }
+            }
+            pos = start;
+            if(!keyPhrase("squared"))
+                return result;
+            result = new BinaryExpressionNode(BinaryExpressionNode.Operator.EXPONENTIATION, result, new ConstantNode(2));
+        }
+    }
+
+    private ExpressionNode atom() {
+        int start = pos;
+        ExpressionNode result;
+        if((result = number()) != null)
+            return result;
+        pos = start;
+        if((result = variable()) != null)
+            return result;
+        pos = start;
+        if((result = parens()) != null)
+            return result;
+        pos = start;
+        return null;
+    }
+
+    private ExpressionNode parens() {
+        if(!surroundingSpace('('))
+            return null;
+        var result = expression();
+        if(result == null || !surroundingSpace(')'))
+            return null;
+        return result;
+    }
+
+    private ExpressionNode number() {
+        int start = pos;
+        if(peek() == '-')
+            pos++;
+        if(digits() == 0)
+            return null;
+        int fractionStart = pos;
+        if(peek() == '.') {
+            pos++;
+            if(digits() == 0)
+                pos = fractionStart;  // the '.' ends the statement instead
+        }
+        var result = new ConstantNode(Double.parseDouble(input.substring(start, pos)));
+        optionalSpace();
+        return result;
+    }
+
+    private VariableNode variable() {
+        int start = pos;
+        while(pos < input.length() && isVariableChar(input.charAt(pos)))
+            pos++;
+        if(pos == start)
+            return null;
+        var result = new VariableNode(input.substring(start, pos));
+        optionalSpace();
+        return result;
+    }
+
+    // –––––––––––– Lexical helpers ––––––––––––
+
+    /**
+     * Matches the words of the given phrase, each followed by optional space, like
+     * WordyParser.KeyPhrase(). On failure, consumes nothing.
+     */
+    private boolean keyPhrase(String phrase) {
+        int start = pos;
+        for(int i = 0; i < phrase.length(); i++) {
+            char c = phrase.charAt(i);
+            if(c == ' ')
+                optionalSpace();
+            else if(peek() == c)
+                pos++;
+            else {
+                pos = start;
+                return false;
+            }
+        }
+        optionalSpace();
+        return true;
+    }
+
+    /**
+     * Matches the given character with optional space on either side. On failure, consumes nothing.
+     */
+    private boolean surroundingSpace(char c) {
+        int start = pos;
+        optionalSpace();
+        if(peek() != c) {
+            pos = start;
+            return false;
+        }
+        pos++;
+        optionalSpace();
+        return true;
+    }
+
+    private void optionalSpace() {
+        while(peek() == ' ')
+            pos++;
+    }
+
+    private int digits() {
+        int start = pos;
+        while(pos < input.length() && input.charAt(pos) >= '0' && input.charAt(pos) <= '9')
+            pos++;
+        return pos - start;
+    }
+
+    private char peek() {
+        return (pos < input.length()) ? input.charAt(pos) : 0;
+    }
+
+    private static boolean isVariableChar(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_';
+    }
+}
@@ -3,13 +3,13 @@ package wordy.parser;
 import org.parboiled.BaseParser;
 import org.parboiled.Parboiled;
 import org.parboiled.Rule;
-import org.parboiled.annotations.BuildParseTree;
 import org.parboiled.parserunners.ReportingParseRunner;
 import org.parboiled.support.ParsingResult;
 import org.parboiled.support.Var;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 import wordy.ast.ASTNode;
 import wordy.ast.AssignmentNode;
@@ -29,34 +29,80 @@ import wordy.ast.VariableNode;
  * This parser uses the Parboiled parser eDSL. The source code here functions as a definition of the
  * Wordy language grammar.
  * <p>
+ * For speed, the public parse methods first try {@link RecursiveDescentParser}, a hand-written
+ * parser for the same grammar. Only input it rejects goes through parboiled, which then produces
+ * the ParseException. The grammar rules here remain the definition of the language; any change to
+ * them must be mirrored there.
+ * <p>
+ * Parsing therefore has two stages: the lean hand-written parser, then ReportingParseRunner only
+ * for input that parser rejects. No parse tree is built in either stage; parboiled’s AST comes from
+ * its value stack. (Do not run the grammar with BasicParseRunner: on input that fails to parse, the
+ * Var frames in the rules below can be left unset, and the runner throws instead of failing.)
+ * <p>
  * Large portions adapted from: https://github.com/sirthias/parboiled/tree/master/examples-java/src/main/java/org/parboiled/examples/calculators/
  */
-@BuildParseTree
 @SuppressWarnings("WeakerAccess")  // parboiled code generation requires greater visibility
 public class WordyParser extends BaseParser<ASTNode> {
+    private static final WordyParser INSTANCE = Parboiled.createParser(WordyParser.class);
+
+    private static final Rule
+        PROGRAM_RULE = INSTANCE.Sequence(INSTANCE.Program(), EOI),
+        STATEMENT_RULE = INSTANCE.Sequence(INSTANCE.Statement(), EOI),
+        EXPRESSION_RULE = INSTANCE.Sequence(INSTANCE.Expression(), EOI);
+
     public static StatementNode parseProgram(String input) {
-        return parse(input, INSTANCE.Sequence(INSTANCE.Program(), EOI), StatementNode.class);
+        return parse(input, RecursiveDescentParser::parseProgram, PROGRAM_RULE, StatementNode.class);
     }
 
     public static StatementNode parseStatement(String input) {
-        return parse(input, INSTANCE.Sequence(INSTANCE.Statement(), EOI), StatementNode.class);
+        return parse(input, RecursiveDescentParser::parseStatement, STATEMENT_RULE, StatementNode.class);
     }
 
     public static ExpressionNode parseExpression(String input) {
-        return parse(input, INSTANCE.Sequence(INSTANCE.Expression(), EOI), ExpressionNode.class);
+        return parse(input, RecursiveDescentParser::parseExpression, EXPRESSION_RULE, ExpressionNode.class);
     }
 
-    private static final WordyParser INSTANCE = Parboiled.createParser(WordyParser.class);
+    /**
+     * Parses a program with parboiled alone, bypassing the hand-written parser. For comparison in
+     * tests and benchmarks.
+     */
+    static StatementNode parseProgramWithParboiled(String input) {
+        return parseWithParboiled(normalize(input), PROGRAM_RULE, StatementNode.class);
+    }
+
+    private static <T extends ASTNode> T parse(
+        String input,
+        Function<String, T> fastParser,
+        Rule rule,
+        Class<T> expectedOutput
+    ) {
+        input = normalize(input);
+        T ast = fastParser.apply(input);
+        if(ast != null)
+            return ast;
+        return parseWithParboiled(input, rule, expectedOutput);
+    }
+
+    /**
+     * Lowercases the input and replaces every whitespace character, as matched by the regex \s,
+     * with a space.
+     */
+    static String normalize(String input) {
+        char[] chars = input.toLowerCase().toCharArray();
+        for(int i = 0; i < chars.length; i++)
+            switch(chars[i]) {
+                case '\t': case '\n': case '\u000B': case '\f': case '\r':
+                    chars[i] = ' ';
+            }
+        return new String(chars);
+    }
 
-    private static <T extends ASTNode> T parse(String input, Rule rule, Class<T> expectedOutput) {
-        input = input
-            .toLowerCase()
-            .replaceAll("\\s", " ");
+    private static <T extends ASTNode> T parseWithParboiled(String input, Rule rule, Class<T> expectedOutput) {
         ParsingResult<T> result = new ReportingParseRunner<T>(rule).run(input);
         if(result.hasErrors())
             throw new ParseException(result);
 
-        var ast = result.parseTreeRoot.getValue();
+        var ast = result.resultValue;
         if(ast == null)
             throw new ParseException("Could not parse");
         if(!expectedOutput.isAssignableFrom(ast.getClass()))
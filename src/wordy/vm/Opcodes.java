@@ -0,0 +1,79 @@
+package wordy.vm;
+
+/**
+ * The instruction set of the Wordy VM.
+ *
+ * Every instruction occupies {@link #WIDTH} consecutive ints in the code array: the opcode
+ * followed by up to three operands. Operands name either a register (an index into the register
+ * file), a constant (an index into the constant pool), or a jump target (an index into the code
+ * array). Unused operands are zero.
+ *
+ * In the comments below, r[…] is a register, k[…] is a constant, and a/b/c are the three operands.
+ */
+final class Opcodes {
+    static final int WIDTH = 4;
+
+    static final int
+        LOAD_CONST = 0,   // r[a] = k[b]
+        MOVE       = 1,   // r[a] = r[b]
+
+        ADD        = 2,   // r[a] = r[b] + r[c]
+        SUB        = 3,   // r[a] = r[b] - r[c]
+        MUL        = 4,   // r[a] = r[b] * r[c]
+        DIV        = 5,   // r[a] = r[b] / r[c]
+        POW        = 6,   // r[a] = Math.pow(r[b], r[c])
+
+        ADD_K      = 7,   // r[a] = r[b] + k[c]
+        SUB_K      = 8,   // r[a] = r[b] - k[c]
+        MUL_K      = 9,   // r[a] = r[b] * k[c]
+        DIV_K      = 10,  // r[a] = r[b] / k[c]
+        POW_K      = 11,  // r[a] = Math.pow(r[b], k[c])
+
+        SUM_OF_SQUARES = 21,  // r[a] = r[b] * r[b] + r[c] * r[c]
+
+        // Exponentiation by constants that have a cheaper ConstantPower replacement; exponents 0
+        // and 1 use LOAD_CONST and MOVE
+        SQUARE       = 26,  // r[a] = r[b] * r[b]
+        CUBE         = 27,  // r[a] = r[b] * r[b] * r[b]
+        FOURTH_POWER = 28,  // r[a] = (r[b] * r[b]) * (r[b] * r[b])
+        RECIPROCAL   = 29,  // r[a] = 1 / r[b]
+        SQUARE_ROOT  = 30,  // r[a] = Math.pow(r[b], 0.5), computed with sqrt
+
+        // Conditional branches jump when the comparison does NOT hold, so that the “then” branch
+        // can directly follow the test
+        JUMP_UNLESS_EQ   = 12,  // if !(r[a] == r[b]) goto c
+        JUMP_UNLESS_LT   = 13,  // if !(r[a] <  r[b]) goto c
+        JUMP_UNLESS_GT   = 14,  // if !(r[a] >  r[b]) goto c
+        JUMP_UNLESS_EQ_K = 15,  // if !(r[a] == k[b]) goto c
+        JUMP_UNLESS_LT_K = 16,  // if !(r[a] <  k[b]) goto c
+        JUMP_UNLESS_GT_K = 17,  // if !(r[a] >  k[b]) goto c
+
+        // Branches that jump when the comparison DOES hold, for fused conditional loop exits
+        JUMP_IF_EQ_K = 22,  // if r[a] == k[b] goto c
+        JUMP_IF_LT_K = 23,  // if r[a] <  k[b] goto c
+        JUMP_IF_GT_K = 24,  // if r[a] >  k[b] goto c
+
+        JUMP       = 18,  // goto a
+        LOOP       = 25,  // charge one iteration to the execution budget, then goto a
+        EXIT_LOOP_OUTSIDE_LOOP = 19,  // “exit loop” with no enclosing loop; throws LoopExited
+        HALT       = 20;  // end of program
+
+    private static final String[] NAMES = {
+        "LOAD_CONST", "MOVE",
+        "ADD", "SUB", "MUL", "DIV", "POW",
+        "ADD_K", "SUB_K", "MUL_K", "DIV_K", "POW_K",
+        "JUMP_UNLESS_EQ", "JUMP_UNLESS_LT", "JUMP_UNLESS_GT",
+        "JUMP_UNLESS_EQ_K", "JUMP_UNLESS_LT_K", "JUMP_UNLESS_GT_K",
+        "JUMP", "EXIT_LOOP_OUTSIDE_LOOP", "HALT",
+        "SUM_OF_SQUARES",
+        "JUMP_IF_EQ_K", "JUMP_IF_LT_K", "JUMP_IF_GT_K",
+        "LOOP",
+        "SQUARE", "CUBE", "FOURTH_POWER", "RECIPROCAL", "SQUARE_ROOT"
+    };
+
+    static String name(int opcode) {
+        return NAMES[opcode];
+    }
+
+    private Opcodes() { }
+}
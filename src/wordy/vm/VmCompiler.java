@@ -0,0 +1,290 @@
+package wordy.vm;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import wordy.ast.ASTNode;
+import wordy.ast.AssignmentNode;
+import wordy.ast.BinaryExpressionNode;
+import wordy.ast.BlockNode;
+import wordy.ast.ConditionalExitNode;
+import wordy.ast.ConditionalNode;
+import wordy.ast.ConstantNode;
+import wordy.ast.ExpressionNode;
+import wordy.ast.FusedNode;
+import wordy.ast.LoopExitNode;
+import wordy.ast.LoopNode;
+import wordy.ast.StatementNode;
+import wordy.ast.SumOfSquaresNode;
+import wordy.ast.VariableNode;
+import wordy.interpreter.ConstantPower;
+import wordy.interpreter.VariableSlots;
+
+import static wordy.vm.Opcodes.*;
+
+/**
+ * Lowers a Wordy AST to instructions for the Wordy VM.
+ *
+ * The VM is register-based: every instruction names the registers it reads and writes directly,
+ * instead of pushing and popping an operand stack. The register file is the context’s slot array.
+ * Each Wordy variable is a register, so “Set x to y plus 1” lowers to the single instruction
+ * {@code ADD_K x, y, 1}. Intermediate results of nested expressions go in temporary registers,
+ * which are reserved slots at the start of the slot array.
+ *
+ * @see Opcodes for the instruction set
+ */
+public final class VmCompiler {
+    /**
+     * Lowers the given program to VM instructions.
+     */
+    public static VmProgram compile(StatementNode program) {
+        var compiler = new VmCompiler(
+            VariableSlots.resolve(program, temporariesNeeded(program)));
+        compiler.statement(program);
+        compiler.emit(HALT, 0, 0, 0);
+        return new VmProgram(
+            compiler.slots,
+            Arrays.copyOf(compiler.code, compiler.codeLength),
+            compiler.constants.stream().mapToDouble(Double::doubleValue).toArray());
+    }
+
+    private final VariableSlots slots;
+    private int[] code = new int[64 * WIDTH];
+    private int codeLength;
+    private final List<Double> constants = new ArrayList<>();
+    private final Map<Double,Integer> constantIndices = new HashMap<>();
+    private final Deque<List<Integer>> pendingLoopExits = new ArrayDeque<>();  // innermost loop first
+
+    private VmCompiler(VariableSlots slots) {
+        this.slots = slots;
+    }
+
+    // –––––––––––– Statements ––––––––––––
+
+    private void statement(StatementNode node) {
+        if(node instanceof AssignmentNode) {
+            var assignment = (AssignmentNode) node;
+            expressionInto(assignment.getExpression(), slotOf(assignment.getVariable()), 0);
+        } else if(node instanceof BlockNode) {
+            for(var statement : ((BlockNode) node).getStatements())
+                statement(statement);
+        } else if(node instanceof ConditionalNode) {
+            conditional((ConditionalNode) node);
+        } else if(node instanceof LoopNode) {
+            loop((LoopNode) node);
+        } else if(node instanceof LoopExitNode) {
+            if(pendingLoopExits.isEmpty())
+                emit(EXIT_LOOP_OUTSIDE_LOOP, 0, 0, 0);
+            else
+                pendingLoopExits.peek().add(emit(JUMP, 0, 0, 0));
+        } else if(node instanceof ConditionalExitNode && !pendingLoopExits.isEmpty()) {
+            // One branch straight to the loop exit, instead of a branch around an unconditional jump
+            var exit = (ConditionalExitNode) node;
+            int lhs = operand(exit.getLhs(), 0);
+            int limit = constant(exit.getLimit());
+            pendingLoopExits.peek().add(emit(exitBranchOpcode(exit.getOperator()), lhs, limit, 0));
+        } else if(node instanceof FusedNode) {
+            statement((StatementNode) ((FusedNode) node).unfused());
+        } else {
+            throw unsupported(node);
+        }
+    }
+
+    private void conditional(ConditionalNode node) {
+        int lhs = operand(node.getLhs(), 0);
+        int branch;
+        if(node.getRhs() instanceof ConstantNode) {
+            int rhs = constant(((ConstantNode) node.getRhs()).getValue());
+            branch = emit(branchOpcode(node.getOperator(), true), lhs, rhs, 0);
+        } else {
+            int rhs = operand(node.getRhs(), 1);
+            branch = emit(branchOpcode(node.getOperator(), false), lhs, rhs, 0);
+        }
+
+        statement(node.getIfTrue());
+        if(node.getIfFalse().equals(BlockNode.EMPTY)) {
+            patch(branch, 3, codeLength);
+        } else {
+            int jumpPastElse = emit(JUMP, 0, 0, 0);
+            patch(branch, 3, codeLength);
+            statement(node.getIfFalse());
+            patch(jumpPastElse, 1, codeLength);
+        }
+    }
+
+    private void loop(LoopNode node) {
+        int start = codeLength;
+        pendingLoopExits.push(new ArrayList<>());
+        statement(node.getBody());
+        emit(LOOP, start, 0, 0);
+        for(int exit : pendingLoopExits.pop())
+            patch(exit, code[exit] == JUMP ? 1 : 3, codeLength);
+    }
+
+    // –––––––––––– Expressions ––––––––––––
+
+    /**
+     * Emits code that leaves the value of the given expression in some register, and returns that
+     * register. Variables are already in their own registers and need no code. Uses temporary
+     * registers numbered from firstTemp upward.
+     */
+    private int operand(ExpressionNode node, int firstTemp) {
+        if(node instanceof VariableNode)
+            return slotOf((VariableNode) node);
+        expressionInto(node, firstTemp, firstTemp);
+        return firstTemp;
+    }
+
+    /**
+     * Emits code that stores the value of the given expression in the target register. Uses
+     * temporary registers numbered from firstTemp upward.
+     */
+    private void expressionInto(ExpressionNode node, int target, int firstTemp) {
+        if(node instanceof ConstantNode) {
+            emit(LOAD_CONST, target, constant(((ConstantNode) node).getValue()), 0);
+        } else if(node instanceof VariableNode) {
+            emit(MOVE, target, slotOf((VariableNode) node), 0);
+        } else if(node instanceof SumOfSquaresNode) {
+            var sum = (SumOfSquaresNode) node;
+            emit(SUM_OF_SQUARES, target, slotOf(sum.getLhs()), slotOf(sum.getRhs()));
+        } else if(node instanceof FusedNode) {
+            expressionInto((ExpressionNode) ((FusedNode) node).unfused(), target, firstTemp);
+        } else if(node instanceof BinaryExpressionNode) {
+            var binary = (BinaryExpressionNode) node;
+            int lhs = operand(binary.getLhs(), firstTemp);
+            if(binary.getRhs() instanceof ConstantNode) {
+                double value = ((ConstantNode) binary.getRhs()).getValue();
+                var power = ConstantPower.of(value);
+                if(binary.getOperator() == BinaryExpressionNode.Operator.EXPONENTIATION && power != null) {
+                    constantPower(power, target, lhs);
+                    return;
+                }
+                int rhs = constant(value);
+                emit(arithmeticOpcode(binary.getOperator(), true), target, lhs, rhs);
+            } else {
+                int rhs = operand(binary.getRhs(), firstTemp + 1);
+                emit(arithmeticOpcode(binary.getOperator(), false), target, lhs, rhs);
+            }
+        } else {
+            throw unsupported(node);
+        }
+    }
+
+    /**
+     * The number of temporary registers that code emitted by operand() and expressionInto() can
+     * use for the given subtree.
+     */
+    private static int temporariesNeeded(ASTNode node) {
+        if(node instanceof FusedNode)
+            return temporariesNeeded(((FusedNode) node).unfused());  // never needs more than this
+        if(node instanceof VariableNode)
+            return 0;
+        if(node instanceof ConstantNode)
+            return 1;
+        if(node instanceof BinaryExpressionNode)
+            return temporariesNeeded(
+                ((BinaryExpressionNode) node).getLhs(),
+                ((BinaryExpressionNode) node).getRhs());
+
+        int result = 0;
+        if(node instanceof ConditionalNode)
+            result = temporariesNeeded(
+                ((ConditionalNode) node).getLhs(),
+                ((ConditionalNode) node).getRhs());
+        for(var child : node.getChildren().values())
+            result = Math.max(result, temporariesNeeded(child));
+        return result;
+    }
+
+    private static int temporariesNeeded(ExpressionNode lhs, ExpressionNode rhs) {
+        return Math.max(1, Math.max(temporariesNeeded(lhs), 1 + temporariesNeeded(rhs)));
+    }
+
+    // –––––––––––– Opcodes ––––––––––––
+
+    private void constantPower(ConstantPower power, int target, int base) {
+        switch(power) {
+            case ZERO:      emit(LOAD_CONST, target, constant(1), 0); return;
+            case ONE:       emit(MOVE, target, base, 0); return;
+            case TWO:       emit(SQUARE, target, base, 0); return;
+            case THREE:     emit(CUBE, target, base, 0); return;
+            case FOUR:      emit(FOURTH_POWER, target, base, 0); return;
+            case MINUS_ONE: emit(RECIPROCAL, target, base, 0); return;
+            case ONE_HALF:  emit(SQUARE_ROOT, target, base, 0); return;
+        }
+        throw new IllegalArgumentException("Unknown constant power: " + power);
+    }
+
+    private static int arithmeticOpcode(BinaryExpressionNode.Operator operator, boolean constantRhs) {
+        switch(operator) {
+            case ADDITION:       return constantRhs ? ADD_K : ADD;
+            case SUBTRACTION:    return constantRhs ? SUB_K : SUB;
+            case MULTIPLICATION: return constantRhs ? MUL_K : MUL;
+            case DIVISION:       return constantRhs ? DIV_K : DIV;
+            case EXPONENTIATION: return constantRhs ? POW_K : POW;
+        }
+        throw new IllegalArgumentException("Unknown binary operator: " + operator);
+    }
+
+    private static int branchOpcode(ConditionalNode.Operator operator, boolean constantRhs) {
+        switch(operator) {
+            case EQUALS:       return constantRhs ? JUMP_UNLESS_EQ_K : JUMP_UNLESS_EQ;
+            case LESS_THAN:    return constantRhs ? JUMP_UNLESS_LT_K : JUMP_UNLESS_LT;
+            case GREATER_THAN: return constantRhs ? JUMP_UNLESS_GT_K : JUMP_UNLESS_GT;
+        }
+        throw new IllegalArgumentException("Unknown comparison operator: " + operator);
+    }
+
+    private static int exitBranchOpcode(ConditionalNode.Operator operator) {
+        switch(operator) {
+            case EQUALS:       return JUMP_IF_EQ_K;
+            case LESS_THAN:    return JUMP_IF_LT_K;
+            case GREATER_THAN: return JUMP_IF_GT_K;
+        }
+        throw new IllegalArgumentException("Unknown comparison operator: " + operator);
+    }
+
+    // –––––––––––– Helpers ––––––––––––
+
+    /**
+     * Appends an instruction, and returns its position in the code array.
+     */
+    private int emit(int opcode, int a, int b, int c) {
+        if(codeLength + WIDTH > code.length)
+            code = Arrays.copyOf(code, code.length * 2);
+        int position = codeLength;
+        code[codeLength++] = opcode;
+        code[codeLength++] = a;
+        code[codeLength++] = b;
+        code[codeLength++] = c;
+        return position;
+    }
+
+    /**
+     * Fills in the jump target of an already-emitted instruction.
+     */
+    private void patch(int instruction, int operand, int target) {
+        code[instruction + operand] = target;
+    }
+
+    private int constant(double value) {
+        return constantIndices.computeIfAbsent(value, v -> {
+            constants.add(v);
+            return constants.size() - 1;
+        });
+    }
+
+    private int slotOf(VariableNode variable) {
+        return slots.slotOf(variable.getName());
+    }
+
+    private static UnsupportedOperationException unsupported(ASTNode node) {
+        return new UnsupportedOperationException(
+            "VM lowering not implemented for " + node.getClass().getSimpleName());
+    }
+}
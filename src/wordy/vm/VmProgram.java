@@ -0,0 +1,137 @@
+package wordy.vm;
+
+import wordy.interpreter.ConstantPower;
+import wordy.interpreter.EvaluationContext;
+import wordy.interpreter.ExecutionBudget;
+import wordy.interpreter.InterpretedProgram;
+import wordy.interpreter.LoopExited;
+import wordy.interpreter.VariableSlots;
+
+import static wordy.vm.Opcodes.*;
+
+/**
+ * A Wordy program lowered to VM instructions by {@link VmCompiler}. Running it executes the
+ * instructions in a single dispatch loop over the context’s slot array, which serves as the
+ * register file. Execution allocates nothing and does not trace. Loop back-edges are LOOP
+ * instructions, which charge the context’s {@link ExecutionBudget} (if any).
+ */
+public final class VmProgram implements InterpretedProgram {
+    private final VariableSlots slots;
+    private final int[] code;
+    private final double[] constants;
+
+    VmProgram(VariableSlots slots, int[] code, double[] constants) {
+        this.slots = slots;
+        this.code = code;
+        this.constants = constants;
+    }
+
+    @Override
+    public EvaluationContext createContext() {
+        return new EvaluationContext(slots);
+    }
+
+    @Override
+    public EvaluationContext createContext(EvaluationContext.Tracer tracer) {
+        return new EvaluationContext(slots, tracer);  // the VM never calls the tracer
+    }
+
+    @Override
+    public void run(EvaluationContext context) {
+        if(!context.hasLayout(slots))
+            throw new IllegalArgumentException("Context was not created by this program");
+        execute(code, constants, context.frame(), context.getExecutionBudget());
+    }
+
+    private static void execute(int[] code, double[] k, double[] r, ExecutionBudget budget) {
+        int pc = 0;
+        while(true) {
+            int a = code[pc + 1], b = code[pc + 2], c = code[pc + 3];
+            switch(code[pc]) {
+                case LOAD_CONST: r[a] = k[b]; break;
+                case MOVE:       r[a] = r[b]; break;
+
+                case ADD: r[a] = r[b] + r[c]; break;
+                case SUB: r[a] = r[b] - r[c]; break;
+                case MUL: r[a] = r[b] * r[c]; break;
+                case DIV: r[a] = r[b] / r[c]; break;
+                case POW: r[a] = Math.pow(r[b], r[c]); break;
+
+                case ADD_K: r[a] = r[b] + k[c]; break;
+                case SUB_K: r[a] = r[b] - k[c]; break;
+                case MUL_K: r[a] = r[b] * k[c]; break;
+                case DIV_K: r[a] = r[b] / k[c]; break;
+                case POW_K: r[a] = Math.pow(r[b], k[c]); break;
+
+                case SUM_OF_SQUARES: r[a] = r[b] * r[b] + r[c] * r[c]; break;
+
+                case SQUARE:       r[a] = ConstantPower.square(r[b]); break;
+                case CUBE:         r[a] = ConstantPower.cube(r[b]); break;
+                case FOURTH_POWER: r[a] = ConstantPower.fourthPower(r[b]); break;
+                case RECIPROCAL:   r[a] = ConstantPower.reciprocal(r[b]); break;
+                case SQUARE_ROOT:  r[a] = ConstantPower.squareRoot(r[b]); break;
+
+                case JUMP_UNLESS_EQ:   if(!(r[a] == r[b])) { pc = c; continue; } break;
+                case JUMP_UNLESS_LT:   if(!(r[a] <  r[b])) { pc = c; continue; } break;
+                case JUMP_UNLESS_GT:   if(!(r[a] >  r[b])) { pc = c; continue; } break;
+                case JUMP_UNLESS_EQ_K: if(!(r[a] == k[b])) { pc = c; continue; } break;
+                case JUMP_UNLESS_LT_K: if(!(r[a] <  k[b])) { pc = c; continue; } break;
+                case JUMP_UNLESS_GT_K: if(!(r[a] >  k[b])) { pc = c; continue; } break;
+                case JUMP_IF_EQ_K:     if(r[a] == k[b]) { pc = c; continue; } break;
+                case JUMP_IF_LT_K:     if(r[a] <  k[b]) { pc = c; continue; } break;
+                case JUMP_IF_GT_K:     if(r[a] >  k[b]) { pc = c; continue; } break;
+
+                case JUMP: pc = a; continue;
+                case LOOP:
+                    if(budget != null)
+                        budget.loopIteration();
+                    pc = a;
+                    continue;
+                case EXIT_LOOP_OUTSIDE_LOOP: throw LoopExited.INSTANCE;  // same as the tree walker
+                case HALT: return;
+
+                default:
+                    throw new IllegalStateException("Bad opcode " + code[pc] + " at " + pc);
+            }
+            pc += WIDTH;
+        }
+    }
+
+    /**
+     * Returns a human-readable listing of this program’s instructions, one per line, with
+     * registers shown as variable names (or t0, t1, … for temporaries) and constants inlined.
+     */
+    public String disassemble() {
+        var out = new StringBuilder();
+        for(int pc = 0; pc < code.length; pc += WIDTH) {
+            int op = code[pc], a = code[pc + 1], b = code[pc + 2], c = code[pc + 3];
+            out.append("%4d  %s".formatted(pc, name(op)));
+            if(op != HALT && op != EXIT_LOOP_OUTSIDE_LOOP)
+                out.append(" ".repeat(23 - name(op).length()));
+            switch(op) {
+                case LOAD_CONST:
+                    out.append(register(a)).append(", ").append(constants[b]); break;
+                case MOVE: case SQUARE: case CUBE: case FOURTH_POWER: case RECIPROCAL: case SQUARE_ROOT:
+                    out.append(register(a)).append(", ").append(register(b)); break;
+                case ADD: case SUB: case MUL: case DIV: case POW: case SUM_OF_SQUARES:
+                    out.append(register(a)).append(", ").append(register(b)).append(", ").append(register(c)); break;
+                case ADD_K: case SUB_K: case MUL_K: case DIV_K: case POW_K:
+                    out.append(register(a)).append(", ").append(register(b)).append(", ").append(constants[c]); break;
+                case JUMP_UNLESS_EQ: case JUMP_UNLESS_LT: case JUMP_UNLESS_GT:
+                    out.append(register(a)).append(", ").append(register(b)).append(" → ").append(c); break;
+                case JUMP_UNLESS_EQ_K: case JUMP_UNLESS_LT_K: case JUMP_UNLESS_GT_K:
+                case JUMP_IF_EQ_K: case JUMP_IF_LT_K: case JUMP_IF_GT_K:
+                    out.append(register(a)).append(", ").append(constants[b]).append(" → ").append(c); break;
+                case JUMP: case LOOP:
+                    out.append("→ ").append(a); break;
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    private String register(int slot) {
+        String name = slots.nameOf(slot);
+        return (name == null) ? "t" + slot : name;
+    }
+}
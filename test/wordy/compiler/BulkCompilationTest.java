@@ -0,0 +1,81 @@
+package wordy.compiler;
+
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import wordy.ast.ASTNode;
+import wordy.ast.StatementNode;
+import wordy.compiler.CompilerTest.TestContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static wordy.parser.WordyParser.parseProgram;
+
+public class BulkCompilationTest {
+    @Test
+    void compileMany() {
+        for(boolean parallel : new boolean[] { false, true }) {
+            var programs = new LinkedHashMap<String, StatementNode>();
+            for(int n = 0; n < 50; n++)
+                programs.put("Bulk" + n, parseProgram("set x to y times " + n + "."));
+
+            var result = WordyCompiler.compileAll(programs, TestContext.class, parallel);
+            assertFalse(result.hasErrors());
+            assertEquals(List.copyOf(programs.keySet()), List.copyOf(result.getExecutables().keySet()));
+            for(int n = 0; n < 50; n++) {
+                var executable = result.get("Bulk" + n);
+                assertEquals("Bulk" + n, executable.getClass().getName());
+                var context = executable.createContext();
+                context.set_y(2);
+                executable.run(context);
+                assertEquals(2 * n, context.get_x());
+            }
+        }
+    }
+
+    @Test
+    void reportErrorsPerProgram() {
+        var programs = new LinkedHashMap<String, StatementNode>();
+        programs.put("Good", parseProgram("set x to 1."));
+        programs.put("Bad", new UnsupportedNode());
+        programs.put("AlsoGood", parseProgram("set x to 2."));
+
+        var result = WordyCompiler.compileAll(programs, TestContext.class, true);
+        assertTrue(result.hasErrors());
+        assertEquals(List.of("Good", "AlsoGood"), List.copyOf(result.getExecutables().keySet()));
+        assertEquals(List.of("Bad"), List.copyOf(result.getErrors().keySet()));
+        assertThrows(CompilationException.class, () -> result.get("Bad"));
+        assertThrows(IllegalArgumentException.class, () -> result.get("Missing"));
+    }
+
+    /**
+     * A statement type that no backend knows how to compile.
+     */
+    private static class UnsupportedNode extends StatementNode {
+        @Override
+        public Map<String, ASTNode> getChildren() {
+            return Map.of();
+        }
+
+        @Override
+        public void compile(PrintWriter out) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof UnsupportedNode;
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+    }
+}
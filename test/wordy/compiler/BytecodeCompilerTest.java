@@ -0,0 +1,216 @@
+package wordy.compiler;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import wordy.compiler.CompilerTest.TestContext;
+import wordy.interpreter.ExecutionBudget;
+import wordy.interpreter.ExecutionBudgetExceeded;
+import wordy.interpreter.InterpreterEngine;
+import wordy.interpreter.LoopExited;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static wordy.parser.WordyParser.parseProgram;
+
+public class BytecodeCompilerTest {
+    @Test
+    void executeCompiledCode() {
+        WordyExecutable<TestContext> executable = compile("Set z to 3. Set x to y times z.");
+        assertEquals("TestProgram", executable.getClass().getName());
+
+        TestContext context = executable.createContext();
+        context.set_y(127);
+        executable.run(context);
+        assertEquals(381, context.get_x());
+    }
+
+    @Test
+    void evaluateExpressions() {
+        assertEvaluationEquals(2001, "2001");
+        assertEvaluationEquals(-1, "2 minus 3");
+        assertEvaluationEquals(2.0 / 3, "2 divided by 3");
+        assertEvaluationEquals(4, "2 squared");
+        assertEvaluationEquals(511.5, "2 to the power of 3 squared minus 1 divided by 2");
+        assertEvaluationEquals(33, "y minus (y plus 3) times (y minus 8)");
+        assertEvaluationEquals(Double.POSITIVE_INFINITY, "1 divided by 0");
+    }
+
+    @Test
+    void executeConditionals() {
+        String program =
+            "if y is less than 12 then set x to y else set x to 0 minus y."
+            + " if y equals 12 then set x to 100."
+            + " if y is greater than 12 then: set x to x times 2. end of conditional.";
+        assertRunEquals(11, program, 11);
+        assertRunEquals(100, program, 12);
+        assertRunEquals(-26, program, 13);
+        assertRunEquals(Double.NaN, program, Double.NaN);  // NaN fails every comparison
+    }
+
+    @Test
+    void executeLoops() {
+        assertRunEquals(10,
+            "set x to 0. loop: set x to x plus 1. if x equals y then exit loop. end of loop.",
+            10);
+        assertRunEquals(6,
+            "loop:"
+            + "  loop: set z to z plus 1. if z is greater than 2 then exit loop. end of loop."
+            + "  set x to x plus z. set z to 0. if x is greater than y then exit loop."
+            + "end of loop.",
+            5);
+    }
+
+    @Test
+    void exitOutsideLoop() {
+        var executable = compile("set x to 1. exit loop. set x to 2.");
+        var context = executable.createContext();
+        assertThrows(LoopExited.class, () -> executable.run(context));
+        assertEquals(1, context.get_x());
+    }
+
+    @Test
+    void executionBudget() {
+        var executable = compile("set x to 0. loop: set x to x plus 1. end of loop.");
+        var context = executable.createContext();
+        context.setExecutionBudget(ExecutionBudget.ofIterations(100));
+        assertThrows(ExecutionBudgetExceeded.class, () -> executable.run(context));
+        assertEquals(101, context.get_x());
+    }
+
+    @Test
+    void interfaceVariablesNotInProgram() {
+        var context = compile("set z to 1.").createContext();
+        context.set_y(3);
+        assertEquals(0, context.get_x());
+    }
+
+    @Test
+    void matchesInterpreter() throws Exception {
+        var program = parseProgram(new String(Files.readAllBytes(Paths.get(
+            BytecodeCompilerTest.class.getResource("/mandel.wordy").toURI()))));
+        var compiled = WordyCompiler.compile(program, "Mandel", ShaderContext.class);
+        var interpreted = InterpreterEngine.CLOSURES.prepare(program);
+
+        for(double x = -1; x <= 1; x += 0.125)
+            for(double y = -1; y <= 1; y += 0.125) {
+                var compiledContext = compiled.createContext();
+                compiledContext.set_x(x);
+                compiledContext.set_y(y);
+                compiledContext.set_view_scale(0.01);
+                compiled.run(compiledContext);
+
+                var interpretedContext = interpreted.createContext();
+                interpretedContext.set("x", x);
+                interpretedContext.set("y", y);
+                interpretedContext.set("view_scale", 0.01);
+                interpreted.run(interpretedContext);
+
+                assertEquals(interpretedContext.get("red"), compiledContext.get_red());
+                assertEquals(interpretedContext.get("green"), compiledContext.get_green());
+                assertEquals(interpretedContext.get("blue"), compiledContext.get_blue());
+            }
+    }
+
+    @Test
+    void runBatch() {
+        var executable = WordyCompiler.compileBatch(
+            parseProgram("set x to y times z. set count to count plus 1."),
+            "BatchProgram",
+            TestContext.class,
+            List.of("y", "z"),
+            List.of("x", "count", "unused"));
+        var context = executable.createContext();
+        double[] x = new double[4], count = new double[4], unused = new double[4];
+        executable.runBatch(
+            context,
+            new double[][] { { 1, 2, 3, 4 }, { 10, 20, 30, 40 } },
+            new double[][] { x, count, unused },
+            3);
+        assertArrayEquals(new double[] { 10, 40, 90, 0 }, x);
+        assertArrayEquals(new double[] { 1, 2, 3, 0 }, count);  // carries over like consecutive runs
+        assertEquals(90, context.get_x());
+    }
+
+    @Test
+    void runBatchWithBudget() {
+        var executable = WordyCompiler.compileBatch(
+            parseProgram("set x to 0. loop: if x equals y then exit loop. set x to x plus 1. end of loop."),
+            "BatchProgram",
+            TestContext.class,
+            List.of("y"),
+            List.of("x"));
+        var context = executable.createContext();
+        context.setExecutionBudget(ExecutionBudget.ofIterations(10));
+        var x = new double[3];
+        assertThrows(ExecutionBudgetExceeded.class, () ->
+            executable.runBatch(context, new double[][] { { 4, 5, 6 } }, new double[][] { x }, 3));
+        assertArrayEquals(new double[] { 4, 5, 0 }, x);  // one budget for the whole batch: 4 + 5 + 6 > 10
+    }
+
+    @Test
+    void accessVariablesBySlot() {
+        // No hand-written interface: the host discovers the variables at run time
+        var executable = WordyCompiler.compile(
+            parseProgram("set total to a plus b. set b to 0."), "SlotProgram", WordyExecutable.ExecutionContext.class);
+        var context = executable.createContext();
+        assertEquals(List.of("a", "b", "total"), context.variableNames());
+        int a = context.slotOf("a"), b = context.slotOf("b"), total = context.slotOf("total");
+        assertEquals(-1, context.slotOf("missing"));
+
+        context.set(a, 3);
+        context.set(b, 4);
+        executable.run(context);
+        assertEquals(7, context.get(total));
+        assertEquals(0, context.get(b));
+
+        var values = new double[3];
+        context.copyTo(values);
+        assertArrayEquals(new double[] { 3, 0, 7 }, values);
+        context.copyFrom(new double[] { 10, 20, 0 });
+        executable.run(context);
+        assertEquals(30, context.get(total));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> context.get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> context.set(-1, 0));
+    }
+
+    @Test
+    void slotsIncludeInterfaceVariables() {
+        var context = compile("set z to 1.").createContext();
+        assertEquals(List.of("x", "y", "z"), context.variableNames());
+        context.set_y(5);
+        assertEquals(5, context.get(context.slotOf("y")));
+    }
+
+    public static interface ShaderContext extends WordyExecutable.ExecutionContext {
+        void set_x(double x);
+        void set_y(double y);
+        void set_view_scale(double viewScale);
+        double get_red();
+        double get_green();
+        double get_blue();
+    }
+
+    // ––––––– Helpers –––––––
+
+    private WordyExecutable<TestContext> compile(String program) {
+        return WordyCompiler.compile(parseProgram(program), "TestProgram", TestContext.class);
+    }
+
+    private void assertEvaluationEquals(double expected, String expression) {
+        assertRunEquals(expected, "set x to " + expression + ".", 3);
+    }
+
+    private void assertRunEquals(double expectedX, String program, double y) {
+        var executable = compile(program);
+        var context = executable.createContext();
+        context.set_y(y);
+        executable.run(context);
+        assertEquals(expectedX, context.get_x(), program);
+    }
+}
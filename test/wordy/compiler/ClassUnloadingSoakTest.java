@@ -0,0 +1,64 @@
+package wordy.compiler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import wordy.compiler.CompilerTest.TestContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static wordy.parser.WordyParser.parseProgram;
+
+/**
+ * Compiles and discards many programs, as a long-running process that compiles user code on
+ * demand would. If compiled classes were never unloaded, this would run out of Metaspace under
+ * the soakTest task’s -XX:MaxMetaspaceSize. These tests rely on the garbage collector unloading
+ * classes promptly, so they only run with `gradle soakTest`.
+ */
+@Tag("soak")
+public class ClassUnloadingSoakTest {
+    private static final int PROGRAMS = 100_000;
+
+    @Test
+    void compileManyPrograms() {
+        var classLoading = ManagementFactory.getClassLoadingMXBean();
+        long loadedBefore = classLoading.getLoadedClassCount();
+
+        for(int n = 0; n < PROGRAMS; n++) {
+            var program = WordyCompiler.compile(
+                parseProgram("set x to y times " + n + "."),
+                "SoakProgram",
+                TestContext.class);
+            var context = program.createContext();
+            context.set_y(2);
+            program.run(context);
+            assertEquals(2.0 * n, context.get_x());
+
+            if(n % 10_000 == 0)
+                System.out.printf("%6d programs, %6d classes loaded, %6d unloaded%n",
+                    n, classLoading.getLoadedClassCount(), classLoading.getUnloadedClassCount());
+        }
+
+        System.gc();
+        long growth = classLoading.getLoadedClassCount() - loadedBefore;
+        assertTrue(growth < PROGRAMS / 10,
+            "Loaded class count grew by " + growth + " after compiling " + PROGRAMS + " programs");
+    }
+
+    @Test
+    void unusedProgramsAreUnloadable() throws InterruptedException {
+        var contextClass = new WeakReference<Class<?>>(WordyCompiler.compile(
+            parseProgram("set x to 1."),
+            "SoakProgram",
+            TestContext.class).createContext().getClass());
+        for(int attempt = 0; attempt < 50 && contextClass.get() != null; attempt++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(contextClass.get(), "generated class still loaded");
+    }
+}
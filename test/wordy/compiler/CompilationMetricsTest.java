@@ -0,0 +1,51 @@
+package wordy.compiler;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import wordy.compiler.CompilationMetrics.Measurement;
+import wordy.compiler.CompilationMetrics.Phase;
+import wordy.compiler.CompilerTest.TestContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompilationMetricsTest {
+    @Test
+    void recordEachPhase() {
+        var metrics = new CompilationMetrics();
+        String source = "set x to y times 2.";
+        var program = metrics.parse("Metered", source);
+        var executable = metrics.compile(program, "Metered", TestContext.class);
+        var context = executable.createContext();
+        context.set_y(4);
+        metrics.firstRun("Metered", () -> executable.run(context));
+        assertEquals(8, context.get_x());
+
+        var measurements = metrics.getMeasurements("Metered");
+        assertEquals(
+            List.of(Phase.PARSE, Phase.GENERATE, Phase.LOAD, Phase.FIRST_RUN),
+            measurements.stream().map(Measurement::getPhase).toList());
+        for(var m : measurements)
+            assertTrue(m.getDurationNanos() > 0, m::toString);
+        assertEquals(source.length(), measurements.get(0).getOutputSize());
+        assertTrue(measurements.get(1).getOutputSize() > 0);  // bytecode
+        assertEquals(-1, measurements.get(2).getOutputSize());
+        assertTrue(measurements.get(0).getAllocatedBytes() != 0);  // counted, or -1 if unsupported
+
+        var report = metrics.report();
+        assertTrue(report.contains("Metered"), report);
+        assertTrue(report.contains("GENERATE"), report);
+        assertEquals(4, metrics.getTotalDurationNanos().size());
+    }
+
+    @Test
+    void failedWorkIsNotRecorded() {
+        var metrics = new CompilationMetrics();
+        assertThrows(IllegalStateException.class, () ->
+            metrics.measure("Broken", Phase.GENERATE, () -> { throw new IllegalStateException(); }, x -> -1));
+        assertEquals(List.of(), metrics.getMeasurements());
+    }
+}
@@ -0,0 +1,138 @@
+package wordy.compiler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import wordy.compiler.CompilerTest.TestContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static wordy.parser.WordyParser.parseProgram;
+
+public class CompileCacheTest {
+    private static final String PROGRAM = "set x to y times 3.";
+
+    @Test
+    void memoryHit() {
+        var cache = new CompileCache(4);
+        var first = cache.compile(parseProgram(PROGRAM), TestContext.class);
+        var second = cache.compile(parseProgram(PROGRAM), TestContext.class);  // equal, not identical
+        assertSame(first, second);
+        assertCounts(cache, 1, 0, 1, 0);
+        assertEquals(21, run(second, 7));
+    }
+
+    @Test
+    void keyIncludesInterface() {
+        var cache = new CompileCache(4);
+        var first = cache.compile(parseProgram(PROGRAM), TestContext.class);
+        var second = cache.compile(parseProgram(PROGRAM), OtherContext.class);
+        assertNotSame(first, second);
+        assertCounts(cache, 0, 0, 2, 0);
+    }
+
+    @Test
+    void keyIncludesBatchSignature() {
+        var cache = new CompileCache(4);
+        var plain = cache.compile(parseProgram(PROGRAM), TestContext.class);
+        var batch = cache.compileBatch(parseProgram(PROGRAM), TestContext.class, List.of("y"), List.of("x"));
+        var otherBatch = cache.compileBatch(parseProgram(PROGRAM), TestContext.class, List.of("x"), List.of("y"));
+        assertNotSame(plain, batch);
+        assertNotSame(batch, otherBatch);
+        assertSame(batch, cache.compileBatch(parseProgram(PROGRAM), TestContext.class, List.of("y"), List.of("x")));
+        assertCounts(cache, 1, 0, 3, 0);
+
+        var x = new double[1];
+        batch.runBatch(batch.createContext(), new double[][] { { 7 } }, new double[][] { x }, 1);
+        assertEquals(21, x[0]);
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() {
+        var cache = new CompileCache(2);
+        cache.compile(parseProgram("set x to 1."), TestContext.class);
+        cache.compile(parseProgram("set x to 2."), TestContext.class);
+        cache.compile(parseProgram("set x to 1."), TestContext.class);  // 2 is now least recent
+        cache.compile(parseProgram("set x to 3."), TestContext.class);  // evicts 2
+        assertCounts(cache, 1, 0, 3, 1);
+
+        cache.compile(parseProgram("set x to 1."), TestContext.class);
+        cache.compile(parseProgram("set x to 2."), TestContext.class);
+        assertCounts(cache, 2, 0, 4, 2);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void diskHit(@TempDir Path directory) {
+        var writer = new CompileCache(4, directory);
+        writer.compile(parseProgram(PROGRAM), TestContext.class);
+        assertCounts(writer, 0, 0, 1, 0);
+
+        var reader = new CompileCache(4, directory);  // as if in a new process
+        var executable = reader.compile(parseProgram(PROGRAM), TestContext.class);
+        assertCounts(reader, 0, 1, 0, 0);
+        assertEquals(21, run(executable, 7));
+
+        reader.compile(parseProgram(PROGRAM), TestContext.class);
+        assertCounts(reader, 1, 1, 0, 0);
+    }
+
+    @Test
+    void corruptFileIsMiss(@TempDir Path directory) throws IOException {
+        new CompileCache(4, directory).compile(parseProgram(PROGRAM), TestContext.class);
+        try(var files = Files.list(directory)) {
+            for(var file : (Iterable<Path>) files::iterator)
+                Files.write(file, new byte[] { 0, 0, 0, 1, 0x7f });
+        }
+
+        var cache = new CompileCache(4, directory);
+        var executable = cache.compile(parseProgram(PROGRAM), TestContext.class);
+        assertCounts(cache, 0, 0, 1, 0);
+        assertEquals(21, run(executable, 7));
+
+        var repaired = new CompileCache(4, directory);  // the miss rewrote the file
+        repaired.compile(parseProgram(PROGRAM), TestContext.class);
+        assertCounts(repaired, 0, 1, 0, 0);
+    }
+
+    @Test
+    void keysIncludeCompilerVersion(@TempDir Path directory) throws IOException {
+        // A real digest, so that processes running the same build share the disk tier
+        assertTrue(BytecodeCompiler.CODE_VERSION.matches("[0-9a-f]{64}"), BytecodeCompiler.CODE_VERSION);
+
+        new CompileCache(4, directory).compile(parseProgram(PROGRAM), TestContext.class);
+        try(var files = Files.list(directory)) {
+            for(var file : (Iterable<Path>) files::iterator)
+                assertTrue(new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1)
+                    .contains("compiler " + BytecodeCompiler.CODE_VERSION));
+        }
+    }
+
+    public static interface OtherContext extends WordyExecutable.ExecutionContext {
+        double get_x();
+    }
+
+    // ––––––– Helpers –––––––
+
+    private static double run(WordyExecutable<TestContext> executable, double y) {
+        var context = executable.createContext();
+        context.set_y(y);
+        executable.run(context);
+        return context.get_x();
+    }
+
+    private static void assertCounts(CompileCache cache, long hits, long diskHits, long misses, long evictions) {
+        assertEquals(hits, cache.getHits(), "hits");
+        assertEquals(diskHits, cache.getDiskHits(), "diskHits");
+        assertEquals(misses, cache.getMisses(), "misses");
+        assertEquals(evictions, cache.getEvictions(), "evictions");
+    }
+}
@@ -91,7 +91,7 @@ public class CompilerTest {
     @Test
     void compileLoop() {
         assertStatementCompilesTo(
-            "while(true) { context.x = (context.x + 1.0); }",
+            "while(true) { context.x = (context.x + 1.0); context.loopIteration(); }",
             "loop: set x to x plus 1. end of loop");
     }
 
@@ -0,0 +1,149 @@
+package wordy.compiler;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import wordy.interpreter.ExecutionBudget;
+import wordy.interpreter.ExecutionBudgetExceeded;
+import wordy.interpreter.InterpreterEngine;
+import wordy.interpreter.LoopExited;
+import wordy.optimizer.SuperinstructionFusion;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static wordy.parser.WordyParser.parseProgram;
+
+public class MethodHandleCompilerTest {
+    @Test
+    void evaluateExpressions() {
+        assertEvaluationEquals(2001, "2001");
+        assertEvaluationEquals(-1, "2 minus 3");
+        assertEvaluationEquals(2.0 / 3, "2 divided by 3");
+        assertEvaluationEquals(4, "2 squared");
+        assertEvaluationEquals(Math.sqrt(2), "2 to the power of 0.5");
+        assertEvaluationEquals(511.5, "2 to the power of 3 squared minus 1 divided by 2");
+        assertEvaluationEquals(33, "y minus (y plus 3) times (y minus 8)");
+        assertEvaluationEquals(Double.POSITIVE_INFINITY, "1 divided by 0");
+    }
+
+    @Test
+    void executeConditionals() {
+        String program =
+            "if y is less than 12 then set x to y else set x to 0 minus y."
+            + " if y equals 12 then set x to 100."
+            + " if y is greater than 12 then: set x to x times 2. end of conditional.";
+        assertRunEquals(11, program, 11);
+        assertRunEquals(100, program, 12);
+        assertRunEquals(-26, program, 13);
+        assertRunEquals(Double.NaN, program, Double.NaN);  // NaN fails every comparison
+    }
+
+    @Test
+    void executeLoops() {
+        assertRunEquals(10,
+            "set x to 0. loop: set x to x plus 1. if x equals y then exit loop. end of loop.",
+            10);
+        assertRunEquals(6,
+            "loop:"
+            + "  loop: set z to z plus 1. if z is greater than 2 then exit loop. end of loop."
+            + "  set x to x plus z. set z to 0. if x is greater than y then exit loop."
+            + "end of loop.",
+            5);
+        assertRunEquals(3,
+            "loop: set x to x plus 1. if x equals y then: exit loop. set x to 100. end of conditional. end of loop.",
+            3);
+    }
+
+    @Test
+    void exitOutsideLoop() {
+        var executable = compile("set x to 1. exit loop. set x to 2.");
+        var context = executable.createContext();
+        assertThrows(LoopExited.class, () -> executable.run(context));
+        assertEquals(1, context.get(context.slotOf("x")));
+    }
+
+    @Test
+    void executionBudget() {
+        var executable = compile("set x to 0. loop: set x to x plus 1. end of loop.");
+        var context = executable.createContext();
+        context.setExecutionBudget(ExecutionBudget.ofIterations(100));
+        assertThrows(ExecutionBudgetExceeded.class, () -> executable.run(context));
+        assertEquals(101, context.get(context.slotOf("x")));
+    }
+
+    @Test
+    void accessVariablesBySlot() {
+        var executable = compile("set total to a plus b. set b to 0.");
+        var context = executable.createContext();
+        assertEquals(List.of("a", "b", "total"), context.variableNames());
+        int a = context.slotOf("a"), b = context.slotOf("b"), total = context.slotOf("total");
+        assertEquals(-1, context.slotOf("missing"));
+
+        context.set(a, 3);
+        context.set(b, 4);
+        executable.run(context);
+        assertEquals(7, context.get(total));
+        assertEquals(0, context.get(b));
+
+        var values = new double[3];
+        context.copyTo(values);
+        assertArrayEquals(new double[] { 3, 0, 7 }, values);
+        context.copyFrom(new double[] { 10, 20, 0 });
+        executable.run(context);
+        assertEquals(30, context.get(total));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> context.get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> context.set(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> executable.run(compile("set a to 1.").createContext()));
+    }
+
+    @Test
+    void matchesInterpreter() throws Exception {
+        var program = parseProgram(new String(Files.readAllBytes(Paths.get(
+            MethodHandleCompilerTest.class.getResource("/mandel.wordy").toURI()))));
+        var interpreted = InterpreterEngine.CLOSURES.prepare(program);
+
+        for(var compiled : List.of(
+            WordyCompiler.compileToMethodHandles(program),
+            WordyCompiler.compileToMethodHandles(SuperinstructionFusion.fuse(program))
+        )) {
+            for(double x = -1; x <= 1; x += 0.125)
+                for(double y = -1; y <= 1; y += 0.125) {
+                    var compiledContext = compiled.createContext();
+                    compiledContext.set(compiledContext.slotOf("x"), x);
+                    compiledContext.set(compiledContext.slotOf("y"), y);
+                    compiledContext.set(compiledContext.slotOf("view_scale"), 0.01);
+                    compiled.run(compiledContext);
+
+                    var interpretedContext = interpreted.createContext();
+                    interpretedContext.set("x", x);
+                    interpretedContext.set("y", y);
+                    interpretedContext.set("view_scale", 0.01);
+                    interpreted.run(interpretedContext);
+
+                    for(var name : List.of("red", "green", "blue"))
+                        assertEquals(interpretedContext.get(name), compiledContext.get(compiledContext.slotOf(name)));
+                }
+        }
+    }
+
+    private void assertEvaluationEquals(double expectedResult, String expression) {
+        assertRunEquals(expectedResult, "Set x to " + expression + ".", 3);
+    }
+
+    private void assertRunEquals(double expectedResult, String program, double y) {
+        var executable = compile(program + " set y to y.");
+        var context = executable.createContext();
+        context.set(context.slotOf("y"), y);
+        executable.run(context);
+        assertEquals(expectedResult, context.get(context.slotOf("x")));
+    }
+
+    private static WordyExecutable<WordyExecutable.ExecutionContext> compile(String program) {
+        return WordyCompiler.compileToMethodHandles(parseProgram(program));
+    }
+}
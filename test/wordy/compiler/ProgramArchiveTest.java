@@ -0,0 +1,121 @@
+package wordy.compiler;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import wordy.ast.StatementNode;
+import wordy.compiler.BytecodeCompilerTest.ShaderContext;
+import wordy.compiler.CompilerTest.TestContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static wordy.parser.WordyParser.parseProgram;
+
+public class ProgramArchiveTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void exportAndLoad() throws Exception {
+        var programs = new LinkedHashMap<String, StatementNode>();
+        programs.put("double", parseProgram("set x to y times 2."));
+        programs.put("square-it", parseProgram("set x to y squared."));
+        Path jar = tempDir.resolve("out/programs.jar");
+        ProgramArchive.export(programs, TestContext.class, jar);
+
+        try(var archive = ProgramArchive.open(jar)) {
+            assertEquals(Set.of("double", "square-it"), archive.getProgramNames());
+            assertEquals(12, run(archive.load("double", TestContext.class), 6));
+            var square = archive.load("square-it", TestContext.class);
+            assertEquals("wordy.aot.square_it", square.getClass().getName());
+            assertEquals(36, run(square, 6));
+
+            assertThrows(IllegalArgumentException.class, () -> archive.load("missing", TestContext.class));
+            assertThrows(IllegalArgumentException.class, () -> archive.load("double", ShaderContext.class));
+        }
+    }
+
+    @Test
+    void exportFromCommandLine() throws Exception {
+        Path mandel = Paths.get(ProgramArchiveTest.class.getResource("/mandel.wordy").toURI());
+        Path jar = tempDir.resolve("shaders.jar");
+        ProgramArchive.main(new String[] {
+            "--interface", ShaderContext.class.getName(), jar.toString(), mandel.toString() });
+
+        var expected = WordyCompiler.compile(parseProgram(Files.readString(mandel)), "Mandel", ShaderContext.class);
+        try(var archive = ProgramArchive.open(jar)) {
+            assertEquals(Set.of("mandel"), archive.getProgramNames());
+            var loaded = archive.load("mandel", ShaderContext.class);
+            for(double x = -1; x <= 1; x += 0.25) {
+                var expectedContext = expected.createContext();
+                var loadedContext = loaded.createContext();
+                for(var context : new ShaderContext[] { expectedContext, loadedContext }) {
+                    context.set_x(x);
+                    context.set_y(0.5);
+                    context.set_view_scale(0.01);
+                }
+                expected.run(expectedContext);
+                loaded.run(loadedContext);
+                assertEquals(expectedContext.get_red(), loadedContext.get_red());
+                assertEquals(expectedContext.get_blue(), loadedContext.get_blue());
+            }
+        }
+    }
+
+    @Test
+    void rejectsOtherJars() throws Exception {
+        Path jar = tempDir.resolve("plain.jar");
+        try(var out = new java.util.jar.JarOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new java.util.jar.JarEntry("hello.txt"));
+        }
+        assertThrows(java.io.IOException.class, () -> ProgramArchive.open(jar));
+    }
+
+    @Test
+    void rejectsArchivesFromOtherCompilerVersions() throws Exception {
+        Path jar = tempDir.resolve("programs.jar");
+        ProgramArchive.export(Map.of("double", parseProgram("set x to y times 2.")), TestContext.class, jar);
+
+        // Rewrite the manifest as an older build of Wordy would have written it
+        Path stale = tempDir.resolve("stale.jar");
+        try(var in = new java.util.jar.JarFile(jar.toFile())) {
+            var manifest = in.getManifest();
+            manifest.getMainAttributes().put(ProgramArchive.CODE_VERSION_ATTRIBUTE, "stale");
+            try(var out = new java.util.jar.JarOutputStream(Files.newOutputStream(stale), manifest)) {
+                var entries = in.entries();
+                while(entries.hasMoreElements()) {
+                    var entry = entries.nextElement();
+                    if(entry.getName().endsWith(".class")) {
+                        out.putNextEntry(new java.util.jar.JarEntry(entry.getName()));
+                        out.write(in.getInputStream(entry).readAllBytes());
+                    }
+                }
+            }
+        }
+        assertThrows(java.io.IOException.class, () -> ProgramArchive.open(stale));
+        ProgramArchive.open(jar).close();
+    }
+
+    @Test
+    void rejectsClashingNames() {
+        var programs = Map.<String, StatementNode>of(
+            "a-b", parseProgram("set x to 1."),
+            "a_b", parseProgram("set x to 2."));
+        assertThrows(IllegalArgumentException.class, () ->
+            ProgramArchive.export(programs, TestContext.class, tempDir.resolve("clash.jar")));
+    }
+
+    private static double run(WordyExecutable<TestContext> executable, double y) {
+        var context = executable.createContext();
+        context.set_y(y);
+        executable.run(context);
+        return context.get_x();
+    }
+}
@@ -0,0 +1,110 @@
+package wordy.compiler;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import wordy.interpreter.InterpreterEngine;
+
+import static wordy.parser.WordyParser.parseProgram;
+
+/**
+ * Measures how much replacing Math.pow with cheaper operations speeds up mandel.wordy, whose inner
+ * loop squares three times per iteration. The baseline is the same program with its exponents
+ * read from variables, so that no backend can see they are constant; every backend then calls
+ * Math.pow. (The self-specializing interpreter still speculates that a computed exponent of 2
+ * means squaring, so its baseline is already partly reduced.) Run with `gradle benchmark`;
+ * ConstantPowerTest checks that both versions render the same image.
+ */
+@Tag("benchmark")
+public class StrengthReductionBenchmark {
+    private static final int SIZE = 120, PASSES = 5;
+
+    @Test
+    void compareMandel() throws Exception {
+        String source = new String(Files.readAllBytes(Paths.get(
+            StrengthReductionBenchmark.class.getResource("/mandel.wordy").toURI())));
+        var reduced = parseProgram(source);
+        var baseline = parseProgram(source
+            .replace("squared", "to the power of two")
+            .replace("to the power of 0.5", "to the power of one_half"));
+
+        for(var engine : List.of(InterpreterEngine.CLOSURES, InterpreterEngine.SELF_SPECIALIZING, InterpreterEngine.VM)) {
+            var baselineProgram = engine.prepare(baseline);
+            var reducedProgram = engine.prepare(reduced);
+            report(engine.toString(),
+                time(() -> renderInterpreted(baselineProgram)),
+                time(() -> renderInterpreted(reducedProgram)));
+        }
+
+        var baselineCompiled = WordyCompiler.compile(baseline, "BaselineMandel", WordyExecutable.ExecutionContext.class);
+        var reducedCompiled = WordyCompiler.compile(reduced, "ReducedMandel", WordyExecutable.ExecutionContext.class);
+        report("COMPILED",
+            time(() -> renderCompiled(baselineCompiled)),
+            time(() -> renderCompiled(reducedCompiled)));
+    }
+
+    /**
+     * Renders the image, and returns the sum of its red channel as a checksum.
+     */
+    private static double renderInterpreted(wordy.interpreter.InterpretedProgram program) {
+        double checksum = 0;
+        var context = program.createContext();
+        for(int row = 0; row < SIZE; row++)
+            for(int col = 0; col < SIZE; col++) {
+                context.set("x", col * 2.0 / SIZE - 1);
+                context.set("y", row * 2.0 / SIZE - 1);
+                context.set("view_scale", 0.01);
+                if(context.slotOf("two") >= 0) {
+                    context.set("two", 2);
+                    context.set("one_half", 0.5);
+                }
+                program.run(context);
+                checksum += context.get("red");
+            }
+        return checksum;
+    }
+
+    private static double renderCompiled(WordyExecutable<WordyExecutable.ExecutionContext> program) {
+        double checksum = 0;
+        var context = program.createContext();
+        int x = context.slotOf("x"), y = context.slotOf("y"), viewScale = context.slotOf("view_scale"),
+            two = context.slotOf("two"), oneHalf = context.slotOf("one_half"), red = context.slotOf("red");
+        for(int row = 0; row < SIZE; row++)
+            for(int col = 0; col < SIZE; col++) {
+                context.set(x, col * 2.0 / SIZE - 1);
+                context.set(y, row * 2.0 / SIZE - 1);
+                context.set(viewScale, 0.01);
+                if(two >= 0) {
+                    context.set(two, 2);
+                    context.set(oneHalf, 0.5);
+                }
+                program.run(context);
+                checksum += context.get(red);
+            }
+        return checksum;
+    }
+
+    /**
+     * The fastest of several passes, after warming up, in milliseconds.
+     */
+    private static double time(Runnable pass) {
+        for(int warmup = 0; warmup < PASSES; warmup++)
+            pass.run();
+        long best = Long.MAX_VALUE;
+        for(int n = 0; n < PASSES; n++) {
+            long start = System.nanoTime();
+            pass.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e6;
+    }
+
+    private static void report(String label, double baselineMillis, double reducedMillis) {
+        System.out.printf("%-18s Math.pow %7.2f ms   reduced %7.2f ms   (%.2fx)%n",
+            label, baselineMillis, reducedMillis, baselineMillis / reducedMillis);
+    }
+}
@@ -0,0 +1,82 @@
+package wordy.compiler;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import wordy.interpreter.EvaluationContext;
+import wordy.interpreter.ExecutionBudget;
+import wordy.interpreter.ExecutionBudgetExceeded;
+import wordy.interpreter.InterpreterEngine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static wordy.compiler.TieredProgram.Tier.*;
+import static wordy.parser.WordyParser.parseProgram;
+
+public class TieredProgramTest {
+    private static final String PROGRAM =
+        "set total to 0. set i to 0."
+        + " loop: if i equals n then exit loop. set i to i plus 1. set total to total plus i. end of loop.";
+
+    @Test
+    void compileWhenHot() {
+        var pending = new ArrayList<Runnable>();
+        var program = TieredProgram.prepare(parseProgram(PROGRAM), InterpreterEngine.CLOSURES, 3, pending::add);
+        var context = program.createContext();
+
+        for(int run = 1; run <= 5; run++) {
+            assertEquals(run <= 3 ? INTERPRETED : COMPILING, program.getTier(), "before run " + run);
+            assertTotal(10, program, context, 4);
+        }
+        assertEquals(1, pending.size());  // compiled exactly once
+
+        pending.get(0).run();
+        assertEquals(COMPILED, program.getTier());
+        assertTotal(15, program, context, 5);
+        assertTotal(5050, program, context, 100);
+    }
+
+    @Test
+    void transferState() {
+        var program = TieredProgram.prepare(parseProgram(PROGRAM), InterpreterEngine.VM, 0, Runnable::run);
+        assertEquals(COMPILED, program.getTier());
+
+        var context = program.createContext();
+        context.set("total", 1000);  // overwritten by the program
+        context.set("unrelated", 7);  // not a program variable, so left alone
+        assertTotal(6, program, context, 3);
+        assertEquals(3, context.get("i"));
+        assertEquals(7, context.get("unrelated"));
+    }
+
+    @Test
+    void transferBudget() {
+        var program = TieredProgram.prepare(parseProgram(PROGRAM), InterpreterEngine.VM, 0, Runnable::run);
+        var context = program.createContext();
+        context.set("n", 1000);
+        context.setExecutionBudget(ExecutionBudget.ofIterations(10));
+        assertThrows(ExecutionBudgetExceeded.class, () -> program.run(context));
+        assertEquals(11, context.get("i"));  // state copied back when the budget ran out
+    }
+
+    @Test
+    void reuseCompiledContext() {
+        var program = TieredProgram.prepare(parseProgram(PROGRAM), InterpreterEngine.VM, 0, Runnable::run);
+        var first = program.createContext();
+        var second = first.fork();
+        assertTotal(6, program, first, 3);
+        assertTotal(1, program, second, 1);  // nothing carried over from the other context’s run
+        assertTotal(6, program, first, 3);
+        assertEquals(1, second.get("i"));
+
+        var foreign = TieredProgram.prepare(parseProgram(PROGRAM), InterpreterEngine.VM, 0, Runnable::run);
+        assertThrows(IllegalArgumentException.class, () -> foreign.run(first));
+    }
+
+    private static void assertTotal(double expected, TieredProgram program, EvaluationContext context, double n) {
+        context.set("n", n);
+        program.run(context);
+        assertEquals(expected, context.get("total"));
+    }
+}
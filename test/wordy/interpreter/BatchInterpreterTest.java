@@ -0,0 +1,147 @@
+package wordy.interpreter;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static wordy.parser.WordyParser.parseProgram;
+
+public class BatchInterpreterTest {
+    private BatchInterpreter.Program program;
+    private BatchInterpreter.Batch batch;
+
+    @Test
+    void evaluateExpressions() {
+        prepare("set result to b minus (a plus 3) times (a minus 8) divided by 2.", 3);
+        setLanes("a", 10, 0, -1);
+        setLanes("b", 3, 1, 2);
+        run(3);
+        assertLanesEquals("result", -10, 13, 11);
+    }
+
+    @Test
+    void conditionalsUseLaneMasks() {
+        prepare(
+            "if x is less than 12 then set lt to x else set lt to lt minus 1."
+            + "if x equals 12 then set eq to x. "
+            + "if x is greater than y then: set gt to x. end of conditional.",
+            4);
+        setLanes("x", 11, 12, 13, 12);
+        setLanes("y", 0, 20, 0, 0);
+        run(4);
+        assertLanesEquals("lt", 11, -1, -1, -1);
+        assertLanesEquals("eq", 0, 12, 0, 12);
+        assertLanesEquals("gt", 11, 0, 13, 12);
+    }
+
+    @Test
+    void loopsRunUntilEveryLaneExits() {
+        prepare(
+            "set n to 0."
+            + " loop: if n equals limit then exit loop. set n to n plus 1. set sum to sum plus n. end of loop.",
+            3);
+        setLanes("limit", 3, 0, 5);
+        run(3);
+        assertLanesEquals("n", 3, 0, 5);
+        assertLanesEquals("sum", 6, 0, 15);
+    }
+
+    @Test
+    void loopExitOnlyLeavesInnermostLoop() {
+        prepare(
+            "loop:"
+            + "  loop: set y to y plus 1. if y is greater than limit then exit loop. end of loop."
+            + "  set x to x plus 1. if x equals 2 then exit loop."
+            + "end of loop.",
+            2);
+        setLanes("limit", 1, 4);
+        run(2);
+        assertLanesEquals("x", 2, 2);
+        assertLanesEquals("y", 3, 6);
+    }
+
+    @Test
+    void onlyRunsRequestedLanes() {
+        prepare("set y to x plus 1.", 4);
+        setLanes("x", 1, 2, 3, 4);
+        run(2);
+        assertLanesEquals("y", 2, 3, 0, 0);
+    }
+
+    @Test
+    void exitOutsideLoop() {
+        prepare("set x to 1. if a equals 1 then exit loop. set x to 2.", 2);
+        setLanes("a", 0, 1);
+        assertThrows(LoopExited.class, () -> run(2));
+        assertLanesEquals("x", 2, 1);
+    }
+
+    @Test
+    void matchesScalarEngine() throws Exception {
+        var source = parseProgram(new String(Files.readAllBytes(Paths.get(
+            BatchInterpreterTest.class.getResource("/mandel.wordy").toURI()))));
+        var scalar = InterpreterEngine.CLOSURES.prepare(source);
+        program = BatchInterpreter.prepare(source);
+
+        int width = 33;
+        batch = program.createBatch(width);
+        batch.fill("view_scale", 0.01);
+        double[] x = batch.lanes("x");
+        for(int i = 0; i < width; i++)
+            x[i] = (i - width / 2) / 16.0;
+
+        for(double y = -1; y <= 1; y += 0.125) {
+            batch.fill("y", y);
+            run(width);
+            for(int i = 0; i < width; i++) {
+                var context = scalar.createContext();
+                context.set("view_scale", 0.01);
+                context.set("x", x[i]);
+                context.set("y", y);
+                scalar.run(context);
+                for(var name : context.allVariables().keySet())
+                    assertEquals(context.get(name), batch.lanes(name)[i], name + " at (" + x[i] + "," + y + ")");
+            }
+        }
+    }
+
+    @Test
+    void variablesNotInProgram() {
+        prepare("set y to 1.", 2);
+        batch.fill("unused", 7);
+        run(2);
+        assertLanesEquals("unused", 7, 7);
+        assertLanesEquals("y", 1, 1);
+    }
+
+    @Test
+    void rejectForeignBatch() {
+        prepare("set y to 1.", 2);
+        var other = BatchInterpreter.prepare(parseProgram("set y to 1.")).createBatch(2);
+        assertThrows(IllegalArgumentException.class, () -> program.run(other, 2));
+        assertThrows(IllegalArgumentException.class, () -> program.run(batch, 3));
+    }
+
+    // –––––– Helpers ––––––
+
+    private void prepare(String source, int capacity) {
+        program = BatchInterpreter.prepare(parseProgram(source));
+        batch = program.createBatch(capacity);
+    }
+
+    private void run(int count) {
+        program.run(batch, count);
+    }
+
+    private void setLanes(String name, double... values) {
+        System.arraycopy(values, 0, batch.lanes(name), 0, values.length);
+    }
+
+    private void assertLanesEquals(String name, double... expected) {
+        assertArrayEquals(expected, batch.lanes(name), name);
+    }
+}
@@ -0,0 +1,97 @@
+package wordy.interpreter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static wordy.parser.WordyParser.parseProgram;
+
+public class ClosureCompilerTest {
+    private EvaluationContext context;
+
+    @Test
+    void evaluateExpressions() {
+        assertEvaluationEquals(2001, "2001");
+        assertEvaluationEquals(5, "2 plus 3");
+        assertEvaluationEquals(-1, "2 minus 3");
+        assertEvaluationEquals(6, "2 times 3");
+        assertEvaluationEquals(2.0 / 3, "2 divided by 3");
+        assertEvaluationEquals(4, "2 squared");
+        assertEvaluationEquals(511.5, "2 to the power of 3 squared minus 1 divided by 2");
+        assertEvaluationEquals(13, "a plus 3");
+        assertEvaluationEquals(7, "10 minus b");
+        assertEvaluationEquals(30, "a times b");
+        assertEvaluationEquals(33, "a times b plus 3");
+        assertEvaluationEquals(-23, "b minus (a plus 3) times (a minus 8)");
+    }
+
+    @Test
+    void executeConditional() {
+        String program =
+            "if x is less than 12 then set lt to x else set lt to lt minus 1."
+            + "if x equals 12 then set eq to x else set eq to eq minus 1."
+            + "if x is greater than x minus 1 then: set gt to x. end of conditional.";
+        var compiled = ClosureCompiler.compile(parseProgram(program));
+        context = compiled.createContext();
+
+        context.set("x", 11);
+        compiled.run(context);
+        assertVariableEquals("lt", 11);
+        assertVariableEquals("eq", -1);
+        assertVariableEquals("gt", 11);
+
+        context.set("x", 12);
+        compiled.run(context);
+        assertVariableEquals("lt", 10);
+        assertVariableEquals("eq", 12);
+        assertVariableEquals("gt", 12);
+    }
+
+    @Test
+    void executeLoop() {
+        runProgram("loop: set x to x plus 1. if x equals 10 then exit loop. set y to y plus x squared. end of loop.");
+        assertVariableEquals("x", 10);
+        assertVariableEquals("y", 285);
+    }
+
+    @Test
+    void loopExitOnlyLeavesInnermostLoop() {
+        runProgram(
+            "loop:"
+            + "  set i to i plus 1. set j to 0."
+            + "  loop: set j to j plus 1. set total to total plus 1. if j equals i then exit loop. end of loop."
+            + "  if i equals 4 then exit loop."
+            + "end of loop.");
+        assertVariableEquals("i", 4);
+        assertVariableEquals("total", 10);
+    }
+
+    @Test
+    void exitOutsideLoop() {
+        assertThrows(LoopExited.class, () -> runProgram("set x to 1. exit loop. set x to 2."));
+        assertVariableEquals("x", 1);
+    }
+
+    @Test
+    void rejectsForeignContext() {
+        var compiled = ClosureCompiler.compile(parseProgram("set x to 1."));
+        assertThrows(IllegalArgumentException.class, () -> compiled.run(new EvaluationContext()));
+    }
+
+    // ––––––– Helpers –––––––
+
+    private void assertEvaluationEquals(double expected, String expression) {
+        runProgram("set a to 10. set b to 3. set result to " + expression + ".");
+        assertVariableEquals("result", expected);
+    }
+
+    private void runProgram(String program) {
+        var compiled = ClosureCompiler.compile(parseProgram(program));
+        context = compiled.createContext();
+        compiled.run(context);
+    }
+
+    private void assertVariableEquals(String name, double expectedValue) {
+        assertEquals(expectedValue, context.get(name));
+    }
+}
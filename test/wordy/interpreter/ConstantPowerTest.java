@@ -0,0 +1,153 @@
+package wordy.interpreter;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import wordy.ast.AssignmentNode;
+import wordy.ast.BinaryExpressionNode;
+import wordy.ast.ConstantNode;
+import wordy.ast.VariableNode;
+import wordy.compiler.TieredProgram;
+import wordy.compiler.WordyCompiler;
+import wordy.compiler.WordyExecutable;
+import wordy.optimizer.ConstantFolding;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static wordy.ast.BinaryExpressionNode.Operator.EXPONENTIATION;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static wordy.parser.WordyParser.parseProgram;
+
+public class ConstantPowerTest {
+    private static final double[] SPECIAL_VALUES = {
+        0.0, -0.0, 1, -1, 0.5, -2.5, 1e-320, 1e200, -1e200,
+        Double.MIN_VALUE, Double.MAX_VALUE, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN
+    };
+
+    @Test
+    void findReplacements() {
+        assertEquals(ConstantPower.TWO, ConstantPower.of(2));
+        assertEquals(ConstantPower.ZERO, ConstantPower.of(-0.0));
+        assertEquals(ConstantPower.ONE_HALF, ConstantPower.of(0.5));
+        assertNull(ConstantPower.of(0.3));
+        assertNull(ConstantPower.of(Double.NaN));
+        assertEquals(Math.pow(3, 0.3), ConstantPower.pow(3, 0.3));
+    }
+
+    @Test
+    void exactReplacementsMatchMathPow() {
+        for(var power : List.of(ConstantPower.ZERO, ConstantPower.ONE, ConstantPower.TWO, ConstantPower.ONE_HALF))
+            for(double x : inputs())
+                assertEquals(Math.pow(x, power.getExponent()), power.apply(x), power + " of " + x);
+    }
+
+    @Test
+    void otherReplacementsAreClose() {
+        for(var power : List.of(ConstantPower.THREE, ConstantPower.FOUR, ConstantPower.MINUS_ONE)) {
+            for(double x : SPECIAL_VALUES)
+                if(Math.abs(x) > 1e-300 && Math.abs(x) < 1e30)  // multiply chains may under/overflow early
+                    assertEquals(Math.pow(x, power.getExponent()), power.apply(x), 2 * Math.ulp(power.apply(x)));
+            for(double x : SPECIAL_VALUES)
+                if(Double.isNaN(x) || Double.isInfinite(x) || x == 0)
+                    assertEquals(Math.pow(x, power.getExponent()), power.apply(x), power + " of " + x);
+            for(double x : inputs())
+                if(Math.abs(x) > 1e-60 && Math.abs(x) < 1e60) {
+                    double expected = Math.pow(x, power.getExponent());
+                    assertEquals(expected, power.apply(x), 2 * Math.ulp(expected), power + " of " + x);
+                }
+        }
+    }
+
+    @Test
+    void allBackendsAgree() {
+        for(double exponent : new double[] { 0, 1, 2, 3, 4, -1, 0.5, 0.3 }) {
+            var program = parseProgram("set y to x to the power of " + exponent + ".");
+            var compiled = WordyCompiler.compile(program, "PowerProgram", WordyExecutable.ExecutionContext.class);
+            var batchProgram = BatchInterpreter.prepare(program);
+            var batch = batchProgram.createBatch(SPECIAL_VALUES.length);
+            System.arraycopy(SPECIAL_VALUES, 0, batch.lanes("x"), 0, SPECIAL_VALUES.length);
+            batchProgram.run(batch, SPECIAL_VALUES.length);
+
+            for(int i = 0; i < SPECIAL_VALUES.length; i++) {
+                double x = SPECIAL_VALUES[i], expected = ConstantPower.pow(x, exponent);
+                String description = x + " to the power of " + exponent;
+
+                for(var engine : List.of(InterpreterEngine.CLOSURES, InterpreterEngine.SELF_SPECIALIZING, InterpreterEngine.VM)) {
+                    var interpreted = engine.prepare(program);
+                    var context = interpreted.createContext();
+                    context.set("x", x);
+                    interpreted.run(context);
+                    assertEquals(expected, context.get("y"), engine + ": " + description);
+                }
+
+                var compiledContext = compiled.createContext();
+                compiledContext.set(compiledContext.slotOf("x"), x);
+                compiled.run(compiledContext);
+                assertEquals(expected, compiledContext.get(compiledContext.slotOf("y")), "compiled: " + description);
+
+                assertEquals(expected, batch.lanes("y")[i], "batch: " + description);
+
+                var folded = (AssignmentNode) ConstantFolding.fold(new AssignmentNode(
+                    new VariableNode("y"),
+                    new BinaryExpressionNode(EXPONENTIATION, new ConstantNode(x), new ConstantNode(exponent))));
+                assertEquals(expected, ((ConstantNode) folded.getExpression()).getValue(), "folded: " + description);
+            }
+        }
+    }
+
+    @Test
+    void mandelMatchesMathPow() throws Exception {
+        // The baseline reads its exponents from variables, so that no backend can see they are
+        // constant and every one of them calls Math.pow
+        String source = new String(Files.readAllBytes(Paths.get(
+            ConstantPowerTest.class.getResource("/mandel.wordy").toURI())));
+        var reduced = parseProgram(source);
+        var baseline = parseProgram(source
+            .replace("squared", "to the power of two")
+            .replace("to the power of 0.5", "to the power of one_half"));
+
+        for(var engine : List.of(InterpreterEngine.CLOSURES, InterpreterEngine.SELF_SPECIALIZING, InterpreterEngine.VM))
+            assertArrayEquals(render(engine.prepare(baseline)), render(engine.prepare(reduced)), engine.toString());
+        assertArrayEquals(
+            render(TieredProgram.prepare(baseline, InterpreterEngine.CLOSURES, 0, Runnable::run)),
+            render(TieredProgram.prepare(reduced, InterpreterEngine.CLOSURES, 0, Runnable::run)),
+            "compiled");
+    }
+
+    /**
+     * Renders a small image with mandel.wordy, and returns its red channel.
+     */
+    private static double[] render(InterpretedProgram program) {
+        int size = 24;
+        var result = new double[size * size];
+        var context = program.createContext();
+        for(int row = 0; row < size; row++)
+            for(int col = 0; col < size; col++) {
+                context.set("x", col * 2.0 / size - 1);
+                context.set("y", row * 2.0 / size - 1);
+                context.set("view_scale", 0.01);
+                context.set("two", 2);
+                context.set("one_half", 0.5);
+                program.run(context);
+                result[row * size + col] = context.get("red");
+            }
+        return result;
+    }
+
+    private static List<Double> inputs() {
+        var result = new ArrayList<Double>();
+        for(double x : SPECIAL_VALUES)
+            result.add(x);
+        var random = new Random(0);
+        for(int n = 0; n < 10_000; n++) {
+            result.add(random.nextDouble() * 200 - 100);
+            result.add(Double.longBitsToDouble(random.nextLong()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,128 @@
+package wordy.interpreter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static wordy.parser.WordyParser.parseProgram;
+
+public class EvaluationContextTest {
+    @Test
+    void resolveSlots() {
+        var slots = VariableSlots.resolve(parseProgram("set y to x plus 1. set x to y times z."));
+        assertEquals(3, slots.size());
+        assertEquals(0, slots.slotOf("y"));
+        assertEquals(1, slots.slotOf("x"));
+        assertEquals(2, slots.slotOf("z"));
+        assertEquals(-1, slots.slotOf("fish"));
+        assertEquals("z", slots.nameOf(2));
+    }
+
+    @Test
+    void namesAndSlotsShareStorage() {
+        var context = new EvaluationContext(
+            VariableSlots.resolve(parseProgram("set a to b.")));
+        int a = context.slotOf("a");
+        context.set("a", 3);
+        assertEquals(3, context.get(a));
+        context.set(a, 4);
+        assertEquals(4, context.get("a"));
+        assertEquals(0, context.get("b"));
+        assertEquals(0, context.get("fish"));
+    }
+
+    @Test
+    void unresolvedNamesGetNewSlots() {
+        var slots = VariableSlots.resolve(parseProgram("set a to 1."));
+        var context = new EvaluationContext(slots);
+        context.set("extra", 7);
+        assertEquals(7, context.get("extra"));
+        assertNotEquals(context.slotOf("a"), context.slotOf("extra"));
+
+        // Shared slots are unaffected by names one context adds
+        assertEquals(-1, slots.slotOf("extra"));
+        assertEquals(0, new EvaluationContext(slots).get("extra"));
+    }
+
+    @Test
+    void allVariablesIsLiveView() {
+        var context = new EvaluationContext();
+        Map<String, Double> variables = context.allVariables();
+        context.set("x", 1);
+        context.set("y", 2);
+        assertEquals(Map.of("x", 1.0, "y", 2.0), variables);
+        context.set("x", 3);
+        assertEquals(3.0, variables.get("x"));
+        assertEquals(null, variables.get("z"));
+    }
+
+    @Test
+    void forksAreIndependent() {
+        var base = new EvaluationContext(VariableSlots.resolve(parseProgram("set y to x.")));
+        base.set("x", 1);
+        base.set("view_scale", 0.5);
+
+        var fork = base.fork();
+        assertEquals(Map.of("y", 0.0, "x", 1.0, "view_scale", 0.5), fork.allVariables());
+
+        fork.set("x", 2);
+        fork.set("extra", 3);
+        base.set("y", 4);
+        assertEquals(Map.of("y", 0.0, "x", 2.0, "view_scale", 0.5, "extra", 3.0), fork.allVariables());
+        assertEquals(Map.of("y", 4.0, "x", 1.0, "view_scale", 0.5), base.allVariables());
+
+        // Forks of forks, and several forks of one base
+        var grandchild = fork.fork();
+        var sibling = base.fork();
+        grandchild.set("x", 5);
+        sibling.set("x", 6);
+        assertEquals(2, fork.get("x"));
+        assertEquals(5, grandchild.get("x"));
+        assertEquals(6, sibling.get("x"));
+        assertEquals(1, base.get("x"));
+    }
+
+    @Test
+    void forkCopiesFrameBeforeEngineWrites() {
+        var program = InterpreterEngine.CLOSURES.prepare(parseProgram("set y to x plus 1."));
+        var base = program.createContext();
+        base.set("x", 10);
+
+        var fork = base.fork();
+        program.run(fork);  // requires the fork to keep the program’s layout
+        assertEquals(11, fork.get("y"));
+        assertEquals(0, base.get("y"));
+
+        program.run(base);
+        assertEquals(11, base.get("y"));
+    }
+
+    @Test
+    void forkFromManyThreads() throws Exception {
+        var program = InterpreterEngine.CLOSURES.prepare(parseProgram("set y to x plus 1."));
+        var base = program.createContext();
+        base.set("x", 10);
+
+        var threads = Executors.newFixedThreadPool(4);
+        try {
+            var forks = new ArrayList<Future<EvaluationContext>>();
+            for(int n = 0; n < 100; n++)
+                forks.add(threads.submit(base::fork));
+            for(var fork : forks)
+                fork.get();
+
+            program.run(base);  // must copy first, as every fork shares its storage
+            for(var fork : forks) {
+                assertEquals(10, fork.get().get("x"));
+                assertEquals(0, fork.get().get("y"));
+            }
+        } finally {
+            threads.shutdown();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package wordy.interpreter;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static wordy.parser.WordyParser.parseProgram;
+
+public class ExecutionBudgetTest {
+    private static final List<InterpreterEngine> ENGINES = List.of(
+        InterpreterEngine.CLOSURES, InterpreterEngine.SELF_SPECIALIZING, InterpreterEngine.VM);
+
+    @Test
+    void fuelIsExact() {
+        for(long fuel : new long[] { 0, 1, 5, ExecutionBudget.CHECK_INTERVAL, 3000 }) {
+            var budget = ExecutionBudget.ofIterations(fuel);
+            for(long n = 0; n < fuel; n++)
+                budget.loopIteration();
+            assertExceeded(ExecutionBudgetExceeded.Reason.FUEL, budget::loopIteration);
+            assertExceeded(ExecutionBudgetExceeded.Reason.FUEL, budget::loopIteration);  // stays exceeded
+        }
+    }
+
+    @Test
+    void cancel() {
+        var budget = ExecutionBudget.unlimited();
+        for(int n = 0; n < 10 * ExecutionBudget.CHECK_INTERVAL; n++)
+            budget.loopIteration();
+        budget.cancel();
+        assertExceeded(ExecutionBudgetExceeded.Reason.CANCELLED, () -> {
+            for(int n = 0; n <= ExecutionBudget.CHECK_INTERVAL; n++)
+                budget.loopIteration();
+        });
+    }
+
+    @Test
+    void deadline() {
+        var budget = ExecutionBudget.ofTime(Duration.ZERO);
+        assertExceeded(ExecutionBudgetExceeded.Reason.DEADLINE, () -> {
+            for(int n = 0; n <= ExecutionBudget.CHECK_INTERVAL; n++)
+                budget.loopIteration();
+        });
+    }
+
+    @Test
+    void stopInfiniteLoop() {
+        var program = parseProgram("set x to 0. loop: set x to x plus 1. end of loop.");
+        for(var engine : ENGINES) {
+            var prepared = engine.prepare(program);
+            var context = prepared.createContext();
+            context.setExecutionBudget(ExecutionBudget.ofIterations(100));
+            assertThrows(ExecutionBudgetExceeded.class, () -> prepared.run(context), engine.toString());
+            assertEquals(101, context.get("x"), engine.toString());  // stopped at the 101st back-edge
+        }
+    }
+
+    @Test
+    void chargeOnlyBackEdges() {
+        var program = parseProgram(
+            "loop:"
+            + "  loop: set y to y plus 1. if y is greater than 2 then exit loop. end of loop."
+            + "  set y to 0. set x to x plus 1. if x equals 3 then exit loop."
+            + "end of loop.");
+        for(var engine : ENGINES) {
+            var prepared = engine.prepare(program);
+            var context = prepared.createContext();
+            context.setExecutionBudget(ExecutionBudget.ofIterations(2 * 3 + 2));  // inner 2 per pass, outer 2
+            prepared.run(context);
+            assertEquals(3, context.get("x"), engine.toString());
+
+            context.set("x", 0);
+            context.setExecutionBudget(ExecutionBudget.ofIterations(2 * 3 + 1));
+            assertThrows(ExecutionBudgetExceeded.class, () -> prepared.run(context), engine.toString());
+        }
+    }
+
+    @Test
+    void stopBatch() {
+        var program = BatchInterpreter.prepare(
+            parseProgram("loop: if x equals limit then exit loop. set x to x plus 1. end of loop."));
+        var batch = program.createBatch(2);
+        batch.lanes("limit")[0] = 3;
+        batch.lanes("limit")[1] = -1;  // never reached
+        batch.setExecutionBudget(ExecutionBudget.ofIterations(10));
+        assertThrows(ExecutionBudgetExceeded.class, () -> program.run(batch, 2));
+        assertEquals(3, batch.lanes("x")[0]);
+        assertEquals(11, batch.lanes("x")[1]);
+    }
+
+    private static void assertExceeded(ExecutionBudgetExceeded.Reason expected, Runnable action) {
+        assertEquals(expected, assertThrows(ExecutionBudgetExceeded.class, action::run).getReason());
+    }
+}
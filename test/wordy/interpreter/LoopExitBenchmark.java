@@ -0,0 +1,92 @@
+package wordy.interpreter;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static wordy.parser.WordyParser.parseProgram;
+
+/**
+ * Compares the cost of exiting a loop by different mechanisms:
+ * <ul>
+ * <li> a conventional exception that captures its stack trace (what LoopExited used to be),
+ * <li> the stackless, preallocated LoopExited.INSTANCE, and
+ * <li> the structured completion signal the closure engine returns from each statement.
+ * </ul>
+ * The first two throw from a few frames below the loop, as the tree-walking interpreter does.
+ * Run with `gradle benchmark`.
+ */
+@Tag("benchmark")
+public class LoopExitBenchmark {
+    private static final int EXITS = 200_000, DEPTH = 4;
+
+    // An inner loop that exits after every 3 iterations, run many times
+    private static final String PROGRAM =
+        """
+        Loop:
+            Set i to i plus 1.
+            Set j to 0.
+            Loop:
+                Set j to j plus 1.
+                If j is greater than 2 then exit loop.
+            End of loop.
+            If i equals %d then exit loop.
+        End of loop.
+        """.formatted(EXITS);
+
+    @Test
+    void compareLoopExitMechanisms() {
+        for(int warmup = 0; warmup < 3; warmup++) {
+            exitBy(() -> new RuntimeException());
+            exitBy(() -> LoopExited.INSTANCE);
+            runClosures();
+        }
+
+        report("stack-capturing exception", time(() -> exitBy(() -> new RuntimeException())));
+        report("LoopExited.INSTANCE", time(() -> exitBy(() -> LoopExited.INSTANCE)));
+        report("structured completion", time(this::runClosures));
+    }
+
+    private void runClosures() {
+        var program = ClosureCompiler.compile(parseProgram(PROGRAM));
+        var context = program.createContext();
+        program.run(context);
+        assertEquals(EXITS, context.get("i"));
+    }
+
+    /**
+     * Simulates the tree walker: each iteration calls down a few frames, then throws to the loop.
+     */
+    private static void exitBy(ExitSignal signal) {
+        int exits = 0;
+        for(int n = 0; n < EXITS; n++) {
+            try {
+                while(true)
+                    runNested(DEPTH, signal);
+            } catch(RuntimeException e) {
+                exits++;
+            }
+        }
+        assertEquals(EXITS, exits);
+    }
+
+    private static void runNested(int depth, ExitSignal signal) {
+        if(depth == 0)
+            throw signal.create();
+        runNested(depth - 1, signal);
+    }
+
+    private interface ExitSignal {
+        RuntimeException create();
+    }
+
+    private static long time(Runnable task) {
+        long start = System.nanoTime();
+        task.run();
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String label, long nanos) {
+        System.out.printf("%-26s %8.1f ns/exit%n", label, (double) nanos / EXITS);
+    }
+}
@@ -0,0 +1,129 @@
+package wordy.interpreter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static wordy.parser.WordyParser.parseProgram;
+
+public class SpecializingInterpreterTest {
+    private SpecializingInterpreter.Program program;
+    private EvaluationContext context;
+
+    @Test
+    void executePrograms() {
+        prepare("set a to 10. set b to 3. set result to b minus (a plus 3) times (a minus 8) divided by 2.");
+        run();
+        assertVariableEquals("result", -10);
+
+        prepare("loop: set x to x plus 1. if x equals 10 then exit loop. set y to y plus x squared. end of loop.");
+        run();
+        assertVariableEquals("x", 10);
+        assertVariableEquals("y", 285);
+
+        prepare("set x to 1. exit loop. set x to 2.");
+        assertThrows(LoopExited.class, this::run);
+        assertVariableEquals("x", 1);
+    }
+
+    @Test
+    void specializeOnFirstRun() {
+        prepare("set y to x squared plus x to the power of 3.");
+        assertEquals(
+            """
+            Block ← BlockNode
+              0: UnresolvedAssignment ← AssignmentNode
+                rhs: UninitializedBinary ← BinaryExpressionNode
+                  lhs: UninitializedBinary ← BinaryExpressionNode
+                    lhs: UnresolvedRead ← VariableNode
+                    rhs: Constant ← ConstantNode
+                  rhs: UninitializedBinary ← BinaryExpressionNode
+                    lhs: UnresolvedRead ← VariableNode
+                    rhs: Constant ← ConstantNode
+            """,
+            program.dump());
+
+        context.set("x", 3);
+        run();
+        assertVariableEquals("y", 36);
+        assertEquals(
+            """
+            Block ← BlockNode
+              0: SlotAssignment ← AssignmentNode
+                rhs: Add ← BinaryExpressionNode
+                  lhs: Square ← BinaryExpressionNode
+                    lhs: SlotRead ← VariableNode
+                    rhs: Constant ← ConstantNode
+                  rhs: ReducedPower ← BinaryExpressionNode
+                    lhs: SlotRead ← VariableNode
+                    rhs: Constant ← ConstantNode
+            """,
+            program.dump());
+    }
+
+    @Test
+    void deoptimizeComputedExponent() {
+        prepare("set y to x to the power of e.");
+        context.set("x", 3);
+        context.set("e", 2);
+        run();
+        assertVariableEquals("y", 9);
+        assertDumpContains("SquareIfExponentIsTwo");
+
+        context.set("e", 3);
+        run();
+        assertVariableEquals("y", 27);
+        assertDumpContains("Power");
+
+        context.set("e", 2);
+        run();
+        assertVariableEquals("y", 9);
+        assertDumpContains("Power");  // does not re-specialize
+    }
+
+    @Test
+    void profileConditionals() {
+        prepare("if x is less than 0 then set sign to -1 else set sign to 1.");
+        context.set("x", 5);
+        for(int n = 0; n < SpecializingInterpreter.CONDITIONAL_PROFILE_RUNS; n++)
+            run();
+        assertVariableEquals("sign", 1);
+        assertDumpContains("OnlyFalseBranch");
+
+        context.set("x", -5);
+        run();
+        assertVariableEquals("sign", -1);
+        assertDumpContains("BothBranches");
+    }
+
+    @Test
+    void astIsUnchanged() {
+        var ast = parseProgram("set y to x squared.");
+        var originalDump = ast.dump();
+        var specializing = SpecializingInterpreter.prepare(ast);
+        specializing.run(specializing.createContext());
+        assertEquals(originalDump, ast.dump());
+        assertEquals(parseProgram("set y to x squared."), ast);
+    }
+
+    // ––––––– Helpers –––––––
+
+    private void prepare(String source) {
+        program = SpecializingInterpreter.prepare(parseProgram(source));
+        context = program.createContext();
+    }
+
+    private void run() {
+        program.run(context);
+    }
+
+    private void assertDumpContains(String nodeName) {
+        var dump = program.dump();
+        if(!dump.contains(nodeName + " ←"))
+            throw new AssertionError("Expected " + nodeName + " in:\n" + dump);
+    }
+
+    private void assertVariableEquals(String name, double expectedValue) {
+        assertEquals(expectedValue, context.get(name));
+    }
+}
@@ -0,0 +1,132 @@
+package wordy.interpreter;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import wordy.ast.ASTNode;
+import wordy.ast.ExpressionNode;
+import wordy.ast.StatementNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures the per-node overhead of run() and evaluate() in traced and untraced contexts. Uses its
+ * own trivial node types, so that it measures only the interpreter’s plumbing and not any
+ * particular node’s doRun() / doEvaluate(). Whether untraced execution allocates depends on the
+ * JIT’s escape analysis, so this only runs with `gradle benchmark`.
+ */
+@Tag("benchmark")
+public class UntracedExecutionBenchmark {
+    private static final int DEPTH = 100, RUNS = 20_000;
+
+    @Test
+    void untracedExecutionDoesNotAllocate() {
+        var program = new StoreResult(chain(DEPTH));
+        var untraced = new EvaluationContext();
+        var traced = new EvaluationContext((node, ctx, phase, result) -> { });
+
+        measure("warmup", program, untraced);
+        measure("warmup", program, traced);
+
+        double tracedBytesPerNode = measure("traced", program, traced);
+        double untracedBytesPerNode = measure("untraced", program, untraced);
+
+        assertEquals(DEPTH, untraced.get("result"));
+        assertTrue(untracedBytesPerNode < 0.01,
+            "untraced execution allocated " + untracedBytesPerNode + " bytes per node");
+        assertTrue(tracedBytesPerNode >= untracedBytesPerNode);
+    }
+
+    private static double measure(String label, StatementNode program, EvaluationContext context) {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long startBytes = threads.getThreadAllocatedBytes(threadId);
+        long startTime = System.nanoTime();
+        for(int n = 0; n < RUNS; n++)
+            program.run(context);
+        long elapsed = System.nanoTime() - startTime;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - startBytes;
+
+        long nodes = (long) RUNS * (DEPTH + 1);
+        double bytesPerNode = (double) allocated / nodes;
+        System.out.printf("%-9s %6.2f ns/node  %6.2f bytes/node%n",
+            label, (double) elapsed / nodes, bytesPerNode);
+        return bytesPerNode;
+    }
+
+    private static ExpressionNode chain(int depth) {
+        ExpressionNode node = new Increment(null);
+        for(int n = 1; n < depth; n++)
+            node = new Increment(node);
+        return node;
+    }
+
+    // ––––––– Minimal nodes –––––––
+
+    /**
+     * Evaluates to its child’s value plus one (or to 1 if it has no child).
+     */
+    private static class Increment extends ExpressionNode {
+        private final ExpressionNode child;
+
+        Increment(ExpressionNode child) {
+            this.child = child;
+        }
+
+        @Override
+        protected double doEvaluate(EvaluationContext context) {
+            return (child == null ? 0 : child.evaluate(context)) + 1;
+        }
+
+        @Override
+        public Map<String, ASTNode> getChildren() {
+            return (child == null) ? Map.of() : Map.of("child", child);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return this == obj;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+
+    /**
+     * Stores the value of its expression in the variable “result.”
+     */
+    private static class StoreResult extends StatementNode {
+        private final ExpressionNode expression;
+
+        StoreResult(ExpressionNode expression) {
+            this.expression = expression;
+        }
+
+        @Override
+        protected void doRun(EvaluationContext context) {
+            context.set("result", expression.evaluate(context));
+        }
+
+        @Override
+        public Map<String, ASTNode> getChildren() {
+            return Map.of("expression", expression);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return this == obj;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package wordy.optimizer;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+import org.junit.jupiter.api.Test;
+
+import wordy.ast.AssignmentNode;
+import wordy.ast.BinaryExpressionNode;
+import wordy.ast.BlockNode;
+import wordy.ast.ConstantNode;
+import wordy.ast.ExpressionNode;
+import wordy.ast.LoopNode;
+import wordy.ast.StatementNode;
+import wordy.ast.VariableNode;
+import wordy.compiler.TieredProgram;
+import wordy.compiler.WordyCompiler;
+import wordy.compiler.WordyExecutable;
+import wordy.interpreter.ExecutionBudget;
+import wordy.interpreter.ExecutionBudgetExceeded;
+import wordy.interpreter.InterpretedProgram;
+import wordy.interpreter.InterpreterEngine;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static wordy.ast.BinaryExpressionNode.Operator.ADDITION;
+import static wordy.ast.BinaryExpressionNode.Operator.MULTIPLICATION;
+import static wordy.ast.BinaryExpressionNode.Operator.SUBTRACTION;
+import static wordy.parser.WordyParser.parseExpression;
+import static wordy.parser.WordyParser.parseProgram;
+
+public class AstOptimizerTest {
+    // The tree-walking interpreter does not yet implement the basic node types, so it is not
+    // covered here
+    private static final List<InterpreterEngine> ENGINES = List.of(
+        InterpreterEngine.CLOSURES, InterpreterEngine.SELF_SPECIALIZING, InterpreterEngine.VM);
+
+    @Test
+    void foldConstants() {
+        assertPassEquals(ConstantFolding::fold,
+            "set x to 6 plus y. set z to y times 0.25.",
+            "set x to 2 times 3 plus y. set z to y times (1 divided by 2) squared.");
+        assertPassEquals(ConstantFolding::fold,
+            "set x to y plus 1 plus 2.",  // left-associative, so nothing is constant
+            "set x to y plus 1 plus 2.");
+    }
+
+    @Test
+    void foldNonFiniteConstants() {
+        assertEquals(
+            new BlockNode(
+                assign("x", new ConstantNode(Double.POSITIVE_INFINITY)),
+                assign("y", new ConstantNode(Double.NaN))),
+            ConstantFolding.fold(parseProgram("set x to 1 divided by 0. set y to 0 divided by 0.")));
+    }
+
+    @Test
+    void foldConstantConditionals() {
+        assertPassEquals(ConstantFolding::fold,
+            "set x to 1. set y to 2. set z to 3.",
+            "set x to 1."
+            + " if 1 is less than 2 then set y to 2 else set y to 3."
+            + " if 0 divided by 0 equals 0 divided by 0 then set z to 4 else set z to 3.");  // NaN ≠ NaN
+    }
+
+    @Test
+    void reuseVariables() {
+        assertPassEquals(CommonSubexpressionElimination::eliminate,
+            "set a to x times y. set b to a plus 1. if a is greater than 0 then set c to a.",
+            "set a to x times y. set b to x times y plus 1. if x times y is greater than 0 then set c to x times y.");
+        assertPassUnchanged(CommonSubexpressionElimination::eliminate,
+            "set a to x times y. set x to 2. set b to x times y.");
+        assertPassUnchanged(CommonSubexpressionElimination::eliminate,
+            "set a to x times y. set a to 0. set b to x times y.");
+        assertPassUnchanged(CommonSubexpressionElimination::eliminate,
+            "set x to x times y. set b to x times y.");
+    }
+
+    @Test
+    void reuseAcrossLoops() {
+        assertPassEquals(CommonSubexpressionElimination::eliminate,
+            "set a to x times y. loop: set b to a plus b. end of loop.",
+            "set a to x times y. loop: set b to x times y plus b. end of loop.");
+        assertPassUnchanged(CommonSubexpressionElimination::eliminate,
+            "set a to x times y. loop: set b to x times y. set x to x plus 1. end of loop.");
+    }
+
+    @Test
+    void introduceTemporaries() {
+        assertEquals(
+            new BlockNode(
+                assign("$cse_1", parseExpression("x squared")),
+                assign("$cse_2", parseExpression("y squared")),
+                assign("r", new BinaryExpressionNode(ADDITION, new VariableNode("$cse_1"), new VariableNode("$cse_2"))),
+                assign("s", new BinaryExpressionNode(SUBTRACTION, new VariableNode("$cse_1"), new VariableNode("$cse_2")))),
+            CommonSubexpressionElimination.eliminate(parseProgram(
+                "set r to x squared plus y squared. set s to x squared minus y squared.")));
+        assertEquals(
+            new BlockNode(
+                assign("$cse_1", parseExpression("x plus 1")),
+                assign("r", new BinaryExpressionNode(MULTIPLICATION, new VariableNode("$cse_1"), new VariableNode("$cse_1")))),
+            CommonSubexpressionElimination.eliminate(parseProgram("set r to (x plus 1) times (x plus 1).")));
+        assertPassUnchanged(CommonSubexpressionElimination::eliminate,
+            "set r to x squared. set x to 2. set s to x squared.");
+    }
+
+    @Test
+    void eliminateDeadStores() {
+        assertPassEquals(DeadStoreElimination::eliminate,
+            "set b to 1. set a to b.",
+            "set a to 1. set b to 1. set a to b.");
+        assertPassEquals(DeadStoreElimination::eliminate,
+            "if x equals 0 then set a to 2 else set a to 3.",
+            "set a to 1. if x equals 0 then set a to 2 else set a to 3.");
+        assertPassUnchanged(DeadStoreElimination::eliminate,
+            "set a to 1. if x equals 0 then set a to 2.");
+        assertPassEquals(DeadStoreElimination::eliminate,
+            "loop: set a to x. set x to a plus 1. end of loop.",
+            "loop: set a to 0. set a to x. set x to a plus 1. end of loop.");
+    }
+
+    @Test
+    void keepStoresVisibleWhenStoppedEarly() {
+        // A budget may stop the loop, leaving a = 1 visible
+        assertPassUnchanged(DeadStoreElimination::eliminate,
+            "set a to 1. loop: set x to x plus 1. end of loop. set a to 2.");
+        // So may a loop exit outside any loop
+        assertPassUnchanged(DeadStoreElimination::eliminate,
+            "set a to 1. if x equals 0 then exit loop. set a to 2.");
+        // But a store that can only reach a loop exit is dead if the code after the loop overwrites it
+        assertPassEquals(DeadStoreElimination::eliminate,
+            "loop: set x to x plus 1. exit loop. end of loop. set a to 2.",
+            "loop: set x to x plus 1. set a to 1. exit loop. end of loop. set a to 2.");
+
+        var program = AstOptimizer.optimize(parseProgram(
+            "set a to 1. loop: set x to x plus 1. end of loop. set a to 2."));
+        for(var engine : ENGINES) {
+            var prepared = engine.prepare(program);
+            var context = prepared.createContext();
+            context.setExecutionBudget(ExecutionBudget.ofIterations(3));
+            assertThrows(ExecutionBudgetExceeded.class, () -> prepared.run(context), engine.toString());
+            assertEquals(1, context.get("a"), engine.toString());
+        }
+    }
+
+    @Test
+    void temporariesAreDeadAtExit() {
+        assertEquals(
+            new BlockNode(assign("r", new ConstantNode(0))),
+            DeadStoreElimination.eliminate(new BlockNode(
+                assign("$cse_1", parseExpression("x plus 1")),
+                assign("r", new BinaryExpressionNode(MULTIPLICATION, new VariableNode("$cse_1"), new VariableNode("$cse_1"))),
+                assign("r", new ConstantNode(0)))));
+        // Still live at a back-edge, where the next iteration may read them
+        var loop = new BlockNode(
+            assign("$cse_1", parseExpression("x plus 1")),
+            new LoopNode(new BlockNode(
+                assign("r", new BinaryExpressionNode(ADDITION, new VariableNode("r"), new VariableNode("$cse_1"))))));
+        assertEquals(loop, DeadStoreElimination.eliminate(loop));
+    }
+
+    @Test
+    void hideTemporariesFromHost() {
+        var program = AstOptimizer.optimize(parseProgram(
+            "set r to x squared plus y squared. set s to x squared minus y squared."));
+        assertEquals(Set.of("$cse_1", "$cse_2", "r", "s", "x", "y"), Analysis.variableNames(program));
+
+        var expected = Map.of("r", 13.0, "s", -5.0, "x", 2.0, "y", 3.0);
+        for(var engine : ENGINES) {
+            var prepared = engine.prepare(program);
+            var context = prepared.createContext();
+            context.set("x", 2);
+            context.set("y", 3);
+            prepared.run(context);
+            assertEquals(expected, context.allVariables(), engine.toString());
+        }
+
+        for(var executable : List.of(
+            WordyCompiler.compile(program, "HideTemporaries", WordyExecutable.ExecutionContext.class),
+            WordyCompiler.compileToMethodHandles(program))
+        ) {
+            var context = executable.createContext();
+            assertEquals(List.of("r", "s", "x", "y"), context.variableNames());
+            assertEquals(-1, context.slotOf("$cse_1"));
+            context.set(context.slotOf("x"), 2);
+            context.set(context.slotOf("y"), 3);
+            executable.run(context);
+            var values = new double[4];
+            context.copyTo(values);
+            assertArrayEquals(new double[] { 13, -5, 2, 3 }, values);
+            assertThrows(IndexOutOfBoundsException.class, () -> context.get(4));
+        }
+    }
+
+    @Test
+    void optimizedProgramsMatchOriginal() throws Exception {
+        for(var name : List.of("mandel", "ripples")) {
+            var original = load(name);
+            var optimized = AstOptimizer.optimize(original);
+            var variables = Analysis.variableNames(original);
+
+            for(var engine : ENGINES)
+                assertSameResults(engine.prepare(original), engine.prepare(optimized), variables, name + " " + engine);
+            assertSameResults(
+                InterpreterEngine.CLOSURES.prepare(original),
+                TieredProgram.prepare(optimized, InterpreterEngine.CLOSURES, 0, Runnable::run),
+                variables,
+                name + " compiled");
+        }
+    }
+
+    // –––––– Helpers ––––––
+
+    private static void assertSameResults(
+        InterpretedProgram expected,
+        InterpretedProgram actual,
+        Iterable<String> variables,
+        String message
+    ) {
+        for(double x = -1; x <= 1; x += 0.125)
+            for(double y = -1; y <= 1; y += 0.125) {
+                var expectedContext = expected.createContext();
+                var actualContext = actual.createContext();
+                for(var context : List.of(expectedContext, actualContext)) {
+                    context.set("x", x);
+                    context.set("y", y);
+                    context.set("view_scale", 0.01);
+                }
+                expected.run(expectedContext);
+                actual.run(actualContext);
+                for(var variable : variables)
+                    assertEquals(expectedContext.get(variable), actualContext.get(variable),
+                        message + ": " + variable + " at (" + x + "," + y + ")");
+            }
+    }
+
+    private static StatementNode assign(String variable, ExpressionNode expression) {
+        return new AssignmentNode(new VariableNode(variable), expression);
+    }
+
+    private static StatementNode load(String name) throws IOException, URISyntaxException {
+        return parseProgram(new String(Files.readAllBytes(Paths.get(
+            AstOptimizerTest.class.getResource("/" + name + ".wordy").toURI()))));
+    }
+
+    private static void assertPassEquals(UnaryOperator<StatementNode> pass, String expected, String source) {
+        assertEquals(parseProgram(expected), pass.apply(parseProgram(source)));
+    }
+
+    private static void assertPassUnchanged(UnaryOperator<StatementNode> pass, String source) {
+        assertPassEquals(pass, source, source);
+    }
+}
@@ -0,0 +1,138 @@
+package wordy.optimizer;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import wordy.ast.ASTNode;
+import wordy.ast.AssignmentNode;
+import wordy.ast.BinaryExpressionNode;
+import wordy.ast.BlockNode;
+import wordy.ast.ConditionalExitNode;
+import wordy.ast.ConditionalNode;
+import wordy.ast.ConstantNode;
+import wordy.ast.ExpressionNode;
+import wordy.ast.IncrementNode;
+import wordy.ast.LoopNode;
+import wordy.ast.MultiplyAddNode;
+import wordy.ast.StatementNode;
+import wordy.ast.SumOfSquaresNode;
+import wordy.ast.VariableNode;
+import wordy.interpreter.EvaluationContext;
+import wordy.interpreter.InterpreterEngine;
+import wordy.interpreter.LoopExited;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static wordy.parser.WordyParser.parseProgram;
+
+public class SuperinstructionFusionTest {
+    // The tree-walking interpreter does not yet implement the unfused node types, so it is not
+    // covered here
+    private static final List<InterpreterEngine> ENGINES = List.of(
+        InterpreterEngine.CLOSURES, InterpreterEngine.SELF_SPECIALIZING, InterpreterEngine.VM);
+
+    @Test
+    void fuseIncrements() {
+        assertFusionEquals(
+            new BlockNode(
+                new IncrementNode(new VariableNode("x"), 1),
+                new IncrementNode(new VariableNode("y"), 2),
+                new IncrementNode(new VariableNode("z"), -3)),
+            "set x to x plus 1. set y to 2 plus y. set z to z minus 3.");
+        assertFusionUnchanged("set x to y plus 1. set x to 1 minus x. set x to x times 2.");
+    }
+
+    @Test
+    void fuseArithmetic() {
+        assertFusionEquals(
+            new BlockNode(
+                assign("r", new SumOfSquaresNode(new VariableNode("a"), new VariableNode("b"))),
+                assign("s", new MultiplyAddNode(
+                    new BinaryExpressionNode(
+                        BinaryExpressionNode.Operator.MULTIPLICATION, new ConstantNode(2), new VariableNode("a")),
+                    new VariableNode("b"),
+                    new VariableNode("c"))),
+                assign("t", new MultiplyAddNode(
+                    new VariableNode("a"), new ConstantNode(3), new VariableNode("c")))),
+            "set r to a squared plus b squared."
+            + " set s to 2 times a times b plus c."
+            + " set t to c plus a times 3.");
+        assertFusionUnchanged("set r to a squared minus b squared. set r to a to the power of 3 plus b squared.");
+    }
+
+    @Test
+    void fuseConditionalExits() {
+        assertFusionEquals(
+            new BlockNode(
+                new LoopNode(
+                    new BlockNode(
+                        new ConditionalExitNode(ConditionalNode.Operator.GREATER_THAN,
+                            new SumOfSquaresNode(new VariableNode("x"), new VariableNode("y")), 4),
+                        new IncrementNode(new VariableNode("x"), 1)))),
+            "loop: if x squared plus y squared is greater than 4 then exit loop. set x to x plus 1. end of loop.");
+        assertFusionUnchanged(
+            "loop: if x is greater than y then exit loop."
+            + " if x is greater than 4 then exit loop else set x to 0."
+            + " if x is greater than 4 then: set x to 0. exit loop. end of conditional. end of loop.");
+    }
+
+    @Test
+    void fusedProgramsMatchUnfused() throws Exception {
+        var original = loadMandel();
+        var fused = SuperinstructionFusion.fuse(original);
+        for(var engine : ENGINES) {
+            var expected = engine.prepare(original);
+            var actual = engine.prepare(fused);
+            for(double x = -1; x <= 1; x += 0.125)
+                for(double y = -1; y <= 1; y += 0.125) {
+                    var expectedContext = expected.createContext();
+                    var actualContext = actual.createContext();
+                    for(var context : new EvaluationContext[] { expectedContext, actualContext }) {
+                        context.set("x", x);
+                        context.set("y", y);
+                        context.set("view_scale", 0.01);
+                    }
+                    expected.run(expectedContext);
+                    actual.run(actualContext);
+                    assertEquals(expectedContext.allVariables(), actualContext.allVariables(),
+                        engine + " at (" + x + "," + y + ")");
+                }
+        }
+    }
+
+    @Test
+    void fusedExitOutsideLoop() {
+        var program = SuperinstructionFusion.fuse(parseProgram("set x to 1. if x equals 1 then exit loop. set x to 2."));
+        for(var engine : ENGINES) {
+            var prepared = engine.prepare(program);
+            var context = prepared.createContext();
+            assertThrows(LoopExited.class, () -> prepared.run(context), engine.toString());
+            assertEquals(1, context.get("x"), engine.toString());
+        }
+    }
+
+    // –––––– Helpers ––––––
+
+    private static StatementNode assign(String variable, ExpressionNode expression) {
+        return new AssignmentNode(new VariableNode(variable), expression);
+    }
+
+    private static StatementNode loadMandel() throws IOException, URISyntaxException {
+        return parseProgram(new String(Files.readAllBytes(Paths.get(
+            SuperinstructionFusionTest.class.getResource("/mandel.wordy").toURI()))));
+    }
+
+    private static void assertFusionEquals(ASTNode expected, String source) {
+        assertEquals(expected, SuperinstructionFusion.fuse(parseProgram(source)));
+    }
+
+    private static void assertFusionUnchanged(String source) {
+        var program = parseProgram(source);
+        assertEquals(program, SuperinstructionFusion.fuse(program));
+    }
+}
@@ -0,0 +1,69 @@
+package wordy.parser;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import wordy.ast.StatementNode;
+
+/**
+ * Compares parsing throughput and allocation of the hand-written parser against parboiled, on the
+ * example programs. Run with `gradle benchmark`; RecursiveDescentParserTest checks that both
+ * parsers agree.
+ */
+@Tag("benchmark")
+public class ParserBenchmark {
+    private static final int PARSES_PER_PASS = 500, PASSES = 5;
+
+    @Test
+    void compareParsers() throws Exception {
+        for(var name : new String[] { "/mandel.wordy", "/ripples.wordy" }) {
+            var source = new String(Files.readAllBytes(Paths.get(
+                ParserBenchmark.class.getResource(name).toURI())));
+            double parboiled = time(source, WordyParser::parseProgramWithParboiled),
+                handWritten = time(source, WordyParser::parseProgram);
+            System.out.printf("%-14s parboiled %8.0f programs/s   hand-written %8.0f programs/s   (%.1fx)%n",
+                name.substring(1), parboiled, handWritten, handWritten / parboiled);
+            System.out.printf("%-14s parboiled %8d bytes/parse    hand-written %8d bytes/parse%n",
+                "", allocation(source, WordyParser::parseProgramWithParboiled), allocation(source, WordyParser::parseProgram));
+        }
+    }
+
+    /**
+     * The best throughput of several passes, after warming up, in programs per second.
+     */
+    private static double time(String source, Function<String, StatementNode> parser) {
+        for(int warmup = 0; warmup < PASSES; warmup++)
+            pass(source, parser);
+        long best = Long.MAX_VALUE;
+        for(int n = 0; n < PASSES; n++) {
+            long start = System.nanoTime();
+            pass(source, parser);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return PARSES_PER_PASS / (best / 1e9);
+    }
+
+    /**
+     * Bytes allocated per parse, or -1 if this JVM cannot count allocations.
+     */
+    private static long allocation(String source, Function<String, StatementNode> parser) {
+        var bean = ManagementFactory.getThreadMXBean();
+        if(!(bean instanceof com.sun.management.ThreadMXBean))
+            return -1;
+        var counter = (com.sun.management.ThreadMXBean) bean;
+        long threadId = Thread.currentThread().getId(),
+            before = counter.getThreadAllocatedBytes(threadId);
+        pass(source, parser);
+        return (counter.getThreadAllocatedBytes(threadId) - before) / PARSES_PER_PASS;
+    }
+
+    private static void pass(String source, Function<String, StatementNode> parser) {
+        for(int n = 0; n < PARSES_PER_PASS; n++)
+            parser.apply(source);
+    }
+}
@@ -0,0 +1,98 @@
+package wordy.parser;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import wordy.ast.ASTNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks that the hand-written parser accepts exactly what the parboiled grammar accepts, and
+ * builds the same AST.
+ */
+public class RecursiveDescentParserTest {
+    private static final String[] WORDS = {
+        "set", "to", "if", "then", "else", "end of conditional", "loop", "end of loop", "exit loop",
+        "equals", "is equal to", "is less than", "is greater than",
+        "plus", "minus", "times", "divided by", "to the power of", "squared",
+        "x", "y", "count_2", "1", "-2.5", "3.", "(", ")", ".", ":",
+    };
+
+    @Test
+    void matchesParboiledOnExamples() throws Exception {
+        for(var name : new String[] { "/mandel.wordy", "/ripples.wordy" })
+            assertSameParse(new String(Files.readAllBytes(Paths.get(
+                RecursiveDescentParserTest.class.getResource(name).toURI()))));
+
+        // Quirks of the grammar that the hand-written parser must reproduce
+        assertSameParse("setx to1.");                                  // no spaces needed between tokens
+        assertSameParse("set x to 1.5.set y to 2 .");
+        assertSameParse("set x to 1..");
+        assertSameParse("  set x to y squared squared to the power of 2 squared.");
+        assertSameParse("set x to (1 minus 2) divided  by - 3.");
+        assertSameParse("set x to 1 minus -3 plus.");
+        assertSameParse("if x is equal to 2 then if y equals 1 then set z to 1 else set z to 2 else set z to 3.");
+        assertSameParse("if x equals 1 then: set y to 1. else set y to 2. end of conditional.");
+        assertSameParse("if x equals 1 then: set y to 1. else: end of conditional.");
+        assertSameParse("loopy: exit loop. end of loop.");
+        assertSameParse("set to to 1.");
+        assertSameParse("set x2 to 1.");
+        assertSameParse("");
+        assertSameParse("set\tx\u000Bto\f1\r\n.");
+    }
+
+    @Test
+    void matchesParboiledOnRandomInput() {
+        var random = new Random(0);
+        for(int n = 0; n < 3000; n++) {
+            var input = new StringBuilder();
+            int length = random.nextInt(16);
+            for(int i = 0; i < length; i++) {
+                input.append(WORDS[random.nextInt(WORDS.length)]);
+                input.append(" ".repeat(random.nextInt(3)));
+            }
+            assertSameParse(input.toString());
+        }
+    }
+
+    @Test
+    void matchesParboiledOnMutations() throws Exception {
+        var random = new Random(1);
+        var source = new String(Files.readAllBytes(Paths.get(
+            RecursiveDescentParserTest.class.getResource("/mandel.wordy").toURI())));
+        for(int n = 0; n < 300; n++) {
+            var mutated = new StringBuilder(source);
+            int at = random.nextInt(mutated.length());
+            switch(random.nextInt(3)) {
+                case 0: mutated.deleteCharAt(at); break;
+                case 1: mutated.insert(at, " .:()-9x".charAt(random.nextInt(8))); break;
+                case 2: mutated.delete(at, Math.min(mutated.length(), at + random.nextInt(12))); break;
+            }
+            assertSameParse(mutated.toString());
+        }
+    }
+
+    @Test
+    void parseFragments() {
+        assertNotNull(RecursiveDescentParser.parseExpression(" (1)"));  // parboiled allows space before “(”
+        assertNull(RecursiveDescentParser.parseExpression(" 1"));
+        assertEquals(WordyParser.parseStatement("exit loop"), RecursiveDescentParser.parseStatement("exitloop "));
+        assertNull(RecursiveDescentParser.parseStatement("exit loop."));
+    }
+
+    private static void assertSameParse(String input) {
+        ASTNode expected;
+        try {
+            expected = WordyParser.parseProgramWithParboiled(input);
+        } catch(ParseException e) {
+            expected = null;
+        }
+        assertEquals(expected, RecursiveDescentParser.parseProgram(WordyParser.normalize(input)), "Parsing: " + input);
+    }
+}
@@ -277,6 +277,16 @@ public class WordyParserTest {
             "set x to(x squared)plus(y to the power of(3 plus(z squared))).");
     }
 
+    @Test
+    void testErrorReports() {
+        var error = assertThrows(ParseException.class, () -> parseProgram("loop: set x to 1 plus. end of loop."));
+        assertEquals(21, error.getFirstError().getStartIndex());
+        error = assertThrows(ParseException.class, () -> parseProgram("if x equals 1 then: set y to 1. end of loop."));
+        assertEquals(39, error.getFirstError().getStartIndex());
+        assertThrows(ParseException.class, () -> parseStatement("if x equals then"));
+        assertThrows(ParseException.class, () -> parseExpression("1 plus"));
+    }
+
     private void assertEquivalentParsing(String... variants) {
         ASTNode expected = parseProgram(variants[0]);
         for(var variant : variants) {
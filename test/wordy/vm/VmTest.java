@@ -0,0 +1,164 @@
+package wordy.vm;
+
+import org.junit.jupiter.api.Test;
+
+import wordy.interpreter.EvaluationContext;
+import wordy.interpreter.LoopExited;
+import wordy.optimizer.SuperinstructionFusion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static wordy.parser.WordyParser.parseProgram;
+
+public class VmTest {
+    private EvaluationContext context;
+
+    @Test
+    void lowerAssignments() {
+        assertLoweringEquals(
+            """
+               0  ADD_K                  y, x, 1.0
+               4  LOAD_CONST             t0, 2.0
+               8  SUB                    t0, t0, y
+              12  MUL_K                  t1, x, 3.0
+              16  MUL                    z, t0, t1
+              20  HALT
+            """,
+            "set y to x plus 1. set z to (2 minus y) times (x times 3).");
+    }
+
+    @Test
+    void lowerControlFlow() {
+        assertLoweringEquals(
+            """
+               0  JUMP_UNLESS_GT_K       x, 10.0 → 12
+               4  JUMP                   → 28
+               8  JUMP                   → 16
+              12  ADD_K                  x, x, 1.0
+              16  JUMP_UNLESS_EQ         x, y → 24
+              20  MOVE                   y, x
+              24  LOOP                   → 0
+              28  HALT
+            """,
+            "loop:"
+            + " if x is greater than 10 then exit loop else set x to x plus 1."
+            + " if x equals y then set y to x."
+            + " end of loop.");
+    }
+
+    @Test
+    void lowerConstantPowers() {
+        assertLoweringEquals(
+            """
+               0  SQUARE                 y, x
+               4  SQUARE_ROOT            z, x
+               8  ADD_K                  t0, x, 1.0
+              12  CUBE                   w, t0
+              16  POW_K                  v, x, 0.3
+              20  HALT
+            """,
+            "set y to x squared. set z to x to the power of 0.5."
+            + " set w to (x plus 1) to the power of 3. set v to x to the power of 0.3.");
+    }
+
+    @Test
+    void lowerFusedNodes() {
+        assertEquals(
+            """
+               0  SUM_OF_SQUARES         t0, x, y
+               4  JUMP_IF_GT_K           t0, 4.0 → 16
+               8  ADD_K                  x, x, 1.0
+              12  LOOP                   → 0
+              16  HALT
+            """,
+            VmCompiler.compile(SuperinstructionFusion.fuse(parseProgram(
+                "loop: if x squared plus y squared is greater than 4 then exit loop. set x to x plus 1. end of loop."
+            ))).disassemble());
+    }
+
+    @Test
+    void evaluateExpressions() {
+        assertEvaluationEquals(2001, "2001");
+        assertEvaluationEquals(5, "2 plus 3");
+        assertEvaluationEquals(-1, "2 minus 3");
+        assertEvaluationEquals(6, "2 times 3");
+        assertEvaluationEquals(2.0 / 3, "2 divided by 3");
+        assertEvaluationEquals(4, "2 squared");
+        assertEvaluationEquals(511.5, "2 to the power of 3 squared minus 1 divided by 2");
+        assertEvaluationEquals(30, "a times b");
+        assertEvaluationEquals(-23, "b minus (a plus 3) times (a minus 8)");
+        assertEvaluationEquals(9, "a plus (b minus (a plus (b minus (a minus 1))))");
+    }
+
+    @Test
+    void executeConditional() {
+        String program =
+            "if x is less than 12 then set lt to x else set lt to lt minus 1."
+            + "if x equals 12 then set eq to x else set eq to eq minus 1."
+            + "if x is greater than x minus 1 then: set gt to x. end of conditional.";
+        var compiled = VmCompiler.compile(parseProgram(program));
+        context = compiled.createContext();
+
+        context.set("x", 11);
+        compiled.run(context);
+        assertVariableEquals("lt", 11);
+        assertVariableEquals("eq", -1);
+        assertVariableEquals("gt", 11);
+
+        context.set("x", 12);
+        compiled.run(context);
+        assertVariableEquals("lt", 10);
+        assertVariableEquals("eq", 12);
+        assertVariableEquals("gt", 12);
+    }
+
+    @Test
+    void executeLoops() {
+        runProgram("loop: set x to x plus 1. if x equals 10 then exit loop. set y to y plus x squared. end of loop.");
+        assertVariableEquals("x", 10);
+        assertVariableEquals("y", 285);
+
+        runProgram(
+            "loop:"
+            + "  set i to i plus 1. set j to 0."
+            + "  loop: set j to j plus 1. set total to total plus 1. if j equals i then exit loop. end of loop."
+            + "  if i equals 4 then exit loop."
+            + "end of loop.");
+        assertVariableEquals("i", 4);
+        assertVariableEquals("total", 10);
+    }
+
+    @Test
+    void exitOutsideLoop() {
+        assertThrows(LoopExited.class, () -> runProgram("set x to 1. exit loop. set x to 2."));
+        assertVariableEquals("x", 1);
+    }
+
+    @Test
+    void temporariesAreNotVariables() {
+        runProgram("set x to (1 plus 2) times (3 plus 4).");
+        assertEquals(1, context.allVariables().size());
+        assertVariableEquals("x", 21);
+    }
+
+    // ––––––– Helpers –––––––
+
+    private void assertLoweringEquals(String expected, String program) {
+        assertEquals(expected, VmCompiler.compile(parseProgram(program)).disassemble());
+    }
+
+    private void assertEvaluationEquals(double expected, String expression) {
+        runProgram("set a to 10. set b to 3. set result to " + expression + ".");
+        assertVariableEquals("result", expected);
+    }
+
+    private void runProgram(String program) {
+        var compiled = VmCompiler.compile(parseProgram(program));
+        context = compiled.createContext();
+        compiled.run(context);
+    }
+
+    private void assertVariableEquals(String name, double expectedValue) {
+        assertEquals(expectedValue, context.get(name));
+    }
+}